@@ -0,0 +1,82 @@
+package blockchain.benchmark;
+
+import akka.actor.typed.ActorSystem;
+import akka.actor.typed.javadsl.AskPattern;
+import blockchain.actors.Manager;
+import blockchain.actors.Worker;
+import blockchain.actors.WorkerConfiguration;
+import blockchain.model.Block;
+import blockchain.model.BlockHeaderFormat;
+import blockchain.model.MiningEngine;
+import blockchain.model.Transaction;
+import blockchain.utils.DifficultyTarget;
+import blockchain.utils.MiningKernelType;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A worker searching a nonce range that holds no hash, from the StartMiningCommand to its WorkerFinishedCommand.
+ * Every operation is one hash, so run it with {@code -prof gc}: {@code gc.alloc.rate.norm} is the number of bytes
+ * allocated per hash by the kernel, the batches and the messages of the worker.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AllocationBenchmark {
+    private static final int NONCES = 1_000_000;
+    private static final Transaction TRANSACTION = new Transaction(UUID.fromString("33cdefb0-6f73-408b-8a5d-4e72ad13ffdc"), 1588883122, 35252435, 125.25);
+    private static final String PREVIOUS_HASH = "000000eb16b355b8324cea2f03ee03a242ba20393fec0358cf24248d3513e9b5";
+    //No hash of the range meets it, the whole range is searched
+    private static final DifficultyTarget TARGET = DifficultyTarget.ofLeadingZeros(20);
+
+    @Param({"ACTOR_BATCHES", "PLATFORM_THREADS"})
+    private MiningEngine engine;
+
+    @Param({"10", "10000"})
+    private long batchSize;
+
+    @Param({"LEGACY", "BINARY_V1"})
+    private BlockHeaderFormat headerFormat;
+
+    private ActorSystem<Worker.Command> worker;
+    private Block block;
+    private long nextStartNonce;
+
+    @Setup
+    public void startWorker() {
+        WorkerConfiguration configuration = WorkerConfiguration.builder()
+                .miningKernel(MiningKernelType.MIDSTATE)
+                .batchSize(batchSize)
+                .miningEngine(engine)
+                .build();
+        worker = ActorSystem.create(Worker.create(configuration), "worker");
+        block = headerFormat == BlockHeaderFormat.BINARY_V1
+                ? Block.withBinaryHeader(List.of(TRANSACTION), PREVIOUS_HASH, 20)
+                : new Block(TRANSACTION, PREVIOUS_HASH);
+    }
+
+    @TearDown
+    public void stopWorker() {
+        worker.terminate();
+        worker.getWhenTerminated().toCompletableFuture().join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NONCES)
+    public Manager.Command mineRange() {
+        long startNonce = nextStartNonce;
+        nextStartNonce += NONCES;
+        return AskPattern.<Worker.Command, Manager.Command>ask(worker,
+                        me -> new Worker.StartMiningCommand(block, startNonce, startNonce + NONCES - 1, TARGET, me, null, 0),
+                        Duration.ofMinutes(1), worker.scheduler())
+                .toCompletableFuture()
+                .join();
+    }
+}
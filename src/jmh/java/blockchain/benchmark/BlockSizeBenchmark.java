@@ -0,0 +1,61 @@
+package blockchain.benchmark;
+
+import blockchain.model.Block;
+import blockchain.model.Mempool;
+import blockchain.model.Transaction;
+import blockchain.model.TransactionSource;
+import blockchain.utils.MiningKernel;
+import blockchain.utils.MiningKernelType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of building a block from the mempool (Merkle root included) plus a fixed nonce search over it.
+ * The transactions counter gives the transaction throughput for each block size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockSizeBenchmark {
+    private static final int NONCES_PER_BLOCK = 10_000;
+    // never satisfied, so every block searches the whole range
+    private static final int IMPOSSIBLE_DIFFICULTY = 64;
+
+    @Param({"1", "10", "100", "1000"})
+    private int transactionsPerBlock;
+
+    private List<Transaction> transactions;
+    private Mempool mempool;
+    private MiningKernel kernel;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long transactions;
+    }
+
+    @Setup
+    public void setUp() {
+        transactions = Stream.generate(TransactionSource.seeded(42)::next).limit(transactionsPerBlock).toList();
+        mempool = new Mempool(transactionsPerBlock);
+        kernel = MiningKernelType.DIGEST.newKernel();
+    }
+
+    @Benchmark
+    public boolean mineBlock(Counters counters) {
+        mempool.submitAll(transactions.stream());
+        List<Transaction> blockTransactions = mempool.takeBlock(transactionsPerBlock);
+        Block block = transactionsPerBlock == 1
+                ? new Block(blockTransactions.get(0), "0")
+                : Block.withTransactions(blockTransactions, "0");
+        kernel.prepare(block);
+        counters.transactions += blockTransactions.size();
+        return kernel.search(IMPOSSIBLE_DIFFICULTY, 0, NONCES_PER_BLOCK - 1);
+    }
+}
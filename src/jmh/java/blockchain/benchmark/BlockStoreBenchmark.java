@@ -0,0 +1,99 @@
+package blockchain.benchmark;
+
+import blockchain.model.Block;
+import blockchain.model.BlockHeaderFormat;
+import blockchain.model.Transaction;
+import blockchain.store.FileBlockStore;
+import blockchain.store.FileBlockStoreConfiguration;
+import blockchain.store.FsyncPolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Appends to and random reads by height from a {@link FileBlockStore}. Blocks are not mined,
+ * the store takes them as they are.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockStoreBenchmark {
+    private static final int TRANSACTIONS_PER_BLOCK = 10;
+    private static final int STORED_BLOCKS = 100_000;
+
+    public abstract static class StoreState {
+        Path directory;
+        FileBlockStore store;
+        Block block;
+
+        void open(FsyncPolicy fsyncPolicy) throws IOException {
+            Random random = new Random(42);
+            List<Transaction> transactions = new ArrayList<>();
+            for (int i = 0; i < TRANSACTIONS_PER_BLOCK; i++) {
+                transactions.add(new Transaction(new UUID(random.nextLong(), random.nextLong()), 1588883122L + i, random.nextInt(1000), random.nextInt(100000) / 100.0));
+            }
+            block = Block.restore(transactions, "0".repeat(64), "0".repeat(64), BlockHeaderFormat.BINARY_V1, 6, 1277424, "0".repeat(64));
+
+            directory = Files.createTempDirectory("block-store-benchmark");
+            store = FileBlockStore.open(FileBlockStoreConfiguration.builder()
+                    .directory(directory)
+                    .fsyncPolicy(fsyncPolicy)
+                    .build());
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws IOException {
+            store.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class AppendState extends StoreState {
+        @Param({"NEVER", "PERIODIC", "ALWAYS"})
+        FsyncPolicy fsyncPolicy;
+
+        @Setup(Level.Iteration)
+        public void setUp() throws IOException {
+            open(fsyncPolicy);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ReadState extends StoreState {
+        @Setup(Level.Iteration)
+        public void setUp() throws IOException {
+            open(FsyncPolicy.NEVER);
+            for (int i = 0; i < STORED_BLOCKS; i++) {
+                store.append(block);
+            }
+        }
+    }
+
+    @Benchmark
+    public long append(AppendState state) {
+        state.store.append(state.block);
+        return state.store.size();
+    }
+
+    @Benchmark
+    public Block readRandomHeight(ReadState state) {
+        return state.store.get(ThreadLocalRandom.current().nextLong(STORED_BLOCKS));
+    }
+}
@@ -0,0 +1,112 @@
+package blockchain.benchmark;
+
+import blockchain.model.Block;
+import blockchain.model.BlockChain;
+import blockchain.model.BlockHeaderFormat;
+import blockchain.model.BlockValidationException;
+import blockchain.model.ChainValidationReport;
+import blockchain.model.ChainValidator;
+import blockchain.model.TransactionSource;
+import blockchain.store.InMemoryBlockStore;
+import blockchain.utils.BlockChainUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BlockChain#addBlock(Block)} and {@link ChainValidator} at various chain sizes. Blocks are mined at
+ * difficulty 0 (the first nonce is taken), so validating them costs as much as validating real blocks.
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ChainBenchmark {
+    private static final int BLOCKS_PER_ITERATION = 1000;
+
+    private static Block mine(TransactionSource transactions, String previousHash) {
+        Block block = Block.withBinaryHeader(List.of(transactions.next()), previousHash, 0);
+        block.setHashAndNonce(BlockChainUtils.mineBlock(block, 0, 0, 0).orElseThrow());
+        return block;
+    }
+
+    @State(Scope.Thread)
+    public static class AddBlockState {
+        @Param({"1000", "100000", "1000000"})
+        int chainSize;
+
+        BlockChain blockChain;
+        TransactionSource transactions = TransactionSource.seeded(42);
+        Block[] nextBlocks = new Block[BLOCKS_PER_ITERATION];
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            //Stored blocks are taken as valid, they only need hashes for the index
+            Random random = new Random(42);
+            InMemoryBlockStore store = new InMemoryBlockStore();
+            String previousHash = "0";
+            for (int i = 0; i < chainSize; i++) {
+                String hash = String.format("%016x%016x%016x%016x", random.nextLong(), random.nextLong(), random.nextLong(), random.nextLong());
+                store.append(Block.restore(List.of(transactions.next()), previousHash, null, BlockHeaderFormat.LEGACY, 0, 0, hash));
+                previousHash = hash;
+            }
+            blockChain = new BlockChain(store);
+        }
+
+        @Setup(Level.Iteration)
+        public void mineNextBlocks() {
+            String previousHash = blockChain.getLastHash();
+            for (int i = 0; i < BLOCKS_PER_ITERATION; i++) {
+                nextBlocks[i] = mine(transactions, previousHash);
+                previousHash = nextBlocks[i].getHash();
+            }
+            next = 0;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ValidationState {
+        @Param({"1000", "100000"})
+        int chainSize;
+
+        @Param({"256", "4096"})
+        int chunkSize;
+
+        ChainValidator validator;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            TransactionSource transactions = TransactionSource.seeded(42);
+            InMemoryBlockStore store = new InMemoryBlockStore();
+            String previousHash = "0";
+            for (int i = 0; i < chainSize; i++) {
+                Block block = mine(transactions, previousHash);
+                store.append(block);
+                previousHash = block.getHash();
+            }
+            validator = new ChainValidator(new BlockChain(store), 0, chunkSize);
+        }
+    }
+
+    /**
+     * Every iteration adds the batch of blocks mined for it.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 5, batchSize = BLOCKS_PER_ITERATION)
+    @Measurement(iterations = 10, batchSize = BLOCKS_PER_ITERATION)
+    public BlockChain addBlock(AddBlockState state) throws BlockValidationException {
+        state.blockChain.addBlock(state.nextBlocks[state.next++]);
+        return state.blockChain;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public ChainValidationReport validateAll(ValidationState state) {
+        return state.validator.validateAll();
+    }
+}
@@ -0,0 +1,69 @@
+package blockchain.benchmark;
+
+import blockchain.model.Block;
+import blockchain.model.BlockChain;
+import blockchain.model.BlockHeaderFormat;
+import blockchain.model.Transaction;
+import blockchain.store.InMemoryBlockStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups by height, hash and transaction id in an in-memory chain of a million (unmined) blocks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ChainLookupBenchmark {
+    @Param({"1000000"})
+    private int blocks;
+
+    private BlockChain blockChain;
+    private String[] hashes;
+    private UUID[] transactionIds;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        InMemoryBlockStore store = new InMemoryBlockStore();
+        hashes = new String[blocks];
+        transactionIds = new UUID[blocks];
+        String previousHash = "0";
+        for (int i = 0; i < blocks; i++) {
+            transactionIds[i] = new UUID(random.nextLong(), random.nextLong());
+            hashes[i] = String.format("%016x%016x%016x%016x", random.nextLong(), random.nextLong(), random.nextLong(), random.nextLong());
+            Transaction transaction = new Transaction(transactionIds[i], 1588883122L + i, random.nextInt(1000), 125.25);
+            store.append(Block.restore(List.of(transaction), previousHash, null, BlockHeaderFormat.LEGACY, 0, i, hashes[i]));
+            previousHash = hashes[i];
+        }
+        blockChain = new BlockChain(store);
+    }
+
+    private int randomHeight() {
+        return ThreadLocalRandom.current().nextInt(blocks);
+    }
+
+    @Benchmark
+    public Block byHeight() {
+        return blockChain.getBlock(randomHeight());
+    }
+
+    @Benchmark
+    public Optional<Block> byHash() {
+        return blockChain.findBlockByHash(hashes[randomHeight()]);
+    }
+
+    @Benchmark
+    public Optional<Block> byTransactionId() {
+        return blockChain.findBlockByTransactionId(transactionIds[randomHeight()]);
+    }
+}
@@ -0,0 +1,115 @@
+package blockchain.benchmark;
+
+import blockchain.model.Block;
+import blockchain.model.BlockHeaderFormat;
+import blockchain.model.HashResult;
+import blockchain.model.Transaction;
+import blockchain.utils.BlockChainUtils;
+import blockchain.utils.HeaderMiningKernel;
+import blockchain.utils.MiningKernel;
+import blockchain.utils.MiningKernelType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BlockChainUtils#calculateHash(String)} and nonce searches over fixed size ranges of a fixed block.
+ * Low difficulties usually find a nonce early in the range, compare them by the hashes counter (hashes per second).
+ * {@link #mineBlockHexCheck} is the search as it started out, a hex String per nonce whose first characters are
+ * compared to zeros, against the kernels that check the first words of the raw hash.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashingBenchmark {
+    private static final long NONCES_PER_RANGE = 100_000;
+    private static final Transaction TRANSACTION = new Transaction(UUID.fromString("33cdefb0-6f73-408b-8a5d-4e72ad13ffdc"), 1588883122, 35252435, 125.25);
+    private static final String PREVIOUS_HASH = "000000eb16b355b8324cea2f03ee03a242ba20393fec0358cf24248d3513e9b5";
+
+    @State(Scope.Thread)
+    public static class HashState {
+        String data = PREVIOUS_HASH + TRANSACTION.getTimestamp() + 1277424 + TRANSACTION;
+    }
+
+    @State(Scope.Thread)
+    public static class MiningState {
+        @Param({"1", "2", "3", "4", "5", "6"})
+        int difficulty;
+
+        @Param({"DIGEST", "MIDSTATE"})
+        MiningKernelType miningKernel;
+
+        @Param({"LEGACY", "BINARY_V1"})
+        BlockHeaderFormat headerFormat;
+
+        MiningKernel kernel;
+        long nextStartNonce;
+
+        @Setup
+        public void setUp() {
+            Block block;
+            if (headerFormat == BlockHeaderFormat.BINARY_V1) {
+                block = Block.withBinaryHeader(List.of(TRANSACTION), PREVIOUS_HASH, difficulty);
+                //The header kernel is the only one for binary headers, the miningKernel parameter does not apply
+                kernel = new HeaderMiningKernel();
+            } else {
+                block = new Block(TRANSACTION, PREVIOUS_HASH);
+                kernel = miningKernel.newKernel();
+            }
+            kernel.prepare(block);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class HexCheckState {
+        @Param({"1", "2", "3", "4", "5", "6"})
+        int difficulty;
+
+        String zeros;
+        long nextStartNonce;
+
+        @Setup
+        public void setUp() {
+            zeros = "0".repeat(difficulty);
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long hashes;
+    }
+
+    @Benchmark
+    public String calculateHash(HashState state) {
+        return BlockChainUtils.calculateHash(state.data);
+    }
+
+    @Benchmark
+    public Optional<HashResult> mineBlock(MiningState state, Counters counters) {
+        long startNonce = state.nextStartNonce;
+        state.nextStartNonce += NONCES_PER_RANGE;
+        Optional<HashResult> result = BlockChainUtils.mineBlock(state.kernel, state.difficulty, startNonce, startNonce + NONCES_PER_RANGE - 1);
+        counters.hashes += state.kernel.getHashCount();
+        return result;
+    }
+
+    @Benchmark
+    public Optional<HashResult> mineBlockHexCheck(HexCheckState state, Counters counters) {
+        long startNonce = state.nextStartNonce;
+        state.nextStartNonce += NONCES_PER_RANGE;
+        for (long nonce = startNonce + 1; nonce <= startNonce + NONCES_PER_RANGE; nonce++) {
+            String hash = BlockChainUtils.calculateHash(PREVIOUS_HASH + TRANSACTION.getTimestamp() + nonce + TRANSACTION);
+            counters.hashes++;
+            if (hash.substring(0, state.difficulty).equals(state.zeros)) {
+                return Optional.of(new HashResult(hash, nonce));
+            }
+        }
+        return Optional.empty();
+    }
+}
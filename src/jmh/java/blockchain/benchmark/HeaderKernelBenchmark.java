@@ -0,0 +1,59 @@
+package blockchain.benchmark;
+
+import blockchain.model.Block;
+import blockchain.model.Transaction;
+import blockchain.utils.DifficultyTarget;
+import blockchain.utils.HeaderKernelType;
+import blockchain.utils.MiningKernel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hash rate of the binary header kernels, scalar MessageDigest against the multi-lane Vector API kernels.
+ * The target is never met, so every search hashes the whole range. Kernels the machine does not support (vector
+ * registers narrower than their lanes) fail in setup, JMH reports the error and continues with the next one.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class HeaderKernelBenchmark {
+    private static final long NONCES_PER_RANGE = 100_000;
+    private static final Transaction TRANSACTION = new Transaction(UUID.fromString("33cdefb0-6f73-408b-8a5d-4e72ad13ffdc"), 1588883122, 35252435, 125.25);
+    private static final DifficultyTarget NEVER_MET = DifficultyTarget.ofLeadingZeros(64);
+
+    @Param({"DIGEST", "LANES_4", "LANES_8", "LANES_16"})
+    HeaderKernelType kernelType;
+
+    private MiningKernel kernel;
+    private long nextStartNonce;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long hashes;
+    }
+
+    @Setup
+    public void setUp() {
+        if (!kernelType.isSupported()) {
+            throw new IllegalStateException(kernelType + " is not supported on this machine");
+        }
+        kernel = kernelType.newKernel();
+        kernel.prepare(Block.withBinaryHeader(List.of(TRANSACTION), "0", 64));
+    }
+
+    @Benchmark
+    public boolean search(Counters counters) {
+        long startNonce = nextStartNonce;
+        nextStartNonce += NONCES_PER_RANGE;
+        boolean found = kernel.search(NEVER_MET, startNonce, startNonce + NONCES_PER_RANGE - 1);
+        counters.hashes += kernel.getHashCount();
+        return found;
+    }
+}
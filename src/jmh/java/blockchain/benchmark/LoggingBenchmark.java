@@ -0,0 +1,103 @@
+package blockchain.benchmark;
+
+import blockchain.model.Block;
+import blockchain.model.Transaction;
+import blockchain.utils.MiningKernel;
+import blockchain.utils.MiningKernelType;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Mining throughput when every nonce range reports its progress while stdout is a slow sink (a terminal,
+ * a pipe into a busy log shipper). Printing directly stalls the mining thread for every line, the async
+ * appender from logback.xml only enqueues the event and drops it once its queue is full.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LoggingBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(LoggingBenchmark.class);
+    private static final long NONCES_PER_RANGE = 10_000;
+    private static final Transaction TRANSACTION = new Transaction(UUID.fromString("33cdefb0-6f73-408b-8a5d-4e72ad13ffdc"), 1588883122, 35252435, 125.25);
+
+    public enum Output { SYSTEM_OUT, ASYNC_LOG, DEBUG_DISABLED }
+
+    @Param({"SYSTEM_OUT", "ASYNC_LOG", "DEBUG_DISABLED"})
+    Output output;
+
+    @Param({"0", "1000"})
+    long sinkDelayMicros;
+
+    private PrintStream originalOut;
+    private MiningKernel kernel;
+    private long nextStartNonce;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long hashes;
+    }
+
+    @Setup
+    public void setUp() {
+        originalOut = System.out;
+        long sinkDelayNanos = TimeUnit.MICROSECONDS.toNanos(sinkDelayMicros);
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                if (sinkDelayNanos > 0) {
+                    LockSupport.parkNanos(sinkDelayNanos);
+                }
+            }
+        }, true));
+
+        kernel = MiningKernelType.DIGEST.newKernel();
+        //Difficulty 64 is never met, every range hashes all of its nonces
+        kernel.prepare(new Block(TRANSACTION, "0"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public boolean mineAndReport(Counters counters) {
+        long startNonce = nextStartNonce;
+        nextStartNonce += NONCES_PER_RANGE;
+        boolean found = kernel.search(64, startNonce, startNonce + NONCES_PER_RANGE - 1);
+        counters.hashes += kernel.getHashCount();
+
+        switch (output) {
+            case SYSTEM_OUT -> System.out.println("worker received start command for nonce from " + startNonce + " to " + (startNonce + NONCES_PER_RANGE - 1) + ".");
+            case ASYNC_LOG -> log.atInfo()
+                    .addKeyValue("nonceFrom", startNonce)
+                    .addKeyValue("nonceTo", startNonce + NONCES_PER_RANGE - 1)
+                    .log("Received start command");
+            case DEBUG_DISABLED -> {
+                if (log.isDebugEnabled()) {
+                    log.atDebug()
+                            .addKeyValue("nonceFrom", startNonce)
+                            .addKeyValue("nonceTo", startNonce + NONCES_PER_RANGE - 1)
+                            .log("Received start command");
+                }
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,92 @@
+package blockchain.benchmark;
+
+import akka.actor.typed.ActorSystem;
+import akka.actor.typed.javadsl.AskPattern;
+import blockchain.actors.Manager;
+import blockchain.actors.MiningDispatchers;
+import blockchain.model.BlockChain;
+import blockchain.model.BlockChainMiningWorkOrder;
+import blockchain.model.MiningBatchMode;
+import blockchain.model.MiningEngine;
+import blockchain.model.NonceAllocation;
+import blockchain.model.TransactionSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end mining runs of the Manager with seeded transactions. Each operation mines a whole chain,
+ * the counters give blocks and hashes per second. Hashes are counted as the nonces up to the winning one
+ * of every block, i.e. the work a single miner would have needed, not what the workers actually hashed.
+ * By default the winning nonce depends on which worker reports first, so only the first block is the same for every
+ * worker count and the later blocks compare on average over many blocks. {@code -p lowestNonceWins=true} mines the
+ * same chain in every run, with nonce ranges the Manager assigns instead of a shared cursor.
+ * The engine parameter compares actor batches with loops on platform and virtual threads on the same machine.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 20)
+@Fork(1)
+public class ManagerBenchmark {
+    private static final int BLOCKS = 10;
+
+    @Param({"1", "2", "4", "8"})
+    private int workers;
+
+    @Param({"4"})
+    private int difficulty;
+
+    @Param({"ACTOR_BATCHES", "PLATFORM_THREADS", "VIRTUAL_THREADS"})
+    private MiningEngine engine;
+
+    @Param({"false"})
+    private boolean lowestNonceWins;
+
+    private BlockChainMiningWorkOrder workOrder;
+    private ActorSystem<Manager.Command> miningManager;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long blocks;
+        public long hashes;
+    }
+
+    @Setup(Level.Invocation)
+    public void startActorSystem() {
+        workOrder = BlockChainMiningWorkOrder.builder()
+                .numberOfSimultaneousWorkers(workers)
+                .numberOfBlocksToMine(BLOCKS)
+                .workloadPerWorker(5000000)
+                .difficulty(difficulty)
+                .progressReportFrequency(60)
+                .batchMode(MiningBatchMode.ADAPTIVE)
+                .nonceAllocation(NonceAllocation.SHARED_CURSOR)
+                .miningEngine(engine)
+                .transactionSource(TransactionSource.seeded(42))
+                .lowestNonceWins(lowestNonceWins)
+                .build();
+        miningManager = MiningDispatchers.createManagerSystem(Manager.create(), "miningManager", MiningDispatchers.configFor(workOrder));
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopActorSystem() {
+        miningManager.terminate();
+        miningManager.getWhenTerminated().toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public BlockChain mine(Counters counters) {
+        BlockChain blockChain = AskPattern.<Manager.Command, BlockChain>ask(miningManager, me -> new Manager.StartCommand(workOrder, me), Duration.ofHours(1), miningManager.scheduler())
+                .toCompletableFuture()
+                .join();
+        for (int height = 0; height < blockChain.getSize(); height++) {
+            counters.hashes += blockChain.getBlock(height).getNonce() + 1;
+        }
+        counters.blocks += blockChain.getSize();
+        return blockChain;
+    }
+}
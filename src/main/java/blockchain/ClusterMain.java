@@ -0,0 +1,98 @@
+package blockchain;
+
+import akka.actor.typed.ActorSystem;
+import akka.actor.typed.javadsl.AskPattern;
+import blockchain.actors.Manager;
+import blockchain.actors.MiningDispatchers;
+import blockchain.actors.WorkerConfiguration;
+import blockchain.actors.WorkerNode;
+import blockchain.model.BlockChain;
+import blockchain.model.BlockChainMiningWorkOrder;
+import blockchain.model.BlockHeaderFormat;
+import blockchain.model.ChainValidationReport;
+import blockchain.model.ChainValidator;
+import blockchain.model.MiningBatchMode;
+import blockchain.model.TransactionSource;
+import blockchain.model.WorkerDispatcher;
+import blockchain.utils.HeaderKernelType;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Mining on several JVMs, see cluster.conf. Start the manager node first, then any number of worker nodes:
+ * <pre>
+ * ClusterMain manager [port]
+ * ClusterMain worker [port] [workers]
+ * </pre>
+ */
+@Slf4j
+public class ClusterMain {
+    private static final String SYSTEM_NAME = "miningCluster";
+
+    public static void main(String[] args) {
+        String role = args.length > 0 ? args[0] : "manager";
+        if ("worker".equals(role)) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : 0; //0 picks a free port
+            int numberOfWorkers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            startWorkerNode(port, numberOfWorkers);
+        } else {
+            startManagerNode(args.length > 1 ? Integer.parseInt(args[1]) : 2551);
+        }
+    }
+
+    private static void startManagerNode(int port) {
+        long startTime = System.currentTimeMillis();
+
+        BlockChainMiningWorkOrder workOrder = BlockChainMiningWorkOrder.builder()
+                .clustered(true)                 //Also mine on the workers of the worker nodes that join
+                .numberOfSimultaneousWorkers(2)  //Workers on the manager node itself
+                .numberOfBlocksToMine(10)
+                .workloadPerWorker(5000000)      //Nonces of one range, a range of a node that leaves is handed to another worker
+                .difficulty(6)
+                .progressReportFrequency(1)
+                .batchMode(MiningBatchMode.ADAPTIVE)
+                .batchTargetMillis(10)
+                .workerDispatcher(WorkerDispatcher.FIXED_POOL)
+                .headerFormat(BlockHeaderFormat.BINARY_V1)
+                .headerKernel(HeaderKernelType.fastest())
+                .transactionSource(TransactionSource.random())
+                .build();
+
+        ActorSystem<Manager.Command> miningManager = MiningDispatchers.createManagerSystem(Manager.create(), SYSTEM_NAME,
+                MiningDispatchers.configFor(workOrder, clusterConfig(port)));
+
+        CompletionStage<BlockChain> result = AskPattern.ask(miningManager, (me) -> new Manager.StartCommand(workOrder, me), Duration.ofHours(1), miningManager.scheduler());
+        result.whenComplete((blockChain, failure) -> {
+            if(blockChain != null) {
+                long endTime = System.currentTimeMillis();
+                blockChain.print();
+                ChainValidationReport report = new ChainValidator(blockChain, workOrder.getDifficulty()).validateAll();
+                log.info("Validated {} blocks: {}", report.getValidatedBlocks(),
+                        report.isValid() ? "blockchain is valid" : "invalid blocks " + report.getFailures());
+                log.info("Elapsed time: {} ms.", endTime - startTime);
+            } else {
+                log.error("The system did not respond in time!!", failure);
+            }
+            miningManager.terminate();
+        });
+    }
+
+    private static void startWorkerNode(int port, int numberOfWorkers) {
+        WorkerConfiguration configuration = WorkerConfiguration.builder()
+                .batchMode(MiningBatchMode.ADAPTIVE)
+                .dispatcher(WorkerDispatcher.FIXED_POOL)
+                .headerKernel(HeaderKernelType.fastest())
+                .build();
+        Config config = MiningDispatchers.configFor(numberOfWorkers, clusterConfig(port));
+        ActorSystem.create(WorkerNode.create(numberOfWorkers, configuration), SYSTEM_NAME, config);
+    }
+
+    private static Config clusterConfig(int port) {
+        return ConfigFactory.parseString("akka.remote.artery.canonical.port = " + port)
+                .withFallback(ConfigFactory.load("cluster"));
+    }
+}
@@ -3,34 +3,89 @@ package blockchain;
 import akka.actor.typed.ActorSystem;
 import akka.actor.typed.javadsl.AskPattern;
 import blockchain.actors.Manager;
+import blockchain.actors.MiningDispatchers;
+import blockchain.metrics.MiningMetrics;
 import blockchain.model.BlockChain;
 import blockchain.model.BlockChainMiningWorkOrder;
+import blockchain.model.BlockHeaderFormat;
+import blockchain.model.ChainValidationReport;
+import blockchain.model.ChainValidator;
+import blockchain.model.ElasticPoolPolicy;
+import blockchain.model.MiningBatchMode;
+import blockchain.model.MiningEngine;
+import blockchain.model.NonceAllocation;
+import blockchain.model.TransactionSource;
+import blockchain.model.WorkerDispatcher;
+import blockchain.store.BlockStore;
+import blockchain.store.FileBlockStore;
+import blockchain.store.FileBlockStoreConfiguration;
+import blockchain.store.FsyncPolicy;
+import blockchain.utils.HeaderKernelType;
+import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.concurrent.CompletionStage;
 
+@Slf4j
 public class Main {
-    public static void main(String[] args) {
+    private static final boolean PRINT_BLOCKS = true; //Print every mined block once mining has finished
+
+    public static void main(String[] args) throws IOException {
         long startTime = System.currentTimeMillis();
 
-        ActorSystem<Manager.Command> miningManager = ActorSystem.create(Manager.create(), "miningManager");
+        BlockStore blockStore = FileBlockStore.open(FileBlockStoreConfiguration.builder()
+                .directory(Path.of("blockchain-data")) //Mined blocks survive a restart, mining resumes from the last stored block
+                .fsyncPolicy(FsyncPolicy.ALWAYS)
+                .build());
+
+        MiningMetrics metrics = new MiningMetrics();
+        metrics.registerMBeans(); //Live metrics through JMX (e.g. jconsole), under the "blockchain" domain
+
         BlockChainMiningWorkOrder workOrder = BlockChainMiningWorkOrder.builder()
                 .numberOfSimultaneousWorkers(7) //How many threads should run in parallel
-                .numberOfBlocksToMine(10)         //How many blocks should be mined in a blockchain
+                .elasticPool(ElasticPoolPolicy.builder().build()) //Grow up to the available cores, back off while other processes keep them busy
+                .numberOfBlocksToMine(10)         //How many blocks the blockchain should hold (stored blocks count as mined)
                 .workloadPerWorker(5000000)         //How many nonce should one worker calculate
                 .difficulty(6)                   //Blockchain difficulty level (how many leading zeros should be in a hash)
                 .progressReportFrequency(1)      //Progress report frequency in seconds
+                .batchMode(MiningBatchMode.ADAPTIVE) //Size worker batches by measured hash rate instead of a fixed nonce count
+                .batchTargetMillis(10)           //Target duration of one adaptive batch in milliseconds
+                .workerDispatcher(WorkerDispatcher.FIXED_POOL) //Run workers on a dedicated thread pool, away from the Manager
+                .miningEngine(MiningEngine.ACTOR_BATCHES) //PLATFORM_THREADS or VIRTUAL_THREADS mine every nonce range in one loop outside the actors
+                .nonceAllocation(NonceAllocation.SHARED_CURSOR) //Workers claim nonces from a shared cursor instead of waiting for the Manager
+                .pipelineDepth(4)                //Pre-generated transactions, next block is handed out as soon as a hash arrives (0 disables pipelining)
+                .headerFormat(BlockHeaderFormat.BINARY_V1) //Hash a fixed layout binary header instead of the String based block data
+                .headerKernel(HeaderKernelType.fastest()) //Measures the binary header kernels here, before any worker starts
+                .blockStore(blockStore)
+                //.checkpointFile(Path.of("blockchain-data", "mining.checkpoint")) //Resume the block being mined after a restart without the nonce ranges already searched, needs MANAGER_ASSIGNED nonces
+                .metrics(metrics)
+                .transactionSource(TransactionSource.random()) //TransactionSource.seeded(42) draws the same transactions in every run
+                //.lowestNonceWins(true) //With a seeded source every run mines the same chain whatever the number of workers, nonces are then assigned by the Manager
                 .build();
 
+        ActorSystem<Manager.Command> miningManager = MiningDispatchers.createManagerSystem(Manager.create(), "miningManager", MiningDispatchers.configFor(workOrder));
+
         CompletionStage<BlockChain> result = AskPattern.ask(miningManager, (me) -> new Manager.StartCommand(workOrder, me), Duration.ofHours(1), miningManager.scheduler());
         result.whenComplete((blockChain, failure) -> {
             if(blockChain != null) {
-                blockChain.printAndValidate();
                 long endTime = System.currentTimeMillis();
-                System.out.println("Elapsed time: " + (endTime - startTime) + " ms.");
+                if (PRINT_BLOCKS) {
+                    blockChain.print();
+                }
+                ChainValidator validator = workOrder.getRetargetPolicy() != null
+                        ? new ChainValidator(blockChain, workOrder.getRetargetPolicy())
+                        : new ChainValidator(blockChain, workOrder.getDifficulty());
+                ChainValidationReport report = validator.validateAll();
+                log.info("Validated {} blocks in {} ms: {}", report.getValidatedBlocks(), report.getElapsedNanos() / 1_000_000,
+                        report.isValid() ? "blockchain is valid" : "invalid blocks " + report.getFailures());
+                log.info("Elapsed time: {} ms.", endTime - startTime);
             } else {
-                System.out.println("The system did not respond in time!!");
+                log.error("The system did not respond in time!!", failure);
             }
+            metrics.unregisterMBeans();
+            blockStore.close();
             miningManager.terminate();
         });
     }
@@ -0,0 +1,83 @@
+package blockchain;
+
+import akka.NotUsed;
+import akka.actor.typed.ActorSystem;
+import akka.actor.typed.javadsl.AskPattern;
+import akka.stream.javadsl.Source;
+import blockchain.actors.Manager;
+import blockchain.actors.MiningDispatchers;
+import blockchain.model.BlockChain;
+import blockchain.model.BlockChainMiningWorkOrder;
+import blockchain.model.BlockHeaderFormat;
+import blockchain.model.MiningBatchMode;
+import blockchain.model.Transaction;
+import blockchain.model.TransactionSource;
+import blockchain.model.WorkerDispatcher;
+import blockchain.store.BlockStore;
+import blockchain.store.FileBlockStore;
+import blockchain.store.FileBlockStoreConfiguration;
+import blockchain.store.FsyncPolicy;
+import blockchain.stream.MiningStream;
+import blockchain.utils.HeaderKernelType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+/**
+ * Mines transactions as they arrive instead of a fixed number of blocks, see {@link MiningStream}.
+ */
+@Slf4j
+public class StreamingMain {
+    private static final int TRANSACTIONS_PER_SECOND = 200; //Rate of the simulated incoming transactions
+    private static final long BLOCKS_TO_PRINT = 20;          //The stream is endless, stop after this many blocks
+
+    public static void main(String[] args) throws IOException {
+        BlockStore blockStore = FileBlockStore.open(FileBlockStoreConfiguration.builder()
+                .directory(Path.of("blockchain-stream")) //The stream never ends, its blocks are kept on disk rather than on the heap
+                .fsyncPolicy(FsyncPolicy.PERIODIC)
+                .build());
+
+        BlockChainMiningWorkOrder workOrder = BlockChainMiningWorkOrder.builder()
+                .numberOfSimultaneousWorkers(7)
+                .workloadPerWorker(5000000)
+                .difficulty(5)
+                .progressReportFrequency(1)
+                .batchMode(MiningBatchMode.ADAPTIVE)
+                .batchTargetMillis(10)
+                .workerDispatcher(WorkerDispatcher.FIXED_POOL)
+                .headerFormat(BlockHeaderFormat.BINARY_V1)
+                .headerKernel(HeaderKernelType.fastest())
+                .blockStore(blockStore)
+                .build();
+
+        ActorSystem<Manager.Command> miningManager = MiningDispatchers.createManagerSystem(Manager.create(), "miningManager", MiningDispatchers.configFor(workOrder));
+        miningManager.tell(new Manager.StartStreamingCommand(workOrder));
+
+        TransactionSource transactionSource = TransactionSource.random();
+        Source<Transaction, NotUsed> transactions = Source.fromIterator(() -> Stream.generate(transactionSource::next).iterator())
+                .throttle(TRANSACTIONS_PER_SECOND, Duration.ofSeconds(1));
+
+        MiningStream miningStream = MiningStream.builder()
+                .manager(miningManager)
+                .scheduler(miningManager.scheduler())
+                .transactionsPerBlock(100)
+                .build();
+
+        miningStream.blocks(transactions)
+                .take(BLOCKS_TO_PRINT)
+                .runForeach(block -> log.info("Mined block {} with {} transactions", block.getHash(), block.getTransactions().size()), miningManager)
+                .thenCompose(done -> AskPattern.<Manager.Command, BlockChain>ask(miningManager, Manager.StopStreamingCommand::new, Duration.ofMinutes(1), miningManager.scheduler()))
+                .whenComplete((blockChain, failure) -> {
+                    if(blockChain != null) {
+                        log.info("Blockchain holds {} blocks", blockChain.getSize());
+                    } else {
+                        log.error("Streaming mining failed", failure);
+                    }
+                    blockStore.close();
+                    miningManager.terminate();
+                });
+    }
+}
@@ -0,0 +1,57 @@
+package blockchain.actors;
+
+import blockchain.model.ElasticPoolPolicy;
+
+/**
+ * Decides the next pool size from the hash rate measured at the current size, see {@link ElasticPoolPolicy}.
+ * Used by the Manager only.
+ */
+class ElasticPoolSizer {
+    private final ElasticPoolPolicy policy;
+
+    private int previousSize;
+    private double previousHashRate;
+    private double bestHashRatePerWorker;
+    private int backoff;
+
+    ElasticPoolSizer(ElasticPoolPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * @param hashRate hashes per second of the whole pool since the last call, at {@code size} workers
+     */
+    int nextSize(int size, double hashRate, int availableProcessors) {
+        int minWorkers = Math.max(1, policy.getMinWorkers());
+        int maxWorkers = Math.max(minWorkers, Math.min(policy.getMaxWorkers(), availableProcessors));
+        if (size <= 0) {
+            //No local workers (e.g. a manager node of a cluster), there is no rate per worker to learn from
+            this.previousSize = 0;
+            return minWorkers;
+        }
+        double hashRatePerWorker = hashRate / size;
+        this.bestHashRatePerWorker = Math.max(bestHashRatePerWorker * (1 - policy.getBestHashRateDecay()), hashRatePerWorker);
+        if (backoff > 0) {
+            backoff--;
+        }
+
+        int nextSize = size;
+        if (size > maxWorkers || size < minWorkers) {
+            nextSize = Math.max(minWorkers, Math.min(maxWorkers, size));
+        } else if (previousSize > 0 && size > previousSize
+                && (hashRate - previousHashRate) / (size - previousSize) < policy.getMinScalingEfficiency() * previousHashRate / previousSize) {
+            //The added workers did not pay off, the cores are busy with something else
+            nextSize = previousSize;
+            this.backoff = policy.getBackoffIntervals();
+        } else if (size > minWorkers && hashRatePerWorker < policy.getMinScalingEfficiency() * bestHashRatePerWorker) {
+            nextSize = size - 1;
+            this.backoff = policy.getBackoffIntervals();
+        } else if (size < maxWorkers && backoff == 0) {
+            nextSize = size + 1;
+        }
+
+        this.previousSize = size;
+        this.previousHashRate = hashRate;
+        return nextSize;
+    }
+}
@@ -2,23 +2,34 @@ package blockchain.actors;
 
 import akka.actor.typed.ActorRef;
 import akka.actor.typed.Behavior;
+import akka.actor.typed.DispatcherSelector;
 import akka.actor.typed.SupervisorStrategy;
 import akka.actor.typed.Terminated;
 import akka.actor.typed.javadsl.AbstractBehavior;
 import akka.actor.typed.javadsl.ActorContext;
 import akka.actor.typed.javadsl.Behaviors;
 import akka.actor.typed.javadsl.Receive;
+import akka.actor.typed.receptionist.Receptionist;
+import akka.pattern.StatusReply;
+import blockchain.metrics.MailboxDepths;
+import blockchain.metrics.MetricsSnapshot;
+import blockchain.metrics.MiningMetrics;
 import blockchain.model.*;
+import blockchain.store.CheckpointFile;
+import blockchain.store.MiningCheckpoint;
+import blockchain.utils.BlockChainUtils;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 
+import java.io.IOException;
 import java.io.Serializable;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public class Manager extends AbstractBehavior<Manager.Command> {
     public interface Command extends Serializable {}
@@ -30,18 +41,97 @@ public class Manager extends AbstractBehavior<Manager.Command> {
         private ActorRef<BlockChain> sender;
     }
 
+    /**
+     * Starts an open-ended run: instead of mining a fixed number of blocks from the transaction source of the work order,
+     * the Manager mines one block per {@link MineTransactionsCommand}, see {@link blockchain.stream.MiningStream}.
+     * The work order needs a block store, a stream never ends and its blocks must not pile up on the heap.
+     */
+    @Getter
+    public static class StartStreamingCommand implements Command {
+        private final BlockChainMiningWorkOrder workOrder;
+
+        public StartStreamingCommand(BlockChainMiningWorkOrder workOrder) {
+            if(workOrder.getBlockStore() == null) {
+                throw new IllegalArgumentException("Streaming needs a block store in the work order, e.g. a FileBlockStore");
+            }
+            this.workOrder = workOrder;
+        }
+    }
+
+    /**
+     * Mines a block holding the given transactions, requests are mined in the order they arrive. Requests still
+     * open when the run stops (or that reach a Manager not started for streaming) get an error reply.
+     */
+    @AllArgsConstructor
+    @Getter
+    public static class MineTransactionsCommand implements Command {
+        private List<Transaction> transactions;
+        private ActorRef<StatusReply<Block>> replyTo;
+    }
+
+    /**
+     * Ends a run started by {@link StartStreamingCommand}, the sender gets the blockchain like at the end of a batch run.
+     */
+    @AllArgsConstructor
+    @Getter
+    public static class StopStreamingCommand implements Command {
+        private ActorRef<BlockChain> sender;
+    }
+
     private static class MineNextBlockCommand implements Command {}
     private static class AssignWorkloadCommand implements Command {}
+    private static class RefillPipelineCommand implements Command {}
 
+    /**
+     * Progress of a worker, the percentage of its nonce range searched so far is NaN when it is idle or takes its
+     * nonces from a shared cursor.
+     */
     @AllArgsConstructor
     @Getter
     public static class WorkerProgressCommand implements Command {
-        private ActorRef<Worker.Command> worker;
-        private BigDecimal progressPercentage;
+        private final ActorRef<Worker.Command> worker;
+        private final double progressPercentage;
+        private final WorkerStatistics statistics;
+
+        public boolean hasProgressPercentage() {
+            return !Double.isNaN(progressPercentage);
+        }
     }
 
     private static class GetProgressReportCommand implements Command {}
 
+    /**
+     * Grows or shrinks the worker pool to the given number of workers while mining, idle workers are stopped first.
+     */
+    @AllArgsConstructor
+    @Getter
+    public static class ResizePoolCommand implements Command {
+        private int numberOfWorkers;
+    }
+
+    private static class AutoResizePoolCommand implements Command {}
+
+    /**
+     * Asks for the workers of this node's pool while mining, the workers of other cluster nodes are not included.
+     */
+    @AllArgsConstructor
+    @Getter
+    public static class GetWorkersCommand implements Command {
+        private ActorRef<List<ActorRef<Worker.Command>>> replyTo;
+    }
+
+    @AllArgsConstructor
+    private static class ClusterWorkersChangedCommand implements Command {
+        private Set<ActorRef<Worker.Command>> workers;
+    }
+
+    private static class WriteCheckpointCommand implements Command {}
+
+    @AllArgsConstructor
+    private static class CheckpointWrittenCommand implements Command {
+        private Throwable failure;
+    }
+
     private static class MiningFinishedCommand implements Command {}
 
     @AllArgsConstructor
@@ -49,9 +139,22 @@ public class Manager extends AbstractBehavior<Manager.Command> {
     @ToString
     @EqualsAndHashCode
     public static class WorkerFinishedCommand implements Command {
-        private ActorRef<Worker.Command> worker;
-        private Block block;
-        private Optional<HashResult> result;
+        private final ActorRef<Worker.Command> worker;
+        private final Block block;
+        /** Hash found by the worker, null if it searched its range without finding one or gave up. */
+        private final HashResult result;
+        private final long epoch;
+        @EqualsAndHashCode.Exclude
+        @ToString.Exclude
+        private final WorkerStatistics statistics;
+
+        public WorkerFinishedCommand(ActorRef<Worker.Command> worker, Block block, HashResult result) {
+            this(worker, block, result, 0, null);
+        }
+
+        public boolean isBlockMined() {
+            return result != null;
+        }
     }
 
     private Manager(ActorContext<Command> context) {
@@ -68,75 +171,254 @@ public class Manager extends AbstractBehavior<Manager.Command> {
     }
 
     private Object TIMER_KEY;
+    private static final String RESIZE_TIMER_KEY = "resizePool";
+    private static final String CHECKPOINT_TIMER_KEY = "checkpoint";
     private ActorRef<BlockChain> sender;
+    private Map<ActorRef<Worker.Command>, WorkerStatistics> workerStatistics;
+    private MiningMetrics metrics;
+    private Map<ActorRef<Worker.Command>, Long> assignedAtNanos;
+    private Map<ActorRef<Worker.Command>, NonceRange> assignedRanges;
+    private Set<ActorRef<Worker.Command>> remoteWorkers;
+    private long lastBlockNanos;
+    private WorkerConfiguration workerConfiguration;
+    private int nextWorkerId;
+    private ElasticPoolSizer poolSizer;
+    private long lastResizeHashes;
+    private long lastResizeNanos;
+    private boolean streaming;
+    private Deque<MineTransactionsCommand> blockRequests;
+    private MineTransactionsCommand currentRequest;
+    private CheckpointFile checkpointFile;
+    private Executor checkpointExecutor;
+    private CompletableFuture<Void> checkpointWrite = CompletableFuture.completedFuture(null);
+    private MiningCheckpoint resumeCheckpoint;
+    private long checkpointedHeight = -1;
+    private long checkpointedNonce = -1;
 
     private Receive<Command> miningNotYetStartedMessageHandler() {
         return newReceiveBuilder()
                 .onMessage(StartCommand.class, message -> {
                     this.sender = message.getSender();
-                    BlockChainMining mining = BlockChainMining.builder()
-                            .blockchain(new BlockChain())
-                            .numberOfBlocksToMine(message.getWorkOrder().getNumberOfBlocksToMine())
-                            .workloadPerWorker(message.getWorkOrder().getWorkloadPerWorker())
-                            .difficulty(message.getWorkOrder().getDifficulty())
-                            .assignNewBlock(true)
-                            .nextStartNonce(0)
-                            .build();
-
-                    Map<ActorRef<Worker.Command>, WorkerStatus> workers = spinUpWorkers(message.workOrder.getNumberOfSimultaneousWorkers());
-
-                    getContext().getSelf().tell(new MineNextBlockCommand());
-                    return Behaviors.withTimers(timer -> {
-                        timer.startTimerAtFixedRate(TIMER_KEY, new GetProgressReportCommand(), Duration.ofSeconds(message.getWorkOrder().getProgressReportFrequency()));
-                        return miningRunningMessageHandler(mining, workers);
-                    });
+                    return startMining(message.getWorkOrder());
+                })
+                .onMessage(StartStreamingCommand.class, message -> {
+                    this.streaming = true;
+                    return startMining(message.getWorkOrder());
                 })
                 .build();
     }
 
+    private Behavior<Command> startMining(BlockChainMiningWorkOrder workOrder) {
+        this.blockRequests = new ArrayDeque<>();
+        this.workerStatistics = new HashMap<>();
+        this.metrics = workOrder.getMetrics() != null ? workOrder.getMetrics() : new MiningMetrics();
+        this.metrics.setManager(getContext().getSelf().path().toStringWithoutAddress(), MailboxDepths.get(getContext().getSystem()));
+        this.assignedAtNanos = new HashMap<>();
+        this.assignedRanges = new HashMap<>();
+        this.remoteWorkers = new HashSet<>();
+        this.lastBlockNanos = System.nanoTime();
+        BlockChainMining mining = BlockChainMining.builder()
+                .blockchain(workOrder.getBlockStore() != null ? new BlockChain(workOrder.getBlockStore()) : new BlockChain())
+                .numberOfBlocksToMine(workOrder.getNumberOfBlocksToMine())
+                .workloadPerWorker(workOrder.getWorkloadPerWorker())
+                .difficulty(workOrder.getDifficulty())
+                .assignNewBlock(true)
+                .nextStartNonce(0)
+                //A shared cursor only works within one JVM, workers on other nodes get ranges from the Manager. Batches claimed
+                //from the cursor are not reported back either, so the lowest winning nonce is only known with assigned ranges
+                .nonceAllocation(workOrder.isClustered() || workOrder.isLowestNonceWins() ? NonceAllocation.MANAGER_ASSIGNED : workOrder.getNonceAllocation())
+                .lowestNonceWins(workOrder.isLowestNonceWins())
+                .epoch(new MiningEpoch())
+                //A stream delivers the transactions itself, it is not topped up from the transaction source
+                .pipelineDepth(streaming ? 0 : workOrder.getPipelineDepth())
+                .transactionsPerBlock(Math.max(1, workOrder.getTransactionsPerBlock()))
+                .mempool(workOrder.getMempool() != null ? workOrder.getMempool() : new Mempool())
+                .headerFormat(workOrder.getHeaderFormat())
+                .transactionSource(workOrder.getTransactionSource())
+                .retargetPolicy(workOrder.getRetargetPolicy())
+                .build();
+        mining.refillPendingTransactions();
+        if(workOrder.getCheckpointFile() != null && mining.getNonceAllocation() == NonceAllocation.SHARED_CURSOR) {
+            //Batches claimed from the cursor are not reported back, a checkpoint would always resume from the first nonce
+            getContext().getLog().warn("Checkpoints need nonce ranges assigned by the Manager, {} is not used with a shared cursor", workOrder.getCheckpointFile());
+        } else if(workOrder.getCheckpointFile() != null && !streaming) {
+            readCheckpoint(mining, new CheckpointFile(workOrder.getCheckpointFile()));
+        }
+
+        this.workerConfiguration = WorkerConfiguration.fromWorkOrder(workOrder);
+        Map<ActorRef<Worker.Command>, WorkerStatus> workers = spinUpWorkers(workOrder.getNumberOfSimultaneousWorkers(), mining.getEpoch());
+
+        if(workOrder.isClustered()) {
+            ActorRef<Receptionist.Listing> listingAdapter = getContext().messageAdapter(Receptionist.Listing.class,
+                    listing -> new ClusterWorkersChangedCommand(listing.getServiceInstances(WorkerNode.WORKER_KEY)));
+            getContext().getSystem().receptionist().tell(Receptionist.subscribe(WorkerNode.WORKER_KEY, listingAdapter));
+        }
+
+        if(!streaming) {
+            getContext().getSelf().tell(new MineNextBlockCommand());
+        }
+        ElasticPoolPolicy elasticPool = workOrder.getElasticPool();
+        return Behaviors.withTimers(timer -> {
+            timer.startTimerAtFixedRate(TIMER_KEY, new GetProgressReportCommand(), Duration.ofSeconds(workOrder.getProgressReportFrequency()));
+            if(elasticPool != null) {
+                this.poolSizer = new ElasticPoolSizer(elasticPool);
+                this.lastResizeNanos = System.nanoTime();
+                timer.startTimerAtFixedRate(RESIZE_TIMER_KEY, new AutoResizePoolCommand(), elasticPool.getResizeInterval());
+            }
+            if(checkpointFile != null) {
+                timer.startTimerAtFixedRate(CHECKPOINT_TIMER_KEY, new WriteCheckpointCommand(), workOrder.getCheckpointInterval());
+            }
+            return miningRunningMessageHandler(mining, workers);
+        });
+    }
+
     private Receive<Command> miningRunningMessageHandler(BlockChainMining mining, Map<ActorRef<Worker.Command>, WorkerStatus> workers) {
         return newReceiveBuilder()
-                .onMessage(MineNextBlockCommand.class, message -> {
-                    if(mining.getBlockChainSize() == mining.getNumberOfBlocksToMine()) {
-                        getContext().getSelf().tell(new MiningFinishedCommand());
-                        return miningFinishedMessageHandler(mining, workers);
+                .onMessage(MineNextBlockCommand.class, message -> mineNextBlock(mining, workers))
+                .onMessage(MineTransactionsCommand.class, message -> {
+                    if(!streaming) {
+                        getContext().getLog().warn("Ignoring {} transactions, the Manager was not started for streaming", message.getTransactions().size());
+                        message.getReplyTo().tell(StatusReply.error("The Manager was not started for streaming"));
+                        return Behaviors.same();
                     }
-
-                    workers.keySet().forEach(worker -> worker.tell(new Worker.BlockAlreadyMinedAbortCurrentWorkCommand()));
-
-                    mining.setCurrentBlock(Block.generateNewBlockWithRandomData(mining.getHashOfPreviousBlock()));
-                    mining.setNextStartNonce(0);
-                    mining.setAssignNewBlock(false);
-                    getContext().getSelf().tell(new AssignWorkloadCommand());
-                    return miningRunningMessageHandler(mining, workers);
+                    if(message.getTransactions().isEmpty() || BlockChainUtils.hasDuplicateTransactions(message.getTransactions())) {
+                        //Rejected before any work is spent on a block that could never be added to the chain
+                        message.getReplyTo().tell(StatusReply.error("A block needs at least one transaction and holds each one only once"));
+                        return Behaviors.same();
+                    }
+                    blockRequests.add(message);
+                    if(mining.getCurrentBlock() == null) {
+                        //Workers were idle waiting for transactions, that time does not count towards the block time
+                        this.lastBlockNanos = System.nanoTime();
+                        return mineNextBlock(mining, workers);
+                    }
+                    return Behaviors.same();
+                })
+                .onMessage(StopStreamingCommand.class, message -> {
+                    this.sender = message.getSender();
+                    if(currentRequest != null) {
+                        blockRequests.addFirst(currentRequest);
+                        this.currentRequest = null;
+                    }
+                    if(!blockRequests.isEmpty()) {
+                        getContext().getLog().warn("Stopping with {} blocks requested but not mined", blockRequests.size());
+                        blockRequests.forEach(request -> request.getReplyTo().tell(StatusReply.error("Mining stopped before the block was mined")));
+                        blockRequests.clear();
+                    }
+                    getContext().getSelf().tell(new MiningFinishedCommand());
+                    return miningFinishedMessageHandler(mining, workers);
                 })
                 .onMessage(AssignWorkloadCommand.class, message -> {
-                    workers.entrySet()
-                            .stream()
-                            .filter(x -> x.getValue() == WorkerStatus.IDLE)
-                            .map(Map.Entry::getKey)
-                            .forEach(worker -> {
-                                worker.tell(buildWorkerStartMiningCommand(mining));
-                                mining.increaseStartNonce();
-                                workers.put(worker, WorkerStatus.MINING);
-                            });
+                    assignWorkload(mining, workers);
                     return miningRunningMessageHandler(mining, workers);
                 })
+                .onMessage(RefillPipelineCommand.class, message -> {
+                    mining.refillPendingTransactions();
+                    return Behaviors.same();
+                })
+                .onMessage(WriteCheckpointCommand.class, message -> {
+                    writeCheckpoint(mining);
+                    return Behaviors.same();
+                })
+                .onMessage(CheckpointWrittenCommand.class, message -> {
+                    if(message.failure != null) {
+                        getContext().getLog().warn("Could not write checkpoint {}", checkpointFile.getFile(), message.failure);
+                        //Written again on the next tick even if mining has not moved on
+                        this.checkpointedHeight = -1;
+                    }
+                    return Behaviors.same();
+                })
                 .onMessage(GetProgressReportCommand.class, message -> {
-                    System.out.println("Overall progress so far: Successfully mined " + mining.getBlockChainSize() + " block(s)");
-                    workers.keySet().forEach(worker -> worker.tell(new Worker.ProgressReportCommand(getContext().getSelf())));
+                    //Read from the shared metrics, workers keep mining undisturbed
+                    MetricsSnapshot snapshot = metrics.snapshot();
+                    getContext().getLog().atInfo()
+                            .addKeyValue("height", mining.getBlockChainSize())
+                            .addKeyValue("hashRate", snapshot.getHashesPerSecond())
+                            .addKeyValue("blockTimeP50Ms", snapshot.getBlockTimeMillis().getP50())
+                            .addKeyValue("blockTimeP99Ms", snapshot.getBlockTimeMillis().getP99())
+                            .addKeyValue("mailbox", snapshot.getManagerMailboxDepth())
+                            .log("Overall progress");
+                    if(getContext().getLog().isDebugEnabled()) {
+                        snapshot.getWorkers().forEach(worker -> getContext().getLog().atDebug()
+                                .addKeyValue("worker", worker.getName())
+                                .addKeyValue("hashes", worker.getHashes())
+                                .addKeyValue("hashRate", worker.getHashesPerSecond())
+                                .addKeyValue("wasted", worker.getWastedHashes())
+                                .addKeyValue("idleMs", worker.getIdleMillis())
+                                .addKeyValue("mailbox", worker.getMailboxDepth())
+                                .log("Worker progress"));
+                    }
                     return Behaviors.same();
                 })
                 .onMessage(WorkerProgressCommand.class, message -> {
-                    System.out.println(message.getWorker().path()+ " progress is " + message.getProgressPercentage().setScale(2, RoundingMode.HALF_UP) + "%");
+                    WorkerStatistics statistics = message.getStatistics();
+                    workerStatistics.put(message.getWorker(), statistics);
+                    if(getContext().getLog().isDebugEnabled()) {
+                        getContext().getLog().atDebug()
+                                .addKeyValue("worker", message.getWorker().path())
+                                .addKeyValue("progress", message.hasProgressPercentage() ? Math.round(message.getProgressPercentage() * 100) / 100.0 : null)
+                                .addKeyValue("hashes", statistics.getHashes())
+                                .addKeyValue("idleMs", statistics.getIdleMillis())
+                                .addKeyValue("batches", statistics.getBatches())
+                                .addKeyValue("lastBatchSize", statistics.getLastBatchSize())
+                                .addKeyValue("batchSize", statistics.getMinBatchSize() + "/" + statistics.getAverageBatchSize() + "/" + statistics.getMaxBatchSize())
+                                .log("Worker progress");
+                    }
                     return Behaviors.same();
                 })
                 .onMessage(WorkerFinishedCommand.class, message -> {
-                    workers.put(message.getWorker(), WorkerStatus.IDLE);
+                    if(message.getStatistics() != null) {
+                        workerStatistics.put(message.getWorker(), message.getStatistics());
+                    }
+                    Long assignedAt = assignedAtNanos.remove(message.getWorker());
+                    if(assignedAt != null) {
+                        metrics.recordAssignmentRoundTrip(System.nanoTime() - assignedAt);
+                    }
+                    if(!mining.isActualEpoch(message.getEpoch())) {
+                        //Stale result, the worker has already been sent the current block (or will be by MineNextBlockCommand)
+                        return Behaviors.same();
+                    }
+                    //A worker removed from the pool may still deliver the hash, but does not get new work
+                    workers.replace(message.getWorker(), WorkerStatus.IDLE);
+                    NonceRange range = assignedRanges.remove(message.getWorker());
+                    if(!mining.isActualBlock(message.getBlock())) {
+                        //A hash of a block mined before would be committed to the current one, the worker gets work on that instead
+                        getContext().getLog().warn("Ignoring result of worker {} for a block that is not being mined", message.getWorker().path());
+                        getContext().getSelf().tell(new AssignWorkloadCommand());
+                        return Behaviors.same();
+                    }
+
+                    HashResult result = message.getResult();
+                    if(!message.isBlockMined() && range != null) {
+                        mining.completeNonceRange(range);
+                    }
+                    if(mining.isLowestNonceWins()) {
+                        //Committed once no lower nonce can win any more, whichever worker reported its hash first
+                        if(message.isBlockMined()) {
+                            mining.recordResult(range != null ? range.getStartNonce() : result.getNonce(), result);
+                        }
+                        result = mining.getWinningResult();
+                    }
 
-                    if(mining.isActualBlock(message.getBlock()) && message.getResult().isPresent()) {
-                        System.out.println("Worker " + message.getWorker().path() + " successfully mined block number " + (mining.getBlockChainSize() +1) + " with hash: " + message.getResult().get().getHash());
-                        mining.addCurrentBlockToBlockChain(message.getResult().get());
+                    if(result != null) {
+                        getContext().getLog().atInfo()
+                                .addKeyValue("worker", message.getWorker().path())
+                                .addKeyValue("height", mining.getBlockChainSize() +1)
+                                .addKeyValue("nonce", result.getNonce())
+                                .addKeyValue("hash", result.getHash())
+                                .log("Block mined");
+                        mining.addCurrentBlockToBlockChain(result);
+                        long now = System.nanoTime();
+                        metrics.recordBlock(now - lastBlockNanos);
+                        this.lastBlockNanos = now;
+                        if(streaming) {
+                            currentRequest.getReplyTo().tell(StatusReply.success(mining.getCurrentBlock()));
+                            return mineNextBlock(mining, workers);
+                        }
+                        if(mining.isPipelined()) {
+                            //Hand out the next block in this very message turn
+                            return mineNextBlock(mining, workers);
+                        }
                         mining.setAssignNewBlock(true);
                         getContext().getSelf().tell(new MineNextBlockCommand());
 
@@ -145,18 +427,161 @@ public class Manager extends AbstractBehavior<Manager.Command> {
                     }
                     return miningRunningMessageHandler(mining, workers);
                 })
+                .onMessage(ResizePoolCommand.class, message -> {
+                    resizePool(mining, workers, message.getNumberOfWorkers());
+                    return Behaviors.same();
+                })
+                .onMessage(GetWorkersCommand.class, message -> {
+                    message.getReplyTo().tell(workers.keySet().stream().filter(worker -> !remoteWorkers.contains(worker)).toList());
+                    return Behaviors.same();
+                })
+                .onMessage(AutoResizePoolCommand.class, message -> {
+                    long now = System.nanoTime();
+                    long hashes = metrics.getHashes();
+                    double hashRate = (hashes - lastResizeHashes) * 1e9 / Math.max(1, now - lastResizeNanos);
+                    //Only the workers of this node are resized, their hashes are the ones recorded in the metrics
+                    int localWorkers = workers.size() - remoteWorkers.size();
+                    int size = poolSizer.nextSize(localWorkers, hashRate, Runtime.getRuntime().availableProcessors());
+                    if(size != localWorkers) {
+                        resizePool(mining, workers, size);
+                    }
+                    this.lastResizeHashes = hashes;
+                    this.lastResizeNanos = now;
+                    return Behaviors.same();
+                })
+                .onMessage(ClusterWorkersChangedCommand.class, message -> {
+                    message.workers.stream()
+                            .filter(worker -> !workers.containsKey(worker))
+                            .forEach(worker -> {
+                                getContext().watch(worker);
+                                remoteWorkers.add(worker);
+                                workers.put(worker, WorkerStatus.IDLE);
+                                getContext().getLog().info("Worker {} joined", worker.path());
+                            });
+                    remoteWorkers.stream()
+                            .filter(worker -> !message.workers.contains(worker))
+                            .toList()
+                            .forEach(worker -> {
+                                removeWorker(mining, workers, worker);
+                                getContext().getLog().warn("Worker {} left, its nonce range is handed to another worker", worker.path());
+                            });
+                    getContext().getSelf().tell(new AssignWorkloadCommand());
+                    return Behaviors.same();
+                })
                 .onSignal(Terminated.class, handler -> {
-                    System.out.println("Worker terminated unexpectedly: " + handler.getRef().path());
+                    //Stopped workers are removed from the pool (and unwatched) first, so this one failed (or its node is gone)
+                    boolean remote = remoteWorkers.contains(handler.getRef());
+                    if(workers.containsKey(handler.getRef())) {
+                        removeWorker(mining, workers, handler.getRef());
+                        if(remote) {
+                            getContext().getLog().warn("Worker {} terminated, its nonce range is handed to another worker", handler.getRef().path());
+                        } else {
+                            ActorRef<Worker.Command> replacement = spawnWorker(mining.getEpoch());
+                            workers.put(replacement, WorkerStatus.IDLE);
+                            getContext().getLog().warn("Worker {} terminated unexpectedly, replaced by {}", handler.getRef().path(), replacement.path());
+                        }
+                        getContext().getSelf().tell(new AssignWorkloadCommand());
+                    }
                     return Behaviors.same();
                 })
                 .build();
     }
 
+    private Behavior<Command> mineNextBlock(BlockChainMining mining, Map<ActorRef<Worker.Command>, WorkerStatus> workers) {
+        if(!streaming && mining.getBlockChainSize() >= mining.getNumberOfBlocksToMine()) {
+            getContext().getSelf().tell(new MiningFinishedCommand());
+            return miningFinishedMessageHandler(mining, workers);
+        }
+
+        //Workers drop stale work on their own once the epoch moves, the new StartMiningCommand supersedes it
+        workers.replaceAll((worker, status) -> WorkerStatus.IDLE);
+        assignedRanges.clear();
+
+        if(streaming) {
+            this.currentRequest = blockRequests.poll();
+            if(currentRequest == null) {
+                //Nothing to mine until the stream requests the next block, the workers stay idle
+                mining.setCurrentBlock(null);
+                return miningRunningMessageHandler(mining, workers);
+            }
+            mining.setCurrentBlock(mining.candidateBlock(currentRequest.getTransactions()));
+            mining.startNonceRange(0);
+        } else if(!resumeFromCheckpoint(mining)) {
+            Block block = mining.nextCandidateBlock();
+            if(block == null) {
+                getContext().getLog().warn("No transactions left to mine, stopping at {} of {} blocks", mining.getBlockChainSize(), mining.getNumberOfBlocksToMine());
+                getContext().getSelf().tell(new MiningFinishedCommand());
+                return miningFinishedMessageHandler(mining, workers);
+            }
+            mining.setCurrentBlock(block);
+            mining.startNonceRange(0);
+        }
+        mining.setAssignNewBlock(false);
+        if(mining.isPipelined()) {
+            assignWorkload(mining, workers);
+            getContext().getSelf().tell(new RefillPipelineCommand());
+        } else {
+            getContext().getSelf().tell(new AssignWorkloadCommand());
+        }
+        return miningRunningMessageHandler(mining, workers);
+    }
+
+    private void assignWorkload(BlockChainMining mining, Map<ActorRef<Worker.Command>, WorkerStatus> workers) {
+        if(mining.getCurrentBlock() == null || mining.isAssignNewBlock()) {
+            //The current block is already mined, MineNextBlockCommand hands out the next one
+            return;
+        }
+        workers.entrySet()
+                .stream()
+                .filter(x -> x.getValue() == WorkerStatus.IDLE)
+                .map(Map.Entry::getKey)
+                .forEach(worker -> {
+                    Worker.Command command = buildWorkerStartMiningCommand(mining, worker);
+                    if(command == null) {
+                        //Every range that could hold a lower winning nonce is being searched, the worker waits for the next block
+                        return;
+                    }
+                    worker.tell(command);
+                    assignedAtNanos.put(worker, System.nanoTime());
+                    workers.put(worker, WorkerStatus.MINING);
+                });
+    }
+
     public Receive<Command> miningFinishedMessageHandler(BlockChainMining mining, Map<ActorRef<Worker.Command>, WorkerStatus> workers) {
         return newReceiveBuilder()
                 .onMessage(MiningFinishedCommand.class, message -> {
-                    workers.keySet().forEach(worker -> worker.tell(new Worker.DecommissionWorkerCommand()));
+                    workers.keySet().forEach(worker -> worker.tell(remoteWorkers.contains(worker)
+                            //Workers of other nodes stay available for the next run, they just drop the current block
+                            ? new Worker.BlockAlreadyMinedAbortCurrentWorkCommand()
+                            : new Worker.DecommissionWorkerCommand()));
+                    workerStatistics.forEach((worker, statistics) -> getContext().getLog().atInfo()
+                            .addKeyValue("worker", worker.path())
+                            .addKeyValue("hashes", statistics.getHashes())
+                            .addKeyValue("wasted", statistics.getWastedHashes())
+                            .addKeyValue("idleMs", statistics.getIdleMillis())
+                            .log("Worker summary"));
+                    MetricsSnapshot snapshot = metrics.snapshot();
+                    getContext().getLog().atInfo()
+                            .addKeyValue("height", mining.getBlockChainSize())
+                            .addKeyValue("wasted", workerStatistics.values().stream().mapToLong(WorkerStatistics::getWastedHashes).sum())
+                            .addKeyValue("firstHashAvgUs", averageTimeToFirstHashMicros())
+                            .addKeyValue("firstHashMaxUs", workerStatistics.values().stream().mapToLong(WorkerStatistics::getMaxFirstHashLatencyNanos).max().orElse(0) / 1000)
+                            .addKeyValue("blockTimeMs", snapshot.getBlockTimeMillis())
+                            .addKeyValue("roundTripUs", snapshot.getAssignmentRoundTripMicros())
+                            .log("Mining finished");
                     getContext().getChildren().forEach(x -> getContext().stop(x));
+                    if(checkpointFile != null) {
+                        //The run is complete, the next one continues from the chain. A checkpoint left behind by a failed delete
+                        //is harmless, it does not continue the chain any more and is ignored
+                        CheckpointFile file = checkpointFile;
+                        checkpointWrite.whenCompleteAsync((result, failure) -> {
+                            try {
+                                file.delete();
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }, checkpointExecutor);
+                    }
                     this.sender.tell(mining.getBlockchain());
 
                     return Behaviors.withTimers(timers -> {
@@ -167,20 +592,152 @@ public class Manager extends AbstractBehavior<Manager.Command> {
                 .build();
     }
 
-    private Map<ActorRef<Worker.Command>, WorkerStatus> spinUpWorkers(int numberOfSimultaneousWorkers) {
+    private Map<ActorRef<Worker.Command>, WorkerStatus> spinUpWorkers(int numberOfSimultaneousWorkers, MiningEpoch epoch) {
         Map<ActorRef<Worker.Command>, WorkerStatus> workers = new HashMap<>();
         for(int i=0; i<numberOfSimultaneousWorkers; i++) {
-            Behavior<Worker.Command> workerBehavior = Behaviors.supervise(Worker.create()).onFailure(SupervisorStrategy.resume());
-            ActorRef<Worker.Command> worker = getContext().spawn(workerBehavior, "worker_" + i);
-            getContext().watch(worker);
-            workers.put(worker, WorkerStatus.IDLE);
+            workers.put(spawnWorker(epoch), WorkerStatus.IDLE);
         }
         return workers;
     }
 
-    private Worker.Command buildWorkerStartMiningCommand(BlockChainMining mining) {
-        return new Worker.StartMiningCommand(mining.getCurrentBlock(), mining.getNextStartNonce(),
-                mining.calculateEndNonce(), mining.getDifficulty(), getContext().getSelf());
+    private ActorRef<Worker.Command> spawnWorker(MiningEpoch epoch) {
+        Behavior<Worker.Command> workerBehavior = Behaviors.supervise(Worker.create(workerConfiguration, epoch, metrics)).onFailure(SupervisorStrategy.resume());
+        ActorRef<Worker.Command> worker = getContext().spawn(workerBehavior, "worker_" + nextWorkerId++, MiningDispatchers.selectorFor(workerConfiguration.getDispatcher()));
+        getContext().watch(worker);
+        return worker;
+    }
+
+    /**
+     * Resizes the workers of this node, workers of other cluster nodes are not counted.
+     */
+    private void resizePool(BlockChainMining mining, Map<ActorRef<Worker.Command>, WorkerStatus> workers, int numberOfWorkers) {
+        int previousSize = workers.size() - remoteWorkers.size();
+        int size = Math.max(1, numberOfWorkers);
+        for(int i = previousSize; i < size; i++) {
+            workers.put(spawnWorker(mining.getEpoch()), WorkerStatus.IDLE);
+        }
+        workers.entrySet().stream()
+                .filter(entry -> !remoteWorkers.contains(entry.getKey()))
+                .sorted(Map.Entry.comparingByValue(Comparator.comparing(status -> status != WorkerStatus.IDLE)))
+                .limit(Math.max(0, previousSize - size))
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(worker -> {
+                    removeWorker(mining, workers, worker);
+                    getContext().unwatch(worker);
+                    getContext().stop(worker);
+                });
+        getContext().getLog().atInfo()
+                .addKeyValue("from", previousSize)
+                .addKeyValue("to", size)
+                .addKeyValue("cores", Runtime.getRuntime().availableProcessors())
+                .log("Resized worker pool");
+        getContext().getSelf().tell(new AssignWorkloadCommand());
+    }
+
+    /**
+     * Removes the worker from the pool, the nonce range it was given is handed to the next worker asking for work.
+     */
+    private void removeWorker(BlockChainMining mining, Map<ActorRef<Worker.Command>, WorkerStatus> workers, ActorRef<?> worker) {
+        workers.remove(worker);
+        remoteWorkers.remove(worker);
+        assignedAtNanos.remove(worker);
+        NonceRange range = assignedRanges.remove(worker);
+        if(range != null) {
+            mining.abandonNonceRange(range);
+        }
+    }
+
+    /**
+     * Reads the checkpoint of an earlier run, its block is resumed if the checkpoint continues the chain as it is now.
+     */
+    private void readCheckpoint(BlockChainMining mining, CheckpointFile file) {
+        this.checkpointFile = file;
+        this.checkpointExecutor = getContext().getSystem().dispatchers().lookup(DispatcherSelector.blocking());
+        try {
+            Optional<MiningCheckpoint> checkpoint = file.read();
+            if(checkpoint.isPresent() && checkpoint.get().continues(mining.getBlockChainSize(), mining.getHashOfPreviousBlock())) {
+                this.resumeCheckpoint = checkpoint.get();
+            } else if(checkpoint.isPresent()) {
+                getContext().getLog().warn("Ignoring checkpoint {} at height {}, the chain is at height {}", file.getFile(), checkpoint.get().getHeight(), mining.getBlockChainSize());
+            }
+        } catch (IOException | RuntimeException e) {
+            getContext().getLog().warn("Could not read checkpoint {}, mining starts with a new block", file.getFile(), e);
+        }
+    }
+
+    /**
+     * Continues the block of the checkpoint read at the start, from the first nonce range it had not searched yet.
+     * @return false if there is no checkpoint (left) to resume
+     */
+    private boolean resumeFromCheckpoint(BlockChainMining mining) {
+        MiningCheckpoint checkpoint = resumeCheckpoint;
+        this.resumeCheckpoint = null;
+        if(checkpoint == null) {
+            return false;
+        }
+        mining.setCurrentBlock(checkpoint.getCandidateBlock());
+        if(!mining.getCurrentTarget().equals(checkpoint.getTarget())) {
+            getContext().getLog().warn("Ignoring checkpoint {}, its block was mined for target {} instead of {}", checkpointFile.getFile(), checkpoint.getTarget(), mining.getCurrentTarget());
+            return false;
+        }
+        mining.startNonceRange(checkpoint.getResumeNonce());
+        getContext().getLog().atInfo()
+                .addKeyValue("height", checkpoint.getHeight())
+                .addKeyValue("resumeNonce", checkpoint.getResumeNonce())
+                .log("Resumed block from checkpoint");
+        return true;
+    }
+
+    /**
+     * Checkpoints the current block unless its progress is unchanged since the last checkpoint or that one is still
+     * being written. The checkpoint is encoded here, as the block is modified on this thread once it is mined, and
+     * written to the file on the blocking dispatcher.
+     */
+    private void writeCheckpoint(BlockChainMining mining) {
+        Block block = mining.getCurrentBlock();
+        if(block == null || !checkpointWrite.isDone()) {
+            return;
+        }
+        long height = mining.getBlockChainSize();
+        long searchedNonce = mining.getSearchedNonce();
+        if(height == checkpointedHeight && searchedNonce == checkpointedNonce) {
+            return;
+        }
+        byte[] checkpoint = CheckpointFile.encode(new MiningCheckpoint(height, mining.getHashOfPreviousBlock(), block, mining.getCurrentTarget(), searchedNonce));
+        this.checkpointedHeight = height;
+        this.checkpointedNonce = searchedNonce;
+        CheckpointFile file = checkpointFile;
+        this.checkpointWrite = CompletableFuture.runAsync(() -> {
+            try {
+                file.write(checkpoint);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, checkpointExecutor);
+        getContext().pipeToSelf(checkpointWrite, (result, failure) -> new CheckpointWrittenCommand(failure));
+    }
+
+    private long averageTimeToFirstHashMicros() {
+        long count = workerStatistics.values().stream().mapToLong(WorkerStatistics::getFirstHashLatencyCount).sum();
+        long totalNanos = workerStatistics.values().stream().mapToLong(WorkerStatistics::getFirstHashLatencyNanos).sum();
+        return count == 0 ? 0 : totalNanos / count / 1000;
+    }
+
+    /**
+     * @return null if there is no range left to hand out, see {@link BlockChainMining#recordResult(long, HashResult)}
+     */
+    private Worker.Command buildWorkerStartMiningCommand(BlockChainMining mining, ActorRef<Worker.Command> worker) {
+        if(mining.getNonceAllocation() == NonceAllocation.SHARED_CURSOR) {
+            return Worker.StartMiningCommand.withSharedCursor(mining.getCurrentBlock(), mining.getNonceCursor(), mining.getCurrentTarget(), getContext().getSelf(), mining.getEpoch().get());
+        }
+        NonceRange range = mining.claimNonceRange();
+        if(range == null) {
+            return null;
+        }
+        assignedRanges.put(worker, range);
+        return new Worker.StartMiningCommand(mining.getCurrentBlock(), range.getStartNonce(),
+                range.getEndNonce(), mining.getCurrentTarget(), getContext().getSelf(), null, mining.getEpoch().get());
     }
 
 }
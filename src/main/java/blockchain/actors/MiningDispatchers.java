@@ -0,0 +1,67 @@
+package blockchain.actors;
+
+import akka.actor.BootstrapSetup;
+import akka.actor.setup.ActorSystemSetup;
+import akka.actor.typed.ActorSystem;
+import akka.actor.typed.Behavior;
+import akka.actor.typed.DispatcherSelector;
+import blockchain.model.BlockChainMiningWorkOrder;
+import blockchain.model.WorkerDispatcher;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class MiningDispatchers {
+    public static final String MANAGER_DISPATCHER = "mining.manager-dispatcher";
+    public static final String WORKER_PINNED_DISPATCHER = "mining.worker-pinned-dispatcher";
+    public static final String WORKER_FIXED_DISPATCHER = "mining.worker-fixed-dispatcher";
+    public static final String MINING_LOOP_DISPATCHER = "mining.loop-dispatcher";
+
+    /**
+     * ActorSystem configuration for the work order, i.e. application.conf with the fixed worker pool sized
+     * to the number of workers, or the most an elastic pool grows to (but not more than the available cores),
+     * and one mining loop thread per worker.
+     */
+    public static Config configFor(BlockChainMiningWorkOrder workOrder) {
+        return configFor(workOrder, ConfigFactory.load());
+    }
+
+    /**
+     * Same as {@link #configFor(BlockChainMiningWorkOrder)} on top of the given configuration, e.g. cluster.conf.
+     */
+    public static Config configFor(BlockChainMiningWorkOrder workOrder, Config base) {
+        int workers = workOrder.getElasticPool() != null
+                ? Math.max(workOrder.getNumberOfSimultaneousWorkers(), workOrder.getElasticPool().getMaxWorkers())
+                : workOrder.getNumberOfSimultaneousWorkers();
+        return configFor(workers, base);
+    }
+
+    /**
+     * Configuration for the given number of workers on top of the given configuration, e.g. for a worker node.
+     * Each running loop of {@link blockchain.model.MiningEngine#PLATFORM_THREADS} keeps a loop thread, so there
+     * are as many as workers, while the actors themselves share at most one thread per core.
+     */
+    public static Config configFor(int workers, Config base) {
+        int poolSize = Math.max(1, Math.min(workers, Runtime.getRuntime().availableProcessors()));
+        return ConfigFactory.parseString(WORKER_FIXED_DISPATCHER + ".thread-pool-executor.fixed-pool-size = " + poolSize
+                        + "\n" + MINING_LOOP_DISPATCHER + ".thread-pool-executor.fixed-pool-size = " + Math.max(1, workers))
+                .withFallback(base);
+    }
+
+    /**
+     * Starts an ActorSystem whose guardian, the Manager, runs on {@link #MANAGER_DISPATCHER}.
+     */
+    public static <T> ActorSystem<T> createManagerSystem(Behavior<T> manager, String name, Config config) {
+        return ActorSystem.apply(manager, name, ActorSystemSetup.create(BootstrapSetup.create(config)), DispatcherSelector.fromConfig(MANAGER_DISPATCHER));
+    }
+
+    public static DispatcherSelector selectorFor(WorkerDispatcher dispatcher) {
+        return switch (dispatcher) {
+            case DEFAULT -> DispatcherSelector.defaultDispatcher();
+            case PINNED -> DispatcherSelector.fromConfig(WORKER_PINNED_DISPATCHER);
+            case FIXED_POOL -> DispatcherSelector.fromConfig(WORKER_FIXED_DISPATCHER);
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package blockchain.actors;
+
+import blockchain.metrics.WorkerMetrics;
+import blockchain.model.HashResult;
+import blockchain.model.MiningEpoch;
+import blockchain.model.NonceCursor;
+import blockchain.utils.BlockChainUtils;
+import blockchain.utils.DifficultyTarget;
+import blockchain.utils.MiningKernel;
+import lombok.Getter;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * A nonce range mined in one go on a thread outside the actor system, see {@link blockchain.model.MiningEngine}.
+ * The range is searched in slices to update the metrics and check for an abort, without passing through a mailbox.
+ * Only the worker that started the loop reads its results, after the loop has finished.
+ */
+@Getter
+class MiningLoop implements Supplier<Optional<HashResult>> {
+    static final long SLICE_SIZE = 1 << 16;
+
+    private final MiningKernel kernel;
+    private final DifficultyTarget target;
+    private final long startNonce;
+    private final long endNonce;
+    private final NonceCursor nonceCursor;
+    private final MiningEpoch miningEpoch;
+    private final long epoch;
+    private final WorkerMetrics metrics;
+
+    private volatile boolean aborted;
+    private volatile long hashes;
+    private long slices;
+    private long startedAtNanos;
+    private boolean cancelled;
+    private long cancelledSliceHashes;
+    private long cancelledSliceStartNanos;
+    private long cancelledSliceEndNanos;
+
+    MiningLoop(MiningKernel kernel, DifficultyTarget target, long startNonce, long endNonce, NonceCursor nonceCursor,
+               MiningEpoch miningEpoch, long epoch, WorkerMetrics metrics) {
+        this.kernel = kernel;
+        this.target = target;
+        this.startNonce = startNonce;
+        this.endNonce = endNonce;
+        this.nonceCursor = nonceCursor;
+        this.miningEpoch = miningEpoch;
+        this.epoch = epoch;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Stops the loop after the current slice, e.g. when the block has been mined elsewhere or the worker is stopped.
+     */
+    void abort() {
+        this.aborted = true;
+    }
+
+    @Override
+    public Optional<HashResult> get() {
+        this.startedAtNanos = System.nanoTime();
+        long nextNonce = startNonce;
+        while (!aborted && (nonceCursor != null || nextNonce <= endNonce)) {
+            long sliceStart = nonceCursor != null ? nonceCursor.claim(SLICE_SIZE) : nextNonce;
+            long sliceEnd = nonceCursor != null ? sliceStart + SLICE_SIZE - 1 : Math.min(endNonce, sliceStart + SLICE_SIZE - 1);
+            nextNonce = sliceEnd + 1;
+
+            long sliceStartNanos = System.nanoTime();
+            Optional<HashResult> result = BlockChainUtils.mineBlock(kernel, target, sliceStart, sliceEnd, miningEpoch, epoch);
+            long sliceEndNanos = System.nanoTime();
+            metrics.recordBatch(kernel.getHashCount(), sliceEndNanos - sliceStartNanos);
+            this.hashes += kernel.getHashCount();
+            this.slices++;
+
+            if (kernel.isCancelled()) {
+                this.cancelled = true;
+                this.cancelledSliceHashes = kernel.getHashCount();
+                this.cancelledSliceStartNanos = sliceStartNanos;
+                this.cancelledSliceEndNanos = sliceEndNanos;
+                return Optional.empty();
+            }
+            if (result.isPresent()) {
+                return result;
+            }
+        }
+        return Optional.empty();
+    }
+}
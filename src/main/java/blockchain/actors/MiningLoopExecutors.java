@@ -0,0 +1,29 @@
+package blockchain.actors;
+
+import akka.actor.typed.ActorSystem;
+import akka.actor.typed.DispatcherSelector;
+import blockchain.model.MiningEngine;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Threads that run the mining loops of the {@link MiningEngine#PLATFORM_THREADS} and {@link MiningEngine#VIRTUAL_THREADS} engines.
+ * Platform loops run on {@link MiningDispatchers#MINING_LOOP_DISPATCHER} of the worker's actor system, which has one thread
+ * per worker. Virtual threads need no bound and nothing to shut down, they share the JVM's carrier threads.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class MiningLoopExecutors {
+    private static final ExecutorService VIRTUAL_THREADS = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("mining-loop-", 0).factory());
+
+    static Executor executorFor(MiningEngine engine, ActorSystem<?> system) {
+        return switch (engine) {
+            case PLATFORM_THREADS -> system.dispatchers().lookup(DispatcherSelector.fromConfig(MiningDispatchers.MINING_LOOP_DISPATCHER));
+            case VIRTUAL_THREADS -> VIRTUAL_THREADS;
+            case ACTOR_BATCHES -> throw new IllegalArgumentException("Actor batches do not run on a separate executor");
+        };
+    }
+}
@@ -11,12 +11,20 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import blockchain.model.Block;
 import blockchain.model.HashResult;
+import blockchain.model.MiningBatchMode;
+import blockchain.model.MiningEngine;
+import blockchain.model.MiningEpoch;
+import blockchain.model.NonceCursor;
+import blockchain.metrics.MailboxDepths;
+import blockchain.metrics.MiningMetrics;
+import blockchain.metrics.WorkerMetrics;
 import blockchain.utils.BlockChainUtils;
+import blockchain.utils.DifficultyTarget;
+import blockchain.utils.MiningKernel;
 
 import java.io.Serializable;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public class Worker extends AbstractBehavior<Worker.Command> {
 	public interface Command extends Serializable {}
@@ -27,17 +35,28 @@ public class Worker extends AbstractBehavior<Worker.Command> {
 		private Block block;
 		private long startNonce;
 		private long endNonce;
-		private int difficulty;
+		private DifficultyTarget target;
 		private ActorRef<Manager.Command> controller;
+		private NonceCursor nonceCursor;
+		private long epoch;
+
+		public StartMiningCommand(Block block, long startNonce, long endNonce, int difficulty, ActorRef<Manager.Command> controller) {
+			this(block, startNonce, endNonce, DifficultyTarget.ofLeadingZeros(difficulty), controller, null, 0);
+		}
+
+		public static StartMiningCommand withSharedCursor(Block block, NonceCursor nonceCursor, DifficultyTarget target, ActorRef<Manager.Command> controller, long epoch) {
+			return new StartMiningCommand(block, nonceCursor.getNextNonce(), Long.MAX_VALUE - 1, target, controller, nonceCursor, epoch);
+		}
 	}
 
+	/**
+	 * Mines the next batch of the current assignment. The worker sends one instance per assignment to itself again and
+	 * again, the batch is kept by the worker, so a stale instance still in the mailbox only carries an old assignment.
+	 */
 	@AllArgsConstructor
 	@Getter
 	public static class MineCommand implements Command {
-		private long iteration;
-		private long startNonce;
-		private long endNonce;
-		private ActorRef<Manager.Command> controller;
+		private final long assignment;
 	}
 
 	@AllArgsConstructor
@@ -46,80 +65,356 @@ public class Worker extends AbstractBehavior<Worker.Command> {
 		private ActorRef<Manager.Command> controller;
 	}
 
+	@AllArgsConstructor
+	@Getter
+	private static class LoopFinishedCommand implements Command {
+		private MiningLoop loop;
+		private Optional<HashResult> result;
+		private Throwable failure;
+		private ActorRef<Manager.Command> controller;
+	}
+
 	public static class BlockAlreadyMinedAbortCurrentWorkCommand implements Command {}
 
 	public static class DecommissionWorkerCommand implements Command {}
 
-	private Worker(ActorContext<Command> context) {
+	private Worker(ActorContext<Command> context, WorkerConfiguration configuration, MiningEpoch miningEpoch, MiningMetrics miningMetrics) {
 		super(context);
+		this.configuration = configuration;
+		this.miningEpoch = miningEpoch;
+		this.metrics = miningMetrics.registerWorker(context.getSelf().path().toStringWithoutAddress(), MailboxDepths.get(context.getSystem()));
+		this.legacyKernel = configuration.getMiningKernel().newKernel();
+		this.headerKernel = configuration.getHeaderKernel().newKernel();
+		this.kernel = legacyKernel;
+		this.idleMessageHandler = workerIdleMessageHandler();
+		this.miningMessageHandler = workerMiningMessageHandler();
+		this.idleSince = System.nanoTime();
 	}
 	
 	public static Behavior<Command> create() {
-		return Behaviors.setup(Worker::new);
+		return create(WorkerConfiguration.defaults());
+	}
+
+	public static Behavior<Command> create(WorkerConfiguration configuration) {
+		return create(configuration, new MiningEpoch());
+	}
+
+	public static Behavior<Command> create(WorkerConfiguration configuration, MiningEpoch miningEpoch) {
+		return create(configuration, miningEpoch, new MiningMetrics());
+	}
+
+	public static Behavior<Command> create(WorkerConfiguration configuration, MiningEpoch miningEpoch, MiningMetrics miningMetrics) {
+		return Behaviors.setup(context -> new Worker(context, configuration, miningEpoch, miningMetrics));
 	}
 
-	private static final long ITERATION_SIZE = 10;
+	private static final long MIN_ADAPTIVE_BATCH_SIZE = 10;
+	private static final long MAX_ADAPTIVE_BATCH_SIZE = 1L << 30;
+	private static final long MAX_ADAPTIVE_GROWTH = 4;
+
+	private final WorkerConfiguration configuration;
+	private final MiningKernel legacyKernel;
+	private final MiningKernel headerKernel;
+	private MiningKernel kernel;
+	private final MiningEpoch miningEpoch;
+	private final WorkerMetrics metrics;
+	private final Receive<Command> idleMessageHandler;
+	private final Receive<Command> miningMessageHandler;
+
 	private boolean abortCommandReceived = false;
+	private long assignment;
+	private long epoch;
+	private Block block;
+	private DifficultyTarget target;
+	private long startNonce;
+	private long endNonce;
+	private NonceCursor nonceCursor;
+	private long processed;
+	private ActorRef<Manager.Command> controller;
+	private MineCommand mineCommand;
+	private long batchStartNonce;
+	private long batchEndNonce;
+	private MiningLoop loop;
+	private StartMiningCommand pendingStart;
+
+	private long batchSize;
+	private long batches;
+	private long lastBatchSize;
+	private long minBatchSize;
+	private long maxBatchSize;
+	private long totalHashes;
+	private long wastedHashes;
+
+	private long lastMeasuredEpoch;
+	private long firstHashLatencyNanos;
+	private long firstHashLatencyCount;
+	private long maxFirstHashLatencyNanos;
+
+	private boolean idle = true;
+	private long idleSince;
+	private long idleNanos;
 
 	@Override
 	public Receive<Command> createReceive() {
-		return workerIdleMessageHandler();
+		return idleMessageHandler;
 	}
 
 	private Receive<Command> workerIdleMessageHandler() {
 		return newReceiveBuilder()
-				.onMessage(StartMiningCommand.class, message -> {
-					System.out.println(getContext().getSelf().path() + " received start command for nonce from " + message.getStartNonce() + " to " + message.getEndNonce() + ".");
-					abortCommandReceived = false;
-					long endNonce = Math.min((message.getStartNonce() + ITERATION_SIZE -1), message.getEndNonce());
-					getContext().getSelf().tell(new MineCommand(0, message.getStartNonce(), endNonce, message.getController()));
-					return workerMiningMessageHandler(message.getBlock(), message.getDifficulty(), message.getStartNonce(), message.getEndNonce(), 0);
+				.onMessage(StartMiningCommand.class, this::startMining)
+				.onMessage(ProgressReportCommand.class, message -> {
+					message.getController().tell(new Manager.WorkerProgressCommand(getContext().getSelf(), Double.NaN, getStatistics()));
+					return Behaviors.same();
 				})
 				.onMessage(DecommissionWorkerCommand.class, message -> waitingToStop())
 				.build();
 	}
 
-	private Receive<Command> workerMiningMessageHandler(Block block, int difficulty, long startNonce, long endNonce, long processed) {
+	private Receive<Command> workerMiningMessageHandler() {
 		return newReceiveBuilder()
 				.onMessage(MineCommand.class, message -> {
+					if(message.getAssignment() != assignment) {
+						return Behaviors.same();
+					}
+
 					if(abortCommandReceived) {
-						message.getController().tell(new Manager.WorkerFinishedCommand(getContext().getSelf(), block, Optional.empty()));
-						return workerIdleMessageHandler();
+						controller.tell(new Manager.WorkerFinishedCommand(getContext().getSelf(), block, null, epoch, getStatistics()));
+						return becomeIdle();
+					}
+
+					if(miningEpoch.get() != epoch) {
+						//Block has already been mined, the Manager does not expect an answer for stale work
+						return becomeIdle();
 					}
 
-					Optional<HashResult> hashResult = BlockChainUtils.mineBlock(block, difficulty, message.getStartNonce(), message.getEndNonce());
+					long batchStartTime = System.nanoTime();
+					recordTimeToFirstHash(batchStartTime);
+					Optional<HashResult> hashResult = BlockChainUtils.mineBlock(kernel, target, batchStartNonce, batchEndNonce, miningEpoch, epoch);
+					long batchEndTime = System.nanoTime();
+					recordBatch(kernel.getHashCount(), batchEndTime - batchStartTime);
 
-					if(hashResult.isPresent()) {
-						getContext().getLog().debug(hashResult.get().getNonce() + " : " + hashResult.get().getHash());
-						message.getController().tell(new Manager.WorkerFinishedCommand(getContext().getSelf(), block, hashResult));
-						return workerIdleMessageHandler();
+					if(kernel.isCancelled()) {
+						long staleHashes = estimateStaleHashes(kernel.getHashCount(), batchStartTime, batchEndTime);
+						this.wastedHashes += staleHashes;
+						metrics.recordWastedHashes(staleHashes);
+						return becomeIdle();
+					}
+					else if(hashResult.isPresent()) {
+						getContext().getLog().debug("Found nonce {} with hash {}", hashResult.get().getNonce(), hashResult.get().getHash());
+						controller.tell(new Manager.WorkerFinishedCommand(getContext().getSelf(), block, hashResult.get(), epoch, getStatistics()));
+						return becomeIdle();
 					}
-					else if(message.getEndNonce() == endNonce){
-						getContext().getLog().debug("null");
-						message.getController().tell(new Manager.WorkerFinishedCommand(getContext().getSelf(), block, hashResult));
-						return workerIdleMessageHandler();
+					else if(nonceCursor == null && batchEndNonce == endNonce){
+						if(getContext().getLog().isDebugEnabled()) {
+							getContext().getLog().debug("No nonce found between {} and {}", startNonce, endNonce);
+						}
+						controller.tell(new Manager.WorkerFinishedCommand(getContext().getSelf(), block, null, epoch, getStatistics()));
+						return becomeIdle();
 					} else {
-						long newStartNonce = message.getEndNonce() + 1;
-						long newEndNonce = Math.min(newStartNonce + ITERATION_SIZE - 1, endNonce);
-						getContext().getSelf().tell(new MineCommand(message.getIteration() + 1, newStartNonce, newEndNonce,  message.getController()));
-						long currentlyProcessed = processed + (message.getEndNonce() - message.getStartNonce() + 1);
-						return workerMiningMessageHandler(block, difficulty, startNonce, endNonce, currentlyProcessed);
+						mineNextBatch();
+						return Behaviors.same();
 					}
 				})
+				.onMessage(LoopFinishedCommand.class, this::loopFinished)
+				.onMessage(StartMiningCommand.class, message -> {
+					if (loop != null) {
+						//The kernel is still in use by the loop, start once it has given up
+						this.pendingStart = message;
+						loop.abort();
+						return Behaviors.same();
+					}
+					return startMining(message);
+				})
 				.onMessage(BlockAlreadyMinedAbortCurrentWorkCommand.class, message -> {
 					this.abortCommandReceived = true;
+					if (loop != null) {
+						loop.abort();
+					}
 					return Behaviors.same();
 				})
 				.onMessage(ProgressReportCommand.class, message -> {
-					long totalWorkload = (endNonce - startNonce) +1;
-					BigDecimal percentage = BigDecimal.valueOf(processed).divide(BigDecimal.valueOf(totalWorkload), 2, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100));
-					message.getController().tell(new Manager.WorkerProgressCommand(getContext().getSelf(), percentage));
+					double percentage = Double.NaN;
+					if (nonceCursor == null) {
+						long totalWorkload = (endNonce - startNonce) +1;
+						long hashed = loop != null ? processed + loop.getHashes() : processed;
+						percentage = hashed * 100.0 / totalWorkload;
+					}
+					message.getController().tell(new Manager.WorkerProgressCommand(getContext().getSelf(), percentage, getStatistics()));
+					return Behaviors.same();
+				})
+				.onMessage(DecommissionWorkerCommand.class, message -> {
+					if (loop != null) {
+						loop.abort();
+					}
+					return waitingToStop();
+				})
+				.onSignal(PostStop.class, signal -> {
+					if (loop != null) {
+						loop.abort();
+					}
 					return Behaviors.same();
 				})
-				.onMessage(DecommissionWorkerCommand.class, message -> waitingToStop())
 				.build();
 	}
 
+	private Behavior<Command> startMining(StartMiningCommand message) {
+		if (message.getNonceCursor() == null && getContext().getLog().isDebugEnabled()) {
+			getContext().getLog().atDebug()
+					.addKeyValue("worker", getContext().getSelf().path())
+					.addKeyValue("epoch", message.getEpoch())
+					.addKeyValue("nonceFrom", message.getStartNonce())
+					.addKeyValue("nonceTo", message.getEndNonce())
+					.log("Received start command");
+		}
+		if (idle) {
+			long idleTime = System.nanoTime() - idleSince;
+			this.idleNanos += idleTime;
+			metrics.recordIdle(idleTime);
+			this.idle = false;
+		}
+
+		if (configuration.isRemote() && !miningEpoch.moveTo(message.getEpoch())) {
+			//A sibling already mines a newer block, this one is stale and would be cancelled right away
+			getContext().getLog().debug("Dropping start command of epoch {}, the node is at epoch {}", message.getEpoch(), miningEpoch.get());
+			return becomeIdle();
+		}
+
+		this.assignment++;
+		this.abortCommandReceived = false;
+		this.epoch = message.getEpoch();
+		this.block = message.getBlock();
+		this.target = message.getTarget();
+		this.startNonce = message.getStartNonce();
+		this.endNonce = message.getEndNonce();
+		this.nonceCursor = message.getNonceCursor();
+		this.controller = message.getController();
+		this.processed = 0;
+		if (batches == 0) {
+			this.batchSize = Math.max(1, configuration.getBatchSize());
+		}
+		this.kernel = block.getHeaderFormat().isBinary() ? headerKernel : legacyKernel;
+		kernel.prepare(block);
+
+		if (configuration.getMiningEngine() != MiningEngine.ACTOR_BATCHES) {
+			this.loop = new MiningLoop(kernel, target, startNonce, endNonce, nonceCursor, miningEpoch, epoch, metrics);
+			MiningLoop startedLoop = loop;
+			ActorRef<Manager.Command> loopController = controller;
+			getContext().pipeToSelf(CompletableFuture.supplyAsync(startedLoop, MiningLoopExecutors.executorFor(configuration.getMiningEngine(), getContext().getSystem())),
+					(result, failure) -> new LoopFinishedCommand(startedLoop, result, failure, loopController));
+			return miningMessageHandler;
+		}
+
+		this.mineCommand = new MineCommand(assignment);
+		this.batchEndNonce = startNonce - 1;
+		mineNextBatch();
+		return miningMessageHandler;
+	}
+
+	private Behavior<Command> loopFinished(LoopFinishedCommand message) {
+		MiningLoop finishedLoop = message.getLoop();
+		this.loop = null;
+		recordLoop(finishedLoop);
+
+		if (pendingStart != null) {
+			StartMiningCommand next = pendingStart;
+			this.pendingStart = null;
+			return startMining(next);
+		}
+		if (message.getFailure() != null) {
+			getContext().getLog().error("Mining loop failed, the range is reported as searched", message.getFailure());
+			message.getController().tell(new Manager.WorkerFinishedCommand(getContext().getSelf(), block, null, epoch, getStatistics()));
+		} else if (!finishedLoop.isCancelled() && (abortCommandReceived || message.getResult().isPresent() || nonceCursor == null)) {
+			message.getController().tell(new Manager.WorkerFinishedCommand(getContext().getSelf(), block, message.getResult().orElse(null), epoch, getStatistics()));
+		}
+		return becomeIdle();
+	}
+
+	private void mineNextBatch() {
+		if (nonceCursor != null) {
+			this.batchStartNonce = nonceCursor.claim(batchSize);
+			this.batchEndNonce = batchStartNonce + batchSize - 1;
+		} else {
+			this.batchStartNonce = batchEndNonce + 1;
+			this.batchEndNonce = Math.min(batchStartNonce + batchSize - 1, endNonce);
+		}
+		getContext().getSelf().tell(mineCommand);
+	}
+
+	private Behavior<Command> becomeIdle() {
+		this.idle = true;
+		this.idleSince = System.nanoTime();
+		return idleMessageHandler;
+	}
+
+	private void recordBatch(long size, long elapsedNanos) {
+		this.processed += size;
+		this.totalHashes += size;
+		this.lastBatchSize = size;
+		this.minBatchSize = batches == 0 ? size : Math.min(minBatchSize, size);
+		this.maxBatchSize = Math.max(maxBatchSize, size);
+		this.batches++;
+		metrics.recordBatch(size, elapsedNanos);
+
+		if (configuration.getBatchMode() == MiningBatchMode.ADAPTIVE && size == batchSize) {
+			long targetNanos = configuration.getBatchTarget().toNanos();
+			long proposed = elapsedNanos <= 0 ? size * MAX_ADAPTIVE_GROWTH : (long) ((double) size * targetNanos / elapsedNanos);
+			proposed = Math.min(proposed, size * MAX_ADAPTIVE_GROWTH);
+			this.batchSize = Math.max(MIN_ADAPTIVE_BATCH_SIZE, Math.min(MAX_ADAPTIVE_BATCH_SIZE, proposed));
+		}
+	}
+
+	/**
+	 * Statistics of a loop once it has finished, its hashes have already been added to the metrics slice by slice.
+	 */
+	private void recordLoop(MiningLoop finishedLoop) {
+		if (finishedLoop.getSlices() == 0) {
+			return;
+		}
+		recordTimeToFirstHash(finishedLoop.getStartedAtNanos());
+		this.processed += finishedLoop.getHashes();
+		this.totalHashes += finishedLoop.getHashes();
+		this.lastBatchSize = finishedLoop.getHashes();
+		this.minBatchSize = batches == 0 ? lastBatchSize : Math.min(minBatchSize, lastBatchSize);
+		this.maxBatchSize = Math.max(maxBatchSize, lastBatchSize);
+		this.batches++;
+		if (finishedLoop.isCancelled()) {
+			long staleHashes = estimateStaleHashes(finishedLoop.getCancelledSliceHashes(), finishedLoop.getCancelledSliceStartNanos(), finishedLoop.getCancelledSliceEndNanos());
+			this.wastedHashes += staleHashes;
+			metrics.recordWastedHashes(staleHashes);
+		}
+	}
+
+	/**
+	 * Time between the previous block being mined (the epoch moving on) and this worker starting on the next one.
+	 */
+	private void recordTimeToFirstHash(long batchStartTime) {
+		if (epoch == 0 || epoch == lastMeasuredEpoch) {
+			return;
+		}
+		this.lastMeasuredEpoch = epoch;
+		long latency = Math.max(0, batchStartTime - miningEpoch.getAdvancedAtNanos());
+		this.firstHashLatencyNanos += latency;
+		this.firstHashLatencyCount++;
+		this.maxFirstHashLatencyNanos = Math.max(maxFirstHashLatencyNanos, latency);
+		metrics.recordTimeToFirstHash(latency);
+	}
+
+	/**
+	 * Share of the hashes of a cancelled batch that were computed after the epoch had already moved on.
+	 */
+	private long estimateStaleHashes(long hashes, long batchStartTime, long batchEndTime) {
+		long staleSince = Math.max(batchStartTime, miningEpoch.getAdvancedAtNanos());
+		if (staleSince >= batchEndTime) {
+			return 0;
+		}
+		return hashes * (batchEndTime - staleSince) / Math.max(1, batchEndTime - batchStartTime);
+	}
+
+	private WorkerStatistics getStatistics() {
+		long currentIdleNanos = idleNanos + (idle ? System.nanoTime() - idleSince : 0);
+		return new WorkerStatistics(batches, lastBatchSize, minBatchSize, maxBatchSize, totalHashes, currentIdleNanos, wastedHashes,
+				firstHashLatencyNanos, firstHashLatencyCount, maxFirstHashLatencyNanos);
+	}
+
 	private Receive<Command> waitingToStop() {
 		return newReceiveBuilder()
 				.onAnyMessage(message -> Behaviors.same())
@@ -0,0 +1,50 @@
+package blockchain.actors;
+
+import blockchain.model.BlockChainMiningWorkOrder;
+import blockchain.model.MiningBatchMode;
+import blockchain.model.MiningEngine;
+import blockchain.model.WorkerDispatcher;
+import blockchain.utils.HeaderKernelType;
+import blockchain.utils.MiningKernelType;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+@Builder(toBuilder = true)
+public class WorkerConfiguration {
+    @Builder.Default
+    private MiningKernelType miningKernel = MiningKernelType.DIGEST;
+    @Builder.Default
+    private HeaderKernelType headerKernel = HeaderKernelType.DIGEST;
+    @Builder.Default
+    private MiningBatchMode batchMode = MiningBatchMode.FIXED;
+    @Builder.Default
+    private long batchSize = 10;
+    @Builder.Default
+    private Duration batchTarget = Duration.ofMillis(10);
+    @Builder.Default
+    private WorkerDispatcher dispatcher = WorkerDispatcher.FIXED_POOL;
+    @Builder.Default
+    private MiningEngine miningEngine = MiningEngine.ACTOR_BATCHES;
+    /** The worker runs on another cluster node than its Manager, its epoch follows the epochs of the blocks it is sent. */
+    @Builder.Default
+    private boolean remote = false;
+
+    public static WorkerConfiguration defaults() {
+        return WorkerConfiguration.builder().build();
+    }
+
+    public static WorkerConfiguration fromWorkOrder(BlockChainMiningWorkOrder workOrder) {
+        return WorkerConfiguration.builder()
+                .miningKernel(workOrder.getMiningKernel())
+                .headerKernel(workOrder.getHeaderKernel())
+                .batchMode(workOrder.getBatchMode())
+                .batchSize(workOrder.getBatchSize())
+                .batchTarget(Duration.ofMillis(workOrder.getBatchTargetMillis()))
+                .dispatcher(workOrder.getWorkerDispatcher())
+                .miningEngine(workOrder.getMiningEngine())
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package blockchain.actors;
+
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.Behavior;
+import akka.actor.typed.SupervisorStrategy;
+import akka.actor.typed.Terminated;
+import akka.actor.typed.javadsl.AbstractBehavior;
+import akka.actor.typed.javadsl.ActorContext;
+import akka.actor.typed.javadsl.Behaviors;
+import akka.actor.typed.javadsl.Receive;
+import akka.actor.typed.receptionist.Receptionist;
+import akka.actor.typed.receptionist.ServiceKey;
+import blockchain.metrics.MiningMetrics;
+import blockchain.model.MiningEpoch;
+
+/**
+ * Guardian of a cluster node that only mines: it runs a number of workers and registers them with the receptionist,
+ * where the Manager of the cluster finds them (see {@link blockchain.model.BlockChainMiningWorkOrder#isClustered()}).
+ * Workers that fail are replaced, the workers stay available for the next mining run once one is finished.
+ */
+public class WorkerNode extends AbstractBehavior<Void> {
+    public static final ServiceKey<Worker.Command> WORKER_KEY = ServiceKey.create(Worker.Command.class, "miningWorker");
+
+    private final WorkerConfiguration configuration;
+    private final MiningEpoch epoch = new MiningEpoch();
+    private final MiningMetrics metrics = new MiningMetrics();
+    private int nextWorkerId;
+
+    private WorkerNode(ActorContext<Void> context, int numberOfWorkers, WorkerConfiguration configuration) {
+        super(context);
+        this.configuration = configuration.toBuilder().remote(true).build();
+        for (int i = 0; i < numberOfWorkers; i++) {
+            spawnWorker();
+        }
+    }
+
+    public static Behavior<Void> create(int numberOfWorkers, WorkerConfiguration configuration) {
+        return Behaviors.setup(context -> new WorkerNode(context, numberOfWorkers, configuration));
+    }
+
+    @Override
+    public Receive<Void> createReceive() {
+        return newReceiveBuilder()
+                .onSignal(Terminated.class, signal -> {
+                    ActorRef<Worker.Command> replacement = spawnWorker();
+                    getContext().getLog().warn("Worker {} terminated unexpectedly, replaced by {}", signal.getRef().path(), replacement.path());
+                    return Behaviors.same();
+                })
+                .build();
+    }
+
+    private ActorRef<Worker.Command> spawnWorker() {
+        Behavior<Worker.Command> workerBehavior = Behaviors.supervise(Worker.create(configuration, epoch, metrics)).onFailure(SupervisorStrategy.resume());
+        ActorRef<Worker.Command> worker = getContext().spawn(workerBehavior, "worker_" + nextWorkerId++, MiningDispatchers.selectorFor(configuration.getDispatcher()));
+        getContext().watch(worker);
+        getContext().getSystem().receptionist().tell(Receptionist.register(WORKER_KEY, worker));
+        return worker;
+    }
+}
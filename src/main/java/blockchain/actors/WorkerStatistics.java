@@ -0,0 +1,29 @@
+package blockchain.actors;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@AllArgsConstructor
+@Getter
+@ToString
+public class WorkerStatistics {
+    private long batches;
+    private long lastBatchSize;
+    private long minBatchSize;
+    private long maxBatchSize;
+    private long hashes;
+    private long idleNanos;
+    private long wastedHashes;
+    private long firstHashLatencyNanos;
+    private long firstHashLatencyCount;
+    private long maxFirstHashLatencyNanos;
+
+    public long getAverageBatchSize() {
+        return batches == 0 ? 0 : hashes / batches;
+    }
+
+    public long getIdleMillis() {
+        return idleNanos / 1_000_000;
+    }
+}
@@ -0,0 +1,208 @@
+package blockchain.cluster;
+
+import akka.actor.ExtendedActorSystem;
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.ActorRefResolver;
+import akka.actor.typed.javadsl.Adapter;
+import akka.serialization.SerializerWithStringManifest;
+import blockchain.actors.Manager;
+import blockchain.actors.Worker;
+import blockchain.actors.WorkerStatistics;
+import blockchain.model.HashResult;
+import blockchain.store.BlockCodec;
+import blockchain.utils.DifficultyTarget;
+
+import java.io.NotSerializableException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary serialization of the messages between the Manager and workers on other cluster nodes, bound in cluster.conf.
+ * Blocks are written with {@link BlockCodec}, actor references in Akka's string format and nullable fields
+ * are preceded by a presence byte.
+ */
+public class MiningMessageSerializer extends SerializerWithStringManifest {
+    private static final int IDENTIFIER = 7301;
+
+    private static final String START_MINING = "S";
+    private static final String ABORT = "A";
+    private static final String PROGRESS_REPORT = "R";
+    private static final String WORKER_PROGRESS = "P";
+    private static final String WORKER_FINISHED = "F";
+
+    private final ActorRefResolver actorRefResolver;
+
+    public MiningMessageSerializer(ExtendedActorSystem system) {
+        this.actorRefResolver = ActorRefResolver.get(Adapter.toTyped(system));
+    }
+
+    @Override
+    public int identifier() {
+        return IDENTIFIER;
+    }
+
+    @Override
+    public String manifest(Object message) {
+        if (message instanceof Worker.StartMiningCommand) {
+            return START_MINING;
+        } else if (message instanceof Worker.BlockAlreadyMinedAbortCurrentWorkCommand) {
+            return ABORT;
+        } else if (message instanceof Worker.ProgressReportCommand) {
+            return PROGRESS_REPORT;
+        } else if (message instanceof Manager.WorkerProgressCommand) {
+            return WORKER_PROGRESS;
+        } else if (message instanceof Manager.WorkerFinishedCommand) {
+            return WORKER_FINISHED;
+        }
+        throw new IllegalArgumentException("Can not serialize " + message.getClass());
+    }
+
+    @Override
+    public byte[] toBinary(Object message) {
+        Writer writer = new Writer();
+        if (message instanceof Worker.StartMiningCommand command) {
+            if (command.getNonceCursor() != null) {
+                throw new IllegalArgumentException("A shared nonce cursor can not be sent to another node");
+            }
+            writer.putBytes(BlockCodec.encode(command.getBlock()));
+            writer.putLong(command.getStartNonce());
+            writer.putLong(command.getEndNonce());
+            writer.putBytes(command.getTarget().toBigInteger().toByteArray());
+            writer.putActorRef(command.getController());
+            writer.putLong(command.getEpoch());
+        } else if (message instanceof Worker.ProgressReportCommand command) {
+            writer.putActorRef(command.getController());
+        } else if (message instanceof Manager.WorkerProgressCommand command) {
+            writer.putActorRef(command.getWorker());
+            writer.putDouble(command.getProgressPercentage());
+            writer.putStatistics(command.getStatistics());
+        } else if (message instanceof Manager.WorkerFinishedCommand command) {
+            writer.putActorRef(command.getWorker());
+            writer.putBytes(BlockCodec.encode(command.getBlock()));
+            writer.putString(command.isBlockMined() ? command.getResult().getHash() : null);
+            writer.putLong(command.isBlockMined() ? command.getResult().getNonce() : 0);
+            writer.putLong(command.getEpoch());
+            writer.putStatistics(command.getStatistics());
+        } else if (!(message instanceof Worker.BlockAlreadyMinedAbortCurrentWorkCommand)) {
+            throw new IllegalArgumentException("Can not serialize " + message.getClass());
+        }
+        return writer.toByteArray();
+    }
+
+    @Override
+    public Object fromBinary(byte[] bytes, String manifest) throws NotSerializableException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        switch (manifest) {
+            case START_MINING:
+                return new Worker.StartMiningCommand(BlockCodec.decode(ByteBuffer.wrap(getBytes(buffer))), buffer.getLong(), buffer.getLong(),
+                        DifficultyTarget.of(new BigInteger(getBytes(buffer))), getActorRef(buffer), null, buffer.getLong());
+            case ABORT:
+                return new Worker.BlockAlreadyMinedAbortCurrentWorkCommand();
+            case PROGRESS_REPORT:
+                return new Worker.ProgressReportCommand(getActorRef(buffer));
+            case WORKER_PROGRESS: {
+                ActorRef<Worker.Command> worker = getActorRef(buffer);
+                return new Manager.WorkerProgressCommand(worker, buffer.getDouble(), getStatistics(buffer));
+            }
+            case WORKER_FINISHED: {
+                ActorRef<Worker.Command> worker = getActorRef(buffer);
+                byte[] block = getBytes(buffer);
+                String hash = getString(buffer);
+                long nonce = buffer.getLong();
+                HashResult result = hash == null ? null : new HashResult(hash, nonce);
+                return new Manager.WorkerFinishedCommand(worker, BlockCodec.decode(ByteBuffer.wrap(block)), result, buffer.getLong(), getStatistics(buffer));
+            }
+            default:
+                throw new NotSerializableException("Unknown manifest " + manifest);
+        }
+    }
+
+    private <T> ActorRef<T> getActorRef(ByteBuffer buffer) {
+        return actorRefResolver.resolveActorRef(getString(buffer));
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        return buffer.get() == 0 ? null : new String(getBytes(buffer), StandardCharsets.UTF_8);
+    }
+
+    private static WorkerStatistics getStatistics(ByteBuffer buffer) {
+        if (buffer.get() == 0) {
+            return null;
+        }
+        return new WorkerStatistics(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong(),
+                buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+    }
+
+    private class Writer {
+        private ByteBuffer buffer = ByteBuffer.allocate(256);
+
+        void putLong(long value) {
+            ensureCapacity(8);
+            buffer.putLong(value);
+        }
+
+        void putDouble(double value) {
+            ensureCapacity(8);
+            buffer.putDouble(value);
+        }
+
+        void putBytes(byte[] bytes) {
+            ensureCapacity(4 + bytes.length);
+            buffer.putInt(bytes.length).put(bytes);
+        }
+
+        void putString(String value) {
+            ensureCapacity(1);
+            if (value == null) {
+                buffer.put((byte) 0);
+            } else {
+                buffer.put((byte) 1);
+                putBytes(value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        void putActorRef(ActorRef<?> actorRef) {
+            putString(actorRefResolver.toSerializationFormat(actorRef));
+        }
+
+        void putStatistics(WorkerStatistics statistics) {
+            ensureCapacity(1 + 10 * 8);
+            if (statistics == null) {
+                buffer.put((byte) 0);
+                return;
+            }
+            buffer.put((byte) 1)
+                    .putLong(statistics.getBatches())
+                    .putLong(statistics.getLastBatchSize())
+                    .putLong(statistics.getMinBatchSize())
+                    .putLong(statistics.getMaxBatchSize())
+                    .putLong(statistics.getHashes())
+                    .putLong(statistics.getIdleNanos())
+                    .putLong(statistics.getWastedHashes())
+                    .putLong(statistics.getFirstHashLatencyNanos())
+                    .putLong(statistics.getFirstHashLatencyCount())
+                    .putLong(statistics.getMaxFirstHashLatencyNanos());
+        }
+
+        void ensureCapacity(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * buffer.capacity(), buffer.position() + bytes));
+                buffer.flip();
+                this.buffer = larger.put(buffer);
+            }
+        }
+
+        byte[] toByteArray() {
+            byte[] bytes = new byte[buffer.position()];
+            buffer.flip().get(bytes);
+            return bytes;
+        }
+    }
+}
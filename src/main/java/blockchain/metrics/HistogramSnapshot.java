@@ -0,0 +1,28 @@
+package blockchain.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Count, mean, max and percentiles of a {@link LatencyHistogram}, in the unit of the recorded values.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class HistogramSnapshot {
+    private final long count;
+    private final long mean;
+    private final long max;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long p999;
+
+    /**
+     * The same snapshot in a coarser unit, e.g. {@code inUnitsOf(1000)} for nanoseconds to microseconds.
+     */
+    public HistogramSnapshot inUnitsOf(long divisor) {
+        return new HistogramSnapshot(count, mean / divisor, max / divisor, p50 / divisor, p90 / divisor, p99 / divisor, p999 / divisor);
+    }
+}
@@ -0,0 +1,51 @@
+package blockchain.metrics;
+
+import akka.actor.AbstractExtensionId;
+import akka.actor.ClassicActorSystemProvider;
+import akka.actor.ExtendedActorSystem;
+import akka.actor.Extension;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link MeteredMailbox}es of one actor system by the path of their actor. An actor system extension, so actors with
+ * the same path in different systems (e.g. several nodes in one JVM) do not share an entry. A mailbox is removed when
+ * its actor stops.
+ */
+public class MailboxDepths implements Extension {
+    private static final Id ID = new Id();
+
+    private final Map<String, MeteredMailbox.MeteredMessageQueue> queues = new ConcurrentHashMap<>();
+
+    MailboxDepths() {
+    }
+
+    public static MailboxDepths get(ClassicActorSystemProvider system) {
+        return ID.get(system);
+    }
+
+    void register(String actorPath, MeteredMailbox.MeteredMessageQueue queue) {
+        queues.put(actorPath, queue);
+    }
+
+    void remove(String actorPath, MeteredMailbox.MeteredMessageQueue queue) {
+        queues.remove(actorPath, queue);
+    }
+
+    /**
+     * @param actorPath path without address, e.g. {@code /user/worker_0}
+     * @return number of messages waiting for the actor, -1 if it has no metered mailbox (or has stopped)
+     */
+    public int depthOf(String actorPath) {
+        MeteredMailbox.MeteredMessageQueue queue = queues.get(actorPath);
+        return queue == null ? -1 : queue.numberOfMessages();
+    }
+
+    private static class Id extends AbstractExtensionId<MailboxDepths> {
+        @Override
+        public MailboxDepths createExtension(ExtendedActorSystem system) {
+            return new MailboxDepths();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package blockchain.metrics;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.dispatch.Envelope;
+import akka.dispatch.MailboxType;
+import akka.dispatch.MessageQueue;
+import akka.dispatch.ProducesMessageQueue;
+import akka.dispatch.UnboundedMessageQueueSemantics;
+import com.typesafe.config.Config;
+import scala.Option;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Unbounded mailbox that keeps count of its messages, so the depth of a mailbox can be read without walking the queue.
+ * Configured as the default mailbox in application.conf, mailboxes are looked up by the path of their actor in the
+ * {@link MailboxDepths} of their actor system.
+ */
+public class MeteredMailbox implements MailboxType, ProducesMessageQueue<MeteredMailbox.MeteredMessageQueue> {
+
+    public MeteredMailbox(ActorSystem.Settings settings, Config config) {
+    }
+
+    @Override
+    public MessageQueue create(Option<ActorRef> owner, Option<ActorSystem> system) {
+        if (!owner.isDefined() || !system.isDefined()) {
+            return new MeteredMessageQueue(null, null);
+        }
+        String path = owner.get().path().toStringWithoutAddress();
+        MailboxDepths mailboxes = MailboxDepths.get(system.get());
+        MeteredMessageQueue queue = new MeteredMessageQueue(path, mailboxes);
+        mailboxes.register(path, queue);
+        return queue;
+    }
+
+    public static class MeteredMessageQueue implements MessageQueue, UnboundedMessageQueueSemantics {
+        private final String path;
+        private final MailboxDepths mailboxes;
+        private final Queue<Envelope> queue = new ConcurrentLinkedQueue<>();
+        private final LongAdder enqueued = new LongAdder();
+        //Only the actor dequeues, one message at a time
+        private final AtomicLong dequeued = new AtomicLong();
+
+        MeteredMessageQueue(String path, MailboxDepths mailboxes) {
+            this.path = path;
+            this.mailboxes = mailboxes;
+        }
+
+        @Override
+        public void enqueue(ActorRef receiver, Envelope handle) {
+            queue.add(handle);
+            enqueued.increment();
+        }
+
+        @Override
+        public Envelope dequeue() {
+            Envelope envelope = queue.poll();
+            if (envelope != null) {
+                dequeued.lazySet(dequeued.get() + 1);
+            }
+            return envelope;
+        }
+
+        @Override
+        public int numberOfMessages() {
+            return (int) Math.max(0, enqueued.sum() - dequeued.get());
+        }
+
+        @Override
+        public boolean hasMessages() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public void cleanUp(ActorRef owner, MessageQueue deadLetters) {
+            //Called once the actor has stopped
+            if (mailboxes != null) {
+                mailboxes.remove(path, this);
+            }
+            Envelope envelope;
+            while ((envelope = dequeue()) != null) {
+                deadLetters.enqueue(owner, envelope);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package blockchain.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Point in time view of {@link MiningMetrics}. Block times are in milliseconds, the other latencies in microseconds.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class MetricsSnapshot {
+    private final long elapsedMillis;
+    private final long blocks;
+    private final long hashes;
+    private final long hashesPerSecond;
+    private final long wastedHashes;
+    private final long idleMillis;
+    private final int managerMailboxDepth;
+    private final HistogramSnapshot blockTimeMillis;
+    private final HistogramSnapshot assignmentRoundTripMicros;
+    private final HistogramSnapshot timeToFirstHashMicros;
+    private final List<WorkerSnapshot> workers;
+}
@@ -0,0 +1,186 @@
+package blockchain.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics of one mining run. Workers and the Manager record into it as they go, readers pull a
+ * {@link #snapshot()} (or read the MBeans) without sending any message to the actors.
+ */
+@Slf4j
+public class MiningMetrics implements MiningMetricsMXBean {
+    public static final String JMX_DOMAIN = "blockchain";
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, WorkerMetrics> workers = new ConcurrentHashMap<>();
+    private final AtomicLong blocks = new AtomicLong();
+    private final LatencyHistogram blockTime = new LatencyHistogram();
+    private final LatencyHistogram assignmentRoundTrip = new LatencyHistogram();
+    private final LatencyHistogram timeToFirstHash = new LatencyHistogram();
+
+    private volatile MailboxDepths managerMailboxes;
+    private volatile String managerPath;
+    private volatile boolean jmxEnabled;
+
+    /**
+     * Worker without a metered mailbox, e.g. one that is not an actor.
+     */
+    public WorkerMetrics registerWorker(String path) {
+        return registerWorker(path, null);
+    }
+
+    /**
+     * @param path actor path of the worker without address, see {@link MailboxDepths#depthOf(String)}
+     * @param mailboxes mailboxes of the worker's actor system
+     */
+    public WorkerMetrics registerWorker(String path, MailboxDepths mailboxes) {
+        WorkerMetrics metrics = workers.computeIfAbsent(path, name -> new WorkerMetrics(name, timeToFirstHash, mailboxes));
+        if (jmxEnabled) {
+            registerMBean(metrics, workerObjectName(path));
+        }
+        return metrics;
+    }
+
+    public void setManager(String managerPath, MailboxDepths managerMailboxes) {
+        this.managerMailboxes = managerMailboxes;
+        this.managerPath = managerPath;
+    }
+
+    /**
+     * Called by the Manager only, once per mined block.
+     */
+    public void recordBlock(long blockTimeNanos) {
+        blocks.lazySet(blocks.get() + 1);
+        blockTime.record(blockTimeNanos);
+    }
+
+    /**
+     * Time between a workload being handed to a worker and the worker's answer arriving at the Manager.
+     */
+    public void recordAssignmentRoundTrip(long nanos) {
+        assignmentRoundTrip.record(nanos);
+    }
+
+    public MetricsSnapshot snapshot() {
+        List<WorkerSnapshot> workerSnapshots = workers.values().stream()
+                .sorted(Comparator.comparing(WorkerMetrics::getName))
+                .map(worker -> new WorkerSnapshot(worker.getName(), worker.getHashes(), worker.getHashesPerSecond(),
+                        worker.getWastedHashes(), worker.getIdleMillis(), worker.getBatches(), worker.getMailboxDepth()))
+                .toList();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long hashes = workerSnapshots.stream().mapToLong(WorkerSnapshot::getHashes).sum();
+        return new MetricsSnapshot(elapsedNanos / 1_000_000, blocks.get(), hashes, (long) (hashes * 1e9 / Math.max(1, elapsedNanos)),
+                workerSnapshots.stream().mapToLong(WorkerSnapshot::getWastedHashes).sum(),
+                workerSnapshots.stream().mapToLong(WorkerSnapshot::getIdleMillis).sum(),
+                getManagerMailboxDepth(),
+                blockTime.snapshot().inUnitsOf(1_000_000),
+                assignmentRoundTrip.snapshot().inUnitsOf(1_000),
+                timeToFirstHash.snapshot().inUnitsOf(1_000),
+                workerSnapshots);
+    }
+
+    /**
+     * Registers this run and its workers (also ones registered later) with the platform MBean server.
+     */
+    public void registerMBeans() {
+        this.jmxEnabled = true;
+        registerMBean(this, objectName("type=Mining"));
+        workers.forEach((path, metrics) -> registerMBean(metrics, workerObjectName(path)));
+    }
+
+    public void unregisterMBeans() {
+        this.jmxEnabled = false;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (ObjectName name : server.queryNames(objectName("*"), null)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            log.warn("Could not unregister mining MBeans", e);
+        }
+    }
+
+    private static void registerMBean(Object mbean, ObjectName name) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(mbean, name);
+        } catch (JMException e) {
+            log.warn("Could not register MBean " + name, e);
+        }
+    }
+
+    private static ObjectName workerObjectName(String path) {
+        return objectName("type=Worker,name=" + ObjectName.quote(path));
+    }
+
+    private static ObjectName objectName(String properties) {
+        try {
+            return new ObjectName(JMX_DOMAIN + ":" + properties);
+        } catch (JMException e) {
+            throw new IllegalArgumentException(properties, e);
+        }
+    }
+
+    @Override
+    public long getBlocks() {
+        return blocks.get();
+    }
+
+    @Override
+    public long getHashes() {
+        return workers.values().stream().mapToLong(WorkerMetrics::getHashes).sum();
+    }
+
+    @Override
+    public long getHashesPerSecond() {
+        return (long) (getHashes() * 1e9 / Math.max(1, System.nanoTime() - startNanos));
+    }
+
+    @Override
+    public long getWastedHashes() {
+        return workers.values().stream().mapToLong(WorkerMetrics::getWastedHashes).sum();
+    }
+
+    @Override
+    public long getIdleMillis() {
+        return workers.values().stream().mapToLong(WorkerMetrics::getIdleMillis).sum();
+    }
+
+    @Override
+    public long getBlockTimeMillisP50() {
+        return blockTime.snapshot().getP50() / 1_000_000;
+    }
+
+    @Override
+    public long getBlockTimeMillisP99() {
+        return blockTime.snapshot().getP99() / 1_000_000;
+    }
+
+    @Override
+    public long getAssignmentRoundTripMicrosP50() {
+        return assignmentRoundTrip.snapshot().getP50() / 1_000;
+    }
+
+    @Override
+    public long getAssignmentRoundTripMicrosP99() {
+        return assignmentRoundTrip.snapshot().getP99() / 1_000;
+    }
+
+    @Override
+    public int getManagerMailboxDepth() {
+        String path = managerPath;
+        return path == null ? -1 : managerMailboxes.depthOf(path);
+    }
+}
@@ -0,0 +1,23 @@
+package blockchain.metrics;
+
+public interface MiningMetricsMXBean {
+    long getBlocks();
+
+    long getHashes();
+
+    long getHashesPerSecond();
+
+    long getWastedHashes();
+
+    long getIdleMillis();
+
+    long getBlockTimeMillisP50();
+
+    long getBlockTimeMillisP99();
+
+    long getAssignmentRoundTripMicrosP50();
+
+    long getAssignmentRoundTripMicrosP99();
+
+    int getManagerMailboxDepth();
+}
@@ -0,0 +1,81 @@
+package blockchain.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of one worker. Every counter has a single writer (the worker itself), so updates are plain
+ * lazySet stores without any CAS, and readers on other threads see them shortly after.
+ */
+public class WorkerMetrics implements WorkerMetricsMXBean {
+    private final String name;
+    private final LatencyHistogram timeToFirstHash;
+    private final MailboxDepths mailboxes;
+
+    private final AtomicLong hashes = new AtomicLong();
+    private final AtomicLong miningNanos = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong wastedHashes = new AtomicLong();
+    private final AtomicLong idleNanos = new AtomicLong();
+
+    WorkerMetrics(String name, LatencyHistogram timeToFirstHash, MailboxDepths mailboxes) {
+        this.name = name;
+        this.timeToFirstHash = timeToFirstHash;
+        this.mailboxes = mailboxes;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void recordBatch(long batchHashes, long elapsedNanos) {
+        hashes.lazySet(hashes.get() + batchHashes);
+        miningNanos.lazySet(miningNanos.get() + elapsedNanos);
+        batches.lazySet(batches.get() + 1);
+    }
+
+    public void recordWastedHashes(long count) {
+        wastedHashes.lazySet(wastedHashes.get() + count);
+    }
+
+    public void recordIdle(long nanos) {
+        idleNanos.lazySet(idleNanos.get() + nanos);
+    }
+
+    public void recordTimeToFirstHash(long nanos) {
+        timeToFirstHash.record(nanos);
+    }
+
+    @Override
+    public long getHashes() {
+        return hashes.get();
+    }
+
+    /**
+     * Hash rate while mining, idle time excluded.
+     */
+    @Override
+    public long getHashesPerSecond() {
+        long nanos = miningNanos.get();
+        return nanos == 0 ? 0 : (long) (hashes.get() * 1e9 / nanos);
+    }
+
+    @Override
+    public long getWastedHashes() {
+        return wastedHashes.get();
+    }
+
+    @Override
+    public long getIdleMillis() {
+        return idleNanos.get() / 1_000_000;
+    }
+
+    @Override
+    public long getBatches() {
+        return batches.get();
+    }
+
+    @Override
+    public int getMailboxDepth() {
+        return mailboxes == null ? -1 : mailboxes.depthOf(name);
+    }
+}
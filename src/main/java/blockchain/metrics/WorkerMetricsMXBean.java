@@ -0,0 +1,15 @@
+package blockchain.metrics;
+
+public interface WorkerMetricsMXBean {
+    long getHashes();
+
+    long getHashesPerSecond();
+
+    long getWastedHashes();
+
+    long getIdleMillis();
+
+    long getBatches();
+
+    int getMailboxDepth();
+}
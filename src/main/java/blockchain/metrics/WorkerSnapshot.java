@@ -0,0 +1,18 @@
+package blockchain.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@AllArgsConstructor
+@Getter
+@ToString
+public class WorkerSnapshot {
+    private final String name;
+    private final long hashes;
+    private final long hashesPerSecond;
+    private final long wastedHashes;
+    private final long idleMillis;
+    private final long batches;
+    private final int mailboxDepth;
+}
@@ -1,32 +1,141 @@
 package blockchain.model;
 
+import blockchain.utils.DifficultyTarget;
+import blockchain.utils.MerkleTree;
 import lombok.*;
 
 import java.time.LocalDateTime;
 import java.time.Month;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 
 @Getter
-@RequiredArgsConstructor(access = AccessLevel.PUBLIC)
 @ToString
 public class Block {
 	private final Transaction transaction;
 	private final String previousHash;
+	@ToString.Exclude
+	private final List<Transaction> transactions;
+	private final String merkleRoot;
+	private final BlockHeaderFormat headerFormat;
+	private final int difficulty;
+	/** Creation time of {@link BlockHeaderFormat#BINARY_V2} blocks in epoch milliseconds, the timestamp of the first transaction for the others. */
+	private final long timestamp;
 
 	private long nonce;
 	private String hash;
 
+	public Block(Transaction transaction, String previousHash) {
+		this(transaction, previousHash, List.of(transaction), null, BlockHeaderFormat.LEGACY, 0, transaction.getTimestamp());
+	}
+
+	private Block(Transaction transaction, String previousHash, List<Transaction> transactions, String merkleRoot, BlockHeaderFormat headerFormat, int difficulty, long timestamp) {
+		this.transaction = transaction;
+		this.previousHash = previousHash;
+		this.transactions = transactions;
+		this.merkleRoot = merkleRoot;
+		this.headerFormat = headerFormat;
+		this.difficulty = difficulty;
+		this.timestamp = timestamp;
+	}
+
+	/**
+	 * Block holding several transactions. Instead of the transaction itself, their Merkle root is part of the hashed data,
+	 * so the mining cost does not depend on the number of transactions.
+	 */
+	public static Block withTransactions(List<Transaction> transactions, String previousHash) {
+		if (transactions.isEmpty()) {
+			throw new IllegalArgumentException("Block needs at least one transaction");
+		}
+		List<Transaction> blockTransactions = List.copyOf(transactions);
+		return new Block(blockTransactions.get(0), previousHash, blockTransactions, MerkleTree.computeRoot(blockTransactions), BlockHeaderFormat.LEGACY, 0, blockTransactions.get(0).getTimestamp());
+	}
+
+	/**
+	 * Block that is hashed through its fixed layout binary header, see {@link blockchain.utils.BlockHeader}.
+	 * The difficulty is part of the header, so a block can not be passed off as mined with a lower one.
+	 */
+	public static Block withBinaryHeader(List<Transaction> transactions, String previousHash, int difficulty) {
+		if (transactions.isEmpty()) {
+			throw new IllegalArgumentException("Block needs at least one transaction");
+		}
+		List<Transaction> blockTransactions = List.copyOf(transactions);
+		return new Block(blockTransactions.get(0), previousHash, blockTransactions, MerkleTree.computeBinaryRoot(blockTransactions), BlockHeaderFormat.BINARY_V1, difficulty, blockTransactions.get(0).getTimestamp());
+	}
+
+	/**
+	 * Binary header block that commits to a target instead of a difficulty level, stored in its compact form
+	 * (so the target of the block may be slightly lower than the given one, see {@link DifficultyTarget#normalized()}),
+	 * and to the time it was created at, which retargets are computed from.
+	 */
+	public static Block withBinaryHeader(List<Transaction> transactions, String previousHash, DifficultyTarget target) {
+		return withBinaryHeader(transactions, previousHash, target, System.currentTimeMillis());
+	}
+
+	/**
+	 * Same as {@link #withBinaryHeader(List, String, DifficultyTarget)} created at the given time in epoch milliseconds.
+	 */
+	public static Block withBinaryHeader(List<Transaction> transactions, String previousHash, DifficultyTarget target, long timestamp) {
+		if (transactions.isEmpty()) {
+			throw new IllegalArgumentException("Block needs at least one transaction");
+		}
+		List<Transaction> blockTransactions = List.copyOf(transactions);
+		return new Block(blockTransactions.get(0), previousHash, blockTransactions, MerkleTree.computeBinaryRoot(blockTransactions), BlockHeaderFormat.BINARY_V2, target.toCompact(), timestamp);
+	}
+
+	/**
+	 * Rebuilds a block that has already been mined, e.g. when reading it back from a {@link blockchain.store.BlockStore}.
+	 * The Merkle root is taken as is, {@link blockchain.utils.BlockChainUtils#validateBlock(Block)} checks it.
+	 */
+	public static Block restore(List<Transaction> transactions, String previousHash, String merkleRoot, BlockHeaderFormat headerFormat, int difficulty, long nonce, String hash) {
+		if (transactions.isEmpty()) {
+			throw new IllegalArgumentException("Block needs at least one transaction");
+		}
+		return restore(transactions, previousHash, merkleRoot, headerFormat, difficulty, transactions.get(0).getTimestamp(), nonce, hash);
+	}
+
+	/**
+	 * Same as {@link #restore(List, String, String, BlockHeaderFormat, int, long, String)} with the timestamp of the block's header.
+	 */
+	public static Block restore(List<Transaction> transactions, String previousHash, String merkleRoot, BlockHeaderFormat headerFormat, int difficulty, long timestamp, long nonce, String hash) {
+		if (transactions.isEmpty()) {
+			throw new IllegalArgumentException("Block needs at least one transaction");
+		}
+		List<Transaction> blockTransactions = List.copyOf(transactions);
+		Block block = new Block(blockTransactions.get(0), previousHash, blockTransactions, merkleRoot, headerFormat, difficulty, timestamp);
+		block.nonce = nonce;
+		block.hash = hash;
+		return block;
+	}
+
+	/**
+	 * Target the header commits to, null for legacy blocks which do not commit to any.
+	 */
+	public DifficultyTarget getTarget() {
+		switch (headerFormat) {
+			case BINARY_V1:
+				return DifficultyTarget.ofLeadingZeros(difficulty);
+			case BINARY_V2:
+				return DifficultyTarget.fromCompact(difficulty);
+			default:
+				return null;
+		}
+	}
+
 	public void setHashAndNonce(HashResult result) {
 		this.nonce = result.getNonce();
 		this.hash = result.getHash();
 	}
 
 	public static Block generateNewBlockWithRandomData(String hashOfPreviousBlock) {
-		Transaction transaction = new Transaction(UUID.randomUUID(), getRandomTransactionTime(), getRandomCustomerId(), getRandomAmount());
-		return new Block(transaction, hashOfPreviousBlock);
+		return new Block(generateRandomTransaction(), hashOfPreviousBlock);
+	}
+
+	public static Transaction generateRandomTransaction() {
+		return new Transaction(UUID.randomUUID(), getRandomTransactionTime(), getRandomCustomerId(), getRandomAmount());
 	}
 
 	private static int getRandomCustomerId() {
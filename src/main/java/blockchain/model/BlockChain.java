@@ -1,21 +1,38 @@
 package blockchain.model;
 
-import java.util.LinkedList;
-
+import blockchain.store.BlockStore;
+import blockchain.store.InMemoryBlockStore;
 import blockchain.utils.BlockChainUtils;
 
-public class BlockChain {
-	private final LinkedList<Block> blocks;
+import java.util.Optional;
+import java.util.UUID;
+
+public class BlockChain implements AutoCloseable {
+	private final BlockStore blocks;
+	private final HeightIndex hashIndex;
+	private final HeightIndex transactionIndex;
 
 	public BlockChain() {
-		blocks = new LinkedList<>();
+		this(new InMemoryBlockStore());
+	}
+
+	/**
+	 * Chain on top of the given store, blocks already in the store are taken as valid (and indexed).
+	 */
+	public BlockChain(BlockStore blocks) {
+		this.blocks = blocks;
+		this.hashIndex = new HeightIndex(getSize());
+		this.transactionIndex = new HeightIndex(getSize());
+		for (int height = 0; height < getSize(); height++) {
+			index(blocks.get(height), height);
+		}
 	}
 	
 	public void addBlock(Block block) throws BlockValidationException {
 		String lastHash = "0";
 		
 		if (blocks.size() > 0) {
-			lastHash = blocks.getLast().getHash();
+			lastHash = blocks.getLastHash();
 		}
 		
 		if (!lastHash.equals(block.getPreviousHash())) {
@@ -26,39 +43,75 @@ public class BlockChain {
 			throw new BlockValidationException();
 		}
 		
-		blocks.add(block);
+		blocks.append(block);
+		index(block, getSize() - 1);
+	}
+
+	private void index(Block block, int height) {
+		hashIndex.put(hashKey(block.getHash()), height);
+		for (Transaction transaction : block.getTransactions()) {
+			transactionIndex.put(transactionKey(transaction.getId()), height);
+		}
 	}
 	
-	public void printAndValidate() {
-		String lastHash = "0";
-		int blockNumber = 0;
-		for (Block block : blocks) {
+	/**
+	 * Prints every block, see {@link ChainValidator} for validating them.
+	 */
+	public void print() {
+		for (long blockNumber = 0; blockNumber < blocks.size(); blockNumber++) {
+			Block block = blocks.get(blockNumber);
 			System.out.println("Block " + blockNumber + ": " + block.getTransaction().getId() + " hash: " + block.getHash());
 			System.out.println(block.getTransaction());
-			
-			if (block.getPreviousHash().equals(lastHash)) {
-				System.out.print("Last hash matches ");
-			} else {
-				System.out.print("Last hash doesn't match ");
-			}
-			
-			if (BlockChainUtils.validateBlock(block)) {
-				System.out.println("and hash is valid");
-			} else {
-				System.out.println("and hash is invalid");
+		}
+	}
+
+	public Block getBlock(long height) {
+		return blocks.get(height);
+	}
+
+	public Optional<Block> findBlockByHash(String hash) {
+		int height = hashIndex.find(hashKey(hash), candidate -> hash.equals(blocks.get(candidate).getHash()));
+		return height < 0 ? Optional.empty() : Optional.of(blocks.get(height));
+	}
+
+	/**
+	 * @return the block holding the transaction with the given id
+	 */
+	public Optional<Block> findBlockByTransactionId(UUID transactionId) {
+		int height = transactionIndex.find(transactionKey(transactionId),
+				candidate -> blocks.get(candidate).getTransactions().stream().anyMatch(transaction -> transactionId.equals(transaction.getId())));
+		return height < 0 ? Optional.empty() : Optional.of(blocks.get(height));
+	}
+
+	/**
+	 * The last 16 hex digits of a hash, the leading ones are mostly zeros.
+	 */
+	private static long hashKey(String hash) {
+		int length = hash.length();
+		if (length >= 16) {
+			try {
+				return Long.parseUnsignedLong(hash, length - 16, length, 16);
+			} catch (NumberFormatException e) {
+				//not a hex hash, fall through
 			}
-			
-			lastHash = block.getHash();
-			blockNumber++;
-			
 		}
+		return hash.hashCode();
+	}
+
+	private static long transactionKey(UUID transactionId) {
+		return transactionId.getMostSignificantBits() ^ transactionId.getLeastSignificantBits();
 	}
 
 	public String getLastHash() {
-		return blocks.size() > 0 ? blocks.getLast().getHash() : null;
+		return blocks.size() > 0 ? blocks.getLastHash() : null;
 	}
 
 	public int getSize() {
-		return blocks.size();
+		return Math.toIntExact(blocks.size());
+	}
+
+	@Override
+	public void close() {
+		blocks.close();
 	}
 }
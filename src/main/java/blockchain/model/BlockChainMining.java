@@ -1,10 +1,22 @@
 package blockchain.model;
 
+import blockchain.utils.BlockChainUtils;
+import blockchain.utils.DifficultyTarget;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
 @Builder
 @Slf4j
 public class BlockChainMining {
@@ -31,6 +43,59 @@ public class BlockChainMining {
     @Setter
     private boolean assignNewBlock;
 
+    @Getter
+    private NonceAllocation nonceAllocation;
+
+    @Getter
+    private NonceCursor nonceCursor;
+
+    @Builder.Default
+    private Deque<NonceRange> abandonedRanges = new ArrayDeque<>();
+
+    /**
+     * Every nonce range of the current block starting below this one was searched without finding a hash,
+     * see {@link #completeNonceRange(NonceRange)}.
+     */
+    @Getter
+    private long searchedNonce;
+
+    /** Searched ranges past the first one still being searched, by start nonce. */
+    @Builder.Default
+    private TreeMap<Long, NonceRange> searchedAhead = new TreeMap<>();
+
+    /** Commit the lowest winning nonce of a block instead of the first one found, see {@link #recordResult(long, HashResult)}. */
+    @Getter
+    private boolean lowestNonceWins;
+
+    /** Lowest hash found for the current block and the nonce every lower nonce has to be searched up to. */
+    private HashResult lowestResult;
+    private long lowestResultBound;
+
+    @Getter
+    private MiningEpoch epoch;
+
+    @Getter
+    private int pipelineDepth;
+
+    @Getter
+    @Builder.Default
+    private int transactionsPerBlock = 1;
+
+    @Getter
+    @Builder.Default
+    private Mempool mempool = new Mempool();
+
+    @Getter
+    @Builder.Default
+    private BlockHeaderFormat headerFormat = BlockHeaderFormat.LEGACY;
+
+    @Builder.Default
+    private TransactionSource transactionSource = TransactionSource.random();
+
+    /** Null to mine every block at the fixed difficulty. */
+    @Getter
+    private RetargetPolicy retargetPolicy;
+
     public int getBlockChainSize() {
         return this.blockchain.getSize();
     }
@@ -39,6 +104,93 @@ public class BlockChainMining {
         return blockchain.getSize() > 0 ? blockchain.getLastHash() : "0";
     }
 
+    public boolean isPipelined() {
+        return pipelineDepth > 0;
+    }
+
+    /**
+     * Pre-generates transactions for the upcoming blocks, so that a new block can be handed out right after the previous one is mined.
+     */
+    public void refillPendingTransactions() {
+        while (mempool.size() < pipelineDepth * transactionsPerBlock && transactionSource.hasNext()) {
+            if (!mempool.submit(transactionSource.next())) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Next block to mine from the mempool, topped up with new transactions if it does not hold enough of them.
+     * Once the transaction source is exhausted the last block holds the transactions left, after that there is none (null).
+     * A transaction already in the block is dropped, it would make the block invalid.
+     */
+    public Block nextCandidateBlock() {
+        List<Transaction> transactions = new ArrayList<>(transactionsPerBlock);
+        Set<UUID> ids = new HashSet<>();
+        for (Transaction transaction : mempool.takeBlock(transactionsPerBlock)) {
+            addUnique(transactions, ids, transaction);
+        }
+        while (transactions.size() < transactionsPerBlock && transactionSource.hasNext()) {
+            addUnique(transactions, ids, transactionSource.next());
+        }
+        if (transactions.isEmpty()) {
+            return null;
+        }
+        return candidateBlock(transactions);
+    }
+
+    private static void addUnique(List<Transaction> transactions, Set<UUID> ids, Transaction transaction) {
+        if (ids.add(transaction.getId())) {
+            transactions.add(transaction);
+        } else {
+            log.warn("Dropping transaction {}, the block already holds it", transaction.getId());
+        }
+    }
+
+    /**
+     * Next block to mine holding the given transactions, e.g. the ones a stream delivered.
+     * @throws IllegalArgumentException if a transaction is in the list twice, the block could never be added to the chain
+     */
+    public Block candidateBlock(List<Transaction> transactions) {
+        if (BlockChainUtils.hasDuplicateTransactions(transactions)) {
+            throw new IllegalArgumentException("A block can not hold a transaction twice");
+        }
+        if (retargetPolicy != null) {
+            return Block.withBinaryHeader(transactions, getHashOfPreviousBlock(), nextTarget());
+        }
+        if (headerFormat == BlockHeaderFormat.BINARY_V1) {
+            return Block.withBinaryHeader(transactions, getHashOfPreviousBlock(), difficulty);
+        }
+        if (transactions.size() == 1) {
+            return new Block(transactions.get(0), getHashOfPreviousBlock());
+        }
+        return Block.withTransactions(transactions, getHashOfPreviousBlock());
+    }
+
+    /**
+     * Target the current block is mined for, the one its header commits to or the fixed difficulty for legacy blocks.
+     */
+    public DifficultyTarget getCurrentTarget() {
+        DifficultyTarget blockTarget = currentBlock.getTarget();
+        return blockTarget != null ? blockTarget : DifficultyTarget.ofLeadingZeros(difficulty);
+    }
+
+    /**
+     * Target of the next block, computed from the targets and timestamps of the stored blocks like a validator does.
+     */
+    DifficultyTarget nextTarget() {
+        long height = blockchain.getSize();
+        DifficultyTarget target = retargetPolicy.targetAt(blockchain, height);
+        if (retargetPolicy.isRetargetHeight(height)) {
+            log.atInfo()
+                    .addKeyValue("height", height)
+                    .addKeyValue("meanBlockMs", retargetPolicy.meanBlockNanos(blockchain, height) / 1_000_000)
+                    .addKeyValue("expectedHashes", (long) target.expectedHashes())
+                    .log("Retargeted difficulty");
+        }
+        return target;
+    }
+
     public long calculateEndNonce() {
         return this.nextStartNonce + this.workloadPerWorker - 1;
     }
@@ -47,23 +199,105 @@ public class BlockChainMining {
         this.nextStartNonce += workloadPerWorker;
     }
 
+    /**
+     * Next range of the current block to hand to a worker, ranges given up by lost workers first.
+     * @return null if a hash was found and no range left could hold a lower nonce, see {@link #recordResult(long, HashResult)}
+     */
+    public NonceRange claimNonceRange() {
+        NonceRange abandoned = abandonedRanges.poll();
+        if (abandoned != null) {
+            return abandoned;
+        }
+        if (lowestResult != null) {
+            return null;
+        }
+        NonceRange range = new NonceRange(nextStartNonce, calculateEndNonce());
+        increaseStartNonce();
+        return range;
+    }
+
+    /**
+     * Returns the range of a worker that will not finish it (stopped, or its node left the cluster), so it is searched by another one.
+     */
+    public void abandonNonceRange(NonceRange range) {
+        if (lowestResult == null || range.getStartNonce() < lowestResultBound) {
+            abandonedRanges.add(range);
+        }
+    }
+
+    /**
+     * Records a hash found for the current block. Ranges are searched from their first nonce on, so no nonce below the
+     * hash's one in the range starting at {@code rangeStartNonce} meets the target. The lowest hash wins once every range
+     * below that one is searched, ranges above it are not handed out any more.
+     */
+    public void recordResult(long rangeStartNonce, HashResult result) {
+        if (lowestResult == null || result.getNonce() < lowestResult.getNonce()) {
+            this.lowestResult = result;
+            this.lowestResultBound = rangeStartNonce;
+            abandonedRanges.removeIf(range -> range.getStartNonce() > rangeStartNonce);
+        }
+    }
+
+    /**
+     * @return the lowest hash found for the current block once no lower nonce can meet the target, null until then
+     */
+    public HashResult getWinningResult() {
+        return lowestResult != null && searchedNonce >= lowestResultBound ? lowestResult : null;
+    }
+
+    /**
+     * Records a range of the current block that was searched without finding a hash. Ranges are handed out in order but
+     * finish in any order, the ones finished ahead of a range still being searched only count once that one finishes.
+     */
+    public void completeNonceRange(NonceRange range) {
+        searchedAhead.put(range.getStartNonce(), range);
+        Map.Entry<Long, NonceRange> next;
+        while ((next = searchedAhead.firstEntry()) != null && next.getKey() <= searchedNonce) {
+            searchedAhead.pollFirstEntry();
+            this.searchedNonce = Math.max(searchedNonce, next.getValue().getEndNonce() + 1);
+        }
+    }
+
+    public void startNonceRange(long firstNonce) {
+        this.nextStartNonce = firstNonce;
+        this.searchedNonce = firstNonce;
+        this.searchedAhead.clear();
+        this.abandonedRanges.clear();
+        this.lowestResult = null;
+        this.nonceCursor = nonceAllocation == NonceAllocation.SHARED_CURSOR ? new NonceCursor(firstNonce) : null;
+    }
+
     public void addCurrentBlockToBlockChain(HashResult hashResult)  {
+        this.epoch.advance();
         this.currentBlock.setHashAndNonce(hashResult);
         try {
             this.blockchain.addBlock(currentBlock);
         } catch (BlockValidationException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-            throw new RuntimeException("Blockchain Validation Error!!!");
+            //Same height as the "Block mined" line of the Manager
+            log.atError()
+                    .addKeyValue("height", blockchain.getSize() + 1)
+                    .addKeyValue("hash", hashResult.getHash())
+                    .setCause(e)
+                    .log("Mined block failed validation");
+            throw new IllegalStateException("Mined block " + hashResult.getHash() + " failed validation", e);
         }
     }
 
-    public void printAndValidateBlockChain() {
-        this.blockchain.printAndValidate();
+    public void printBlockChain() {
+        this.blockchain.print();
+    }
+
+    public boolean isActualEpoch(long epoch) {
+        return this.epoch.get() == epoch;
     }
 
+    /**
+     * Whether a worker's result is for the block being mined. The block of a worker on another node is a copy, it is the
+     * same block if it holds the same transactions on top of the same previous block.
+     */
     public boolean isActualBlock(Block block) {
-        return !this.assignNewBlock && currentBlock.equals(block);
+        return !this.assignNewBlock && currentBlock != null && (currentBlock == block
+                || currentBlock.getPreviousHash().equals(block.getPreviousHash()) && currentBlock.getTransactions().equals(block.getTransactions()));
     }
 
 }
@@ -1,9 +1,16 @@
 package blockchain.model;
 
+import blockchain.metrics.MiningMetrics;
+import blockchain.store.BlockStore;
+import blockchain.utils.HeaderKernelType;
+import blockchain.utils.MiningKernelType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 
+import java.nio.file.Path;
+import java.time.Duration;
+
 @AllArgsConstructor
 @Getter
 @Builder
@@ -13,4 +20,59 @@ public class BlockChainMiningWorkOrder {
     private long workloadPerWorker;
     private int difficulty;
     private int progressReportFrequency;
+    @Builder.Default
+    private MiningKernelType miningKernel = MiningKernelType.DIGEST;
+    @Builder.Default
+    private MiningBatchMode batchMode = MiningBatchMode.FIXED;
+    @Builder.Default
+    private long batchSize = 10;
+    @Builder.Default
+    private long batchTargetMillis = 10;
+    @Builder.Default
+    private WorkerDispatcher workerDispatcher = WorkerDispatcher.FIXED_POOL;
+    /** Loop engines mine a whole nonce range at once, batch settings then do not apply. */
+    @Builder.Default
+    private MiningEngine miningEngine = MiningEngine.ACTOR_BATCHES;
+    @Builder.Default
+    private NonceAllocation nonceAllocation = NonceAllocation.MANAGER_ASSIGNED;
+    @Builder.Default
+    private int pipelineDepth = 0;
+    @Builder.Default
+    private int transactionsPerBlock = 1;
+    private Mempool mempool;
+    @Builder.Default
+    private BlockHeaderFormat headerFormat = BlockHeaderFormat.LEGACY;
+    /** Kernel the workers mine binary headers with, e.g. {@link HeaderKernelType#fastest()} picked before the workers start. */
+    @Builder.Default
+    private HeaderKernelType headerKernel = HeaderKernelType.DIGEST;
+    private BlockStore blockStore;
+    /** Source of the transactions topping up blocks when the mempool runs short, random ones by default. */
+    @Builder.Default
+    private TransactionSource transactionSource = TransactionSource.random();
+    /** Metrics to record the run into, e.g. to read them while mining. The Manager creates its own if not set. */
+    private MiningMetrics metrics;
+    /** Adjusts the target to the observed block times instead of mining at {@code difficulty}, which is then ignored. */
+    private RetargetPolicy retargetPolicy;
+    /** Resizes the pool while mining, starting from {@code numberOfSimultaneousWorkers}. Null keeps the size fixed (failed workers are replaced either way). */
+    private ElasticPoolPolicy elasticPool;
+    /**
+     * Commits the lowest nonce of a block that meets the target, once every lower one is searched, instead of the first one
+     * reported. With a seeded or replayed {@code transactionSource} every run then mines the same chain, whatever the number
+     * of workers and their speed. Nonces are then always assigned by the Manager. Blocks that commit to their creation
+     * time (see {@code retargetPolicy}) differ between runs anyway.
+     */
+    @Builder.Default
+    private boolean lowestNonceWins = false;
+    /** Also mines on the workers other cluster nodes register, see {@link blockchain.actors.WorkerNode}. Nonces are then always assigned by the Manager. */
+    @Builder.Default
+    private boolean clustered = false;
+    /**
+     * File the Manager checkpoints the block being mined to every {@code checkpointInterval}, and resumes it from when a
+     * run starts on the chain the checkpoint was taken on (which takes a persistent {@code blockStore} past the first block).
+     * Only ranges the Manager assigns are tracked, so runs with a shared cursor and streaming runs are not checkpointed.
+     * Null disables checkpoints.
+     */
+    private Path checkpointFile;
+    @Builder.Default
+    private Duration checkpointInterval = Duration.ofSeconds(10);
 }
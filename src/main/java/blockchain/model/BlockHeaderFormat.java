@@ -0,0 +1,14 @@
+package blockchain.model;
+
+public enum BlockHeaderFormat {
+    /** previousHash + timestamp + nonce + transaction (or Merkle root) as a String, as hashed since the first version. */
+    LEGACY,
+    /** Fixed layout binary header with the nonce at a fixed offset, see {@link blockchain.utils.BlockHeader}. */
+    BINARY_V1,
+    /** Same header as {@link #BINARY_V1}, with the compact form of a {@link blockchain.utils.DifficultyTarget} in place of the difficulty level. */
+    BINARY_V2;
+
+    public boolean isBinary() {
+        return this != LEGACY;
+    }
+}
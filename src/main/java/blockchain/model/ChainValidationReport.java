@@ -0,0 +1,43 @@
+package blockchain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Outcome of validating the blocks from {@code firstHeight} to the end of the chain.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class ChainValidationReport {
+    private final long firstHeight;
+    private final long validatedBlocks;
+    private final List<Failure> failures;
+    private final long elapsedNanos;
+
+    public boolean isValid() {
+        return failures.isEmpty();
+    }
+
+    public enum Reason {
+        /** The previous hash of the block is not the hash of the block before it. */
+        PREVIOUS_HASH_MISMATCH,
+        /** The stored hash is not the hash of the block data (or the Merkle root does not match the transactions). */
+        INVALID_HASH,
+        /** The hash does not have as many leading zeros as the required difficulty. */
+        INSUFFICIENT_WORK,
+        /** The block does not commit to the target the retarget policy allows at its height. */
+        UNEXPECTED_TARGET
+    }
+
+    @AllArgsConstructor
+    @Getter
+    @ToString
+    public static class Failure {
+        private final long height;
+        private final Reason reason;
+    }
+}
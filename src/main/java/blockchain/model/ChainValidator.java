@@ -0,0 +1,110 @@
+package blockchain.model;
+
+import blockchain.utils.BlockChainUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Checks hash linkage and proof of work of a {@link BlockChain} in chunks of blocks that are validated in parallel,
+ * either against a fixed difficulty or against the targets a {@link RetargetPolicy} computes from the chain.
+ * Besides validating the whole chain, it can validate just the blocks appended since the last successful validation
+ * (the checkpoint). Blocks must not be added to the chain while it is being validated.
+ */
+public class ChainValidator {
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    private final BlockChain blockChain;
+    private final int requiredDifficulty;
+    private final RetargetPolicy retargetPolicy;
+    private final int chunkSize;
+
+    private long checkpoint;
+
+    /**
+     * @param requiredDifficulty leading zeros every block hash must have, 0 to only check the difficulty binary headers commit to
+     */
+    public ChainValidator(BlockChain blockChain, int requiredDifficulty) {
+        this(blockChain, requiredDifficulty, DEFAULT_CHUNK_SIZE);
+    }
+
+    public ChainValidator(BlockChain blockChain, int requiredDifficulty, int chunkSize) {
+        this(blockChain, requiredDifficulty, null, chunkSize);
+    }
+
+    public ChainValidator(BlockChain blockChain, RetargetPolicy retargetPolicy) {
+        this(blockChain, retargetPolicy, DEFAULT_CHUNK_SIZE);
+    }
+
+    public ChainValidator(BlockChain blockChain, RetargetPolicy retargetPolicy, int chunkSize) {
+        this(blockChain, 0, retargetPolicy, chunkSize);
+    }
+
+    private ChainValidator(BlockChain blockChain, int requiredDifficulty, RetargetPolicy retargetPolicy, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.blockChain = blockChain;
+        this.requiredDifficulty = requiredDifficulty;
+        this.retargetPolicy = retargetPolicy;
+        this.chunkSize = chunkSize;
+    }
+
+    public ChainValidationReport validateAll() {
+        return validateFrom(0);
+    }
+
+    /**
+     * Validates the blocks after the checkpoint and moves the checkpoint up to the first invalid block (or the end of the chain).
+     */
+    public ChainValidationReport validateSinceCheckpoint() {
+        ChainValidationReport report = validateFrom(checkpoint);
+        this.checkpoint = report.isValid()
+                ? report.getFirstHeight() + report.getValidatedBlocks()
+                : report.getFailures().get(0).getHeight();
+        return report;
+    }
+
+    public long getCheckpoint() {
+        return checkpoint;
+    }
+
+    private ChainValidationReport validateFrom(long firstHeight) {
+        long startTime = System.nanoTime();
+        long size = blockChain.getSize();
+        long chunks = (size - firstHeight + chunkSize - 1) / chunkSize;
+
+        List<ChainValidationReport.Failure> failures = LongStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> validateChunk(firstHeight + chunk * chunkSize, Math.min(size, firstHeight + (chunk + 1) * chunkSize)))
+                .flatMap(List::stream)
+                .sorted(Comparator.comparingLong(ChainValidationReport.Failure::getHeight))
+                .collect(Collectors.toList());
+        return new ChainValidationReport(firstHeight, size - firstHeight, failures, System.nanoTime() - startTime);
+    }
+
+    private List<ChainValidationReport.Failure> validateChunk(long fromHeight, long toHeight) {
+        List<ChainValidationReport.Failure> failures = new ArrayList<>();
+        Block previous = fromHeight == 0 ? null : blockChain.getBlock(fromHeight - 1);
+        for (long height = fromHeight; height < toHeight; height++) {
+            Block block = blockChain.getBlock(height);
+            String previousHash = previous == null ? "0" : previous.getHash();
+            if (!previousHash.equals(block.getPreviousHash())) {
+                failures.add(new ChainValidationReport.Failure(height, ChainValidationReport.Reason.PREVIOUS_HASH_MISMATCH));
+            }
+            if (!BlockChainUtils.validateBlock(block)) {
+                failures.add(new ChainValidationReport.Failure(height, ChainValidationReport.Reason.INVALID_HASH));
+            } else if (!BlockChainUtils.meetsDifficulty(block.getHash(), requiredDifficulty)) {
+                failures.add(new ChainValidationReport.Failure(height, ChainValidationReport.Reason.INSUFFICIENT_WORK));
+            }
+            if (retargetPolicy != null && !retargetPolicy.isValidTarget(blockChain, height, block)) {
+                failures.add(new ChainValidationReport.Failure(height, ChainValidationReport.Reason.UNEXPECTED_TARGET));
+            }
+            previous = block;
+        }
+        return failures;
+    }
+}
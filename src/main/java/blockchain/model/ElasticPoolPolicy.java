@@ -0,0 +1,34 @@
+package blockchain.model;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * Resizes the worker pool while mining. Every {@code resizeInterval} the pool grows by one worker as long as there are
+ * more available cores than workers, and shrinks again when the hash rate shows that workers compete for cores:
+ * a new worker adding less than {@code minScalingEfficiency} of the average per worker hash rate, or the per worker
+ * hash rate dropping below {@code minScalingEfficiency} of the best one seen (e.g. another service on the host got busy).
+ * After backing off, the pool does not grow again for {@code backoffIntervals}. The best hash rate loses
+ * {@code bestHashRateDecay} of its value every interval, so a rate that is no longer reachable (e.g. the host throttled
+ * its cores for good) stops shrinking the pool after a while.
+ */
+@Builder
+@Getter
+@ToString
+public class ElasticPoolPolicy {
+    @Builder.Default
+    private int minWorkers = 1;
+    @Builder.Default
+    private int maxWorkers = Runtime.getRuntime().availableProcessors();
+    @Builder.Default
+    private Duration resizeInterval = Duration.ofSeconds(5);
+    @Builder.Default
+    private double minScalingEfficiency = 0.5;
+    @Builder.Default
+    private int backoffIntervals = 6;
+    @Builder.Default
+    private double bestHashRateDecay = 0.05;
+}
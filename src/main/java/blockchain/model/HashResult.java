@@ -1,29 +1,18 @@
 package blockchain.model;
 
+import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
 import lombok.ToString;
 
-@NoArgsConstructor
+/**
+ * Hash found for a block and the nonce it was found with, created once the search has ended and never changed after.
+ */
+@AllArgsConstructor
 @Getter
-@EqualsAndHashCode(onlyExplicitlyIncluded = true)
-@ToString(onlyExplicitlyIncluded = true)
-public class HashResult {
-	@EqualsAndHashCode.Include
-	@ToString.Include
-	private long nonce;
-
-	@EqualsAndHashCode.Include
-	@ToString.Include
-	private String hash;
-
-	private boolean complete = false;
-
-	public synchronized void foundAHash(String hash, long nonce) {
-		this.hash = hash;
-		this.nonce = nonce;
-		this.complete = true;
-	}
-	
+@EqualsAndHashCode
+@ToString
+public final class HashResult {
+	private final String hash;
+	private final long nonce;
 }
@@ -0,0 +1,88 @@
+package blockchain.model;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Open addressing multimap from a 64 bit key to block heights, without boxing. Keys are only digests of the
+ * actual values (block hash, transaction id), so several heights can share a key and callers confirm a
+ * candidate against the block itself. Heights take 4 bytes, keys 8 bytes per slot.
+ */
+class HeightIndex {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] heights; //height + 1, 0 marks an empty slot
+    private int size;
+
+    HeightIndex() {
+        this(MIN_CAPACITY);
+    }
+
+    HeightIndex(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    void put(long key, int height) {
+        if (size + 1 > heights.length * 3L / 4) {
+            resize();
+        }
+        insert(key, height);
+        size++;
+    }
+
+    /**
+     * @return the first height stored under {@code key} that {@code matches} accepts, -1 if there is none
+     */
+    int find(long key, IntPredicate matches) {
+        int mask = heights.length - 1;
+        for (int slot = slot(key, mask); heights[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key && matches.test(heights[slot] - 1)) {
+                return heights[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void insert(long key, int height) {
+        int mask = heights.length - 1;
+        int slot = slot(key, mask);
+        while (heights[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        heights[slot] = height + 1;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldHeights = heights;
+        allocate(oldHeights.length * 2);
+        for (int i = 0; i < oldHeights.length; i++) {
+            if (oldHeights[i] != 0) {
+                insert(oldKeys[i], oldHeights[i] - 1);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.heights = new int[capacity];
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3L / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int slot(long key, int mask) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+}
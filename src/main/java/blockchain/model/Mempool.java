@@ -0,0 +1,58 @@
+package blockchain.model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Stream;
+
+/**
+ * Bounded pool of transactions waiting to be put into a block. Transactions may be submitted from any thread.
+ */
+public class Mempool {
+    public static final int DEFAULT_CAPACITY = 100_000;
+
+    private final BlockingQueue<Transaction> pendingTransactions;
+
+    public Mempool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public Mempool(int capacity) {
+        this.pendingTransactions = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * @return false if the mempool is full and the transaction was not accepted
+     */
+    public boolean submit(Transaction transaction) {
+        return pendingTransactions.offer(transaction);
+    }
+
+    /**
+     * Submits transactions until the stream ends or the mempool is full.
+     * @return number of accepted transactions
+     */
+    public int submitAll(Stream<Transaction> transactions) {
+        int accepted = 0;
+        Iterator<Transaction> iterator = transactions.iterator();
+        while (iterator.hasNext() && submit(iterator.next())) {
+            accepted++;
+        }
+        return accepted;
+    }
+
+    /**
+     * Removes up to {@code maxTransactions} of the oldest transactions.
+     */
+    public List<Transaction> takeBlock(int maxTransactions) {
+        List<Transaction> transactions = new ArrayList<>(maxTransactions);
+        pendingTransactions.drainTo(transactions, maxTransactions);
+        return transactions;
+    }
+
+    public int size() {
+        return pendingTransactions.size();
+    }
+}
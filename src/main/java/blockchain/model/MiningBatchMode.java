@@ -0,0 +1,8 @@
+package blockchain.model;
+
+public enum MiningBatchMode {
+    /** Every MineCommand covers the same number of nonces. */
+    FIXED,
+    /** Batch size follows the measured hash rate so that one MineCommand takes about the configured target time. */
+    ADAPTIVE
+}
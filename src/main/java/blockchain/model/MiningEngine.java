@@ -0,0 +1,15 @@
+package blockchain.model;
+
+public enum MiningEngine {
+    /** A nonce range is mined in batches, each one a MineCommand the worker sends itself, so batches queue up with the other messages of the dispatcher. */
+    ACTOR_BATCHES,
+    /** A nonce range is one tight loop on a platform thread of a pool with one thread per worker, the worker actor only hands it out and reports its result. */
+    PLATFORM_THREADS,
+    /**
+     * Same loop as PLATFORM_THREADS, on a virtual thread per range carried by the JVM's shared carrier threads.
+     * Virtual threads are meant for blocking work, not for hashing: a loop never blocks, so it holds its carrier until
+     * the range ends and at most one loop per core runs while the others wait. The engine is kept to measure exactly
+     * that against PLATFORM_THREADS in the ManagerBenchmark, it is not meant for mining.
+     */
+    VIRTUAL_THREADS
+}
@@ -0,0 +1,41 @@
+package blockchain.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generation counter shared by the Manager and its workers. It is advanced as soon as a block is mined, mining
+ * kernels compare it inside their inner loop and drop work that belongs to an older epoch.
+ */
+public class MiningEpoch {
+    private final AtomicLong current = new AtomicLong();
+    private volatile long advancedAtNanos = System.nanoTime();
+
+    public long get() {
+        return current.get();
+    }
+
+    public long advance() {
+        this.advancedAtNanos = System.nanoTime();
+        return current.incrementAndGet();
+    }
+
+    /**
+     * Takes over the epoch of another node's Manager, see {@link blockchain.actors.WorkerConfiguration#isRemote()}.
+     * The epoch never goes back, a worker handling an older block than its siblings must not cancel their work.
+     * @return false if the epoch is already past the given one
+     */
+    public boolean moveTo(long epoch) {
+        long previous = current.getAndAccumulate(epoch, Math::max);
+        if (previous < epoch) {
+            this.advancedAtNanos = System.nanoTime();
+        }
+        return previous <= epoch;
+    }
+
+    /**
+     * @return {@link System#nanoTime()} of the last {@link #advance()}
+     */
+    public long getAdvancedAtNanos() {
+        return advancedAtNanos;
+    }
+}
@@ -0,0 +1,8 @@
+package blockchain.model;
+
+public enum NonceAllocation {
+    /** Manager hands out a fixed range of workloadPerWorker nonces whenever a worker reports back */
+    MANAGER_ASSIGNED,
+    /** Workers claim their next batch of nonces straight from a shared per block {@link NonceCursor} */
+    SHARED_CURSOR
+}
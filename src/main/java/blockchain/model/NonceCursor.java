@@ -0,0 +1,25 @@
+package blockchain.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free source of nonce chunks for one block, shared by all workers mining that block.
+ */
+public class NonceCursor {
+    private final AtomicLong nextNonce;
+
+    public NonceCursor(long firstNonce) {
+        this.nextNonce = new AtomicLong(firstNonce);
+    }
+
+    /**
+     * @return first nonce of a chunk of {@code count} nonces that no other worker will get
+     */
+    public long claim(long count) {
+        return nextNonce.getAndAdd(count);
+    }
+
+    public long getNextNonce() {
+        return nextNonce.get();
+    }
+}
@@ -0,0 +1,16 @@
+package blockchain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Nonces from {@code startNonce} to {@code endNonce} (both inclusive) of the current block, handed to one worker.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class NonceRange {
+    private final long startNonce;
+    private final long endNonce;
+}
@@ -0,0 +1,8 @@
+package blockchain.model;
+
+public class RandomTransactionSource implements TransactionSource {
+    @Override
+    public Transaction next() {
+        return Block.generateRandomTransaction();
+    }
+}
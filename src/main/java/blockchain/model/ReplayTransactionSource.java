@@ -0,0 +1,79 @@
+package blockchain.model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Replays transactions from a CSV file ({@code id,timestamp,accountNumber,amount} per line, after a header line).
+ * Ends with the file, a transaction is not replayed twice as it would be mined into the chain again.
+ */
+public class ReplayTransactionSource implements TransactionSource {
+    private static final String HEADER = "id,timestamp,accountNumber,amount";
+
+    private final List<Transaction> transactions;
+    private int next;
+
+    public ReplayTransactionSource(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to replay");
+        }
+        this.transactions = List.copyOf(transactions);
+    }
+
+    public static ReplayTransactionSource read(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !HEADER.equals(lines.get(0))) {
+            throw new IOException(file + " is not a transaction file, it has to start with " + HEADER);
+        }
+        List<Transaction> transactions = new ArrayList<>(lines.size() - 1);
+        for (int i = 1; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            try {
+                transactions.add(new Transaction(UUID.fromString(fields[0]), Long.parseLong(fields[1]), Integer.parseInt(fields[2]), Double.parseDouble(fields[3])));
+            } catch (RuntimeException e) {
+                throw new IOException("Invalid transaction in line " + (i + 1) + " of " + file + ": " + line, e);
+            }
+        }
+        return new ReplayTransactionSource(transactions);
+    }
+
+    /**
+     * Writes the transactions in the format read by {@link #read(Path)}, e.g. to record the transactions of a run.
+     */
+    public static void write(Path file, Iterable<Transaction> transactions) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (Transaction transaction : transactions) {
+                writer.write(transaction.getId() + "," + transaction.getTimestamp() + "," + transaction.getAccountNumber() + "," + transaction.getAmount());
+                writer.newLine();
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next < transactions.size();
+    }
+
+    @Override
+    public Transaction next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("All " + transactions.size() + " transactions were replayed");
+        }
+        Transaction transaction = transactions.get(next++);
+        //Transactions are mutable, blocks get their own copy
+        return new Transaction(transaction.getId(), transaction.getTimestamp(), transaction.getAccountNumber(), transaction.getAmount());
+    }
+}
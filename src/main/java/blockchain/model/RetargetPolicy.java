@@ -0,0 +1,76 @@
+package blockchain.model;
+
+import blockchain.utils.DifficultyTarget;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * Difficulty retargeting: every {@code interval} blocks the target is scaled by the mean time of the last {@code window}
+ * blocks over {@code targetBlockTime}, by at most a factor of {@code maxAdjustment} either way. Retargeted blocks have a
+ * {@link BlockHeaderFormat#BINARY_V2} header, so each of them commits to the target it was mined for and to the time
+ * it was created at. Block times are taken from those timestamps, so miner and validator compute the same target.
+ */
+@Builder
+@Getter
+@ToString
+public class RetargetPolicy {
+    @Builder.Default
+    private Duration targetBlockTime = Duration.ofSeconds(1);
+    @Builder.Default
+    private DifficultyTarget initialTarget = DifficultyTarget.ofLeadingZeros(4);
+    @Builder.Default
+    private int interval = 16;
+    @Builder.Default
+    private int window = 16;
+    @Builder.Default
+    private int maxAdjustment = 4;
+
+    public boolean isRetargetHeight(long height) {
+        return height > 0 && height % interval == 0;
+    }
+
+    /**
+     * Target after a retarget, a longer than expected block time raises (eases) it.
+     */
+    public DifficultyTarget nextTarget(DifficultyTarget current, long meanBlockNanos) {
+        long expectedNanos = targetBlockTime.toNanos();
+        long actualNanos = Math.min(expectedNanos * maxAdjustment, Math.max(expectedNanos / maxAdjustment, meanBlockNanos));
+        return current.scaledBy(Math.max(1, actualNanos), expectedNanos).normalized();
+    }
+
+    /**
+     * Mean time between the creation of the last {@code window} blocks below {@code height}, from their header timestamps.
+     * @return -1 if there are fewer than two blocks below the height
+     */
+    public long meanBlockNanos(BlockChain chain, long height) {
+        long last = height - 1;
+        long first = Math.max(0, last - window);
+        if (last <= first) {
+            return -1;
+        }
+        long millis = chain.getBlock(last).getTimestamp() - chain.getBlock(first).getTimestamp();
+        return Duration.ofMillis(millis).toNanos() / (last - first);
+    }
+
+    /**
+     * Target the block at {@code height} has to be mined for, given the blocks of the chain below it.
+     */
+    public DifficultyTarget targetAt(BlockChain chain, long height) {
+        Block previous = height > 0 ? chain.getBlock(height - 1) : null;
+        if (previous == null || previous.getHeaderFormat() != BlockHeaderFormat.BINARY_V2) {
+            return initialTarget.normalized();
+        }
+        long meanBlockNanos = isRetargetHeight(height) ? meanBlockNanos(chain, height) : -1;
+        return meanBlockNanos < 0 ? previous.getTarget() : nextTarget(previous.getTarget(), meanBlockNanos);
+    }
+
+    /**
+     * Checks that the block at {@code height} commits to exactly the target {@link #targetAt(BlockChain, long)} gives.
+     */
+    public boolean isValidTarget(BlockChain chain, long height, Block block) {
+        return block.getHeaderFormat() == BlockHeaderFormat.BINARY_V2 && block.getTarget().equals(targetAt(chain, height));
+    }
+}
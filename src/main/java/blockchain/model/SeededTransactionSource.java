@@ -0,0 +1,25 @@
+package blockchain.model;
+
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Transactions like {@link Block#generateRandomTransaction()}, but derived from a seed only, so that
+ * runs with the same seed draw the same transactions.
+ */
+public class SeededTransactionSource implements TransactionSource {
+    private static final long FIRST_TIMESTAMP = 1577836800L; //2020-01-01T00:00:00Z
+
+    private final Random random;
+    private long timestamp = FIRST_TIMESTAMP;
+
+    public SeededTransactionSource(long seed) {
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public Transaction next() {
+        timestamp += random.nextInt(1, 600);
+        return new Transaction(new UUID(random.nextLong(), random.nextLong()), timestamp, random.nextInt(1000, 100000), random.nextDouble(0.01, 1000000));
+    }
+}
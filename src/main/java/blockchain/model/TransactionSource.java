@@ -0,0 +1,46 @@
+package blockchain.model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Where the transactions of new blocks come from. Sources are only used by the Manager, they need not be thread safe.
+ * <p>
+ * Seeded and replayed sources give the same transactions in every run. They give the same chain only with
+ * {@link BlockChainMiningWorkOrder#isLowestNonceWins()}: otherwise any worker may report its nonce first, and a different
+ * winning nonce changes the hash of the block and the previous hash of every block after it.
+ */
+public interface TransactionSource {
+    /**
+     * @throws java.util.NoSuchElementException if the source is exhausted
+     */
+    Transaction next();
+
+    /**
+     * @return false once the source is exhausted, random and seeded sources never are
+     */
+    default boolean hasNext() {
+        return true;
+    }
+
+    /**
+     * Random transactions, every run mines different blocks.
+     */
+    static TransactionSource random() {
+        return new RandomTransactionSource();
+    }
+
+    /**
+     * The same sequence of transactions for the same seed.
+     */
+    static TransactionSource seeded(long seed) {
+        return new SeededTransactionSource(seed);
+    }
+
+    /**
+     * Transactions read from a file written by {@link ReplayTransactionSource#write(Path, Iterable)}.
+     */
+    static TransactionSource replay(Path file) throws IOException {
+        return ReplayTransactionSource.read(file);
+    }
+}
@@ -0,0 +1,10 @@
+package blockchain.model;
+
+public enum WorkerDispatcher {
+    /** Workers run on Akka's default dispatcher */
+    DEFAULT,
+    /** Every worker runs on its own dedicated thread */
+    PINNED,
+    /** Workers share a dedicated fixed thread pool sized from the number of workers and available cores */
+    FIXED_POOL
+}
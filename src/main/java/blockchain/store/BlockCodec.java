@@ -0,0 +1,93 @@
+package blockchain.store;
+
+import blockchain.model.Block;
+import blockchain.model.BlockHeaderFormat;
+import blockchain.model.Transaction;
+import blockchain.utils.BlockHeader;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary encoding of a block:
+ * header format, difficulty, timestamp (only for {@link BlockHeaderFormat#BINARY_V2}, the others take the first transaction's), nonce, previous hash, hash (absent while the block is being mined), Merkle root (may be absent), transactions.
+ * Strings are written as a length followed by their UTF-8 bytes, transactions as {@link BlockHeader#transactionBytes(Transaction)}.
+ */
+public class BlockCodec {
+    private static final int ABSENT = -1;
+
+    private BlockCodec() {
+    }
+
+    public static byte[] encode(Block block) {
+        byte[] previousHash = bytes(block.getPreviousHash());
+        byte[] hash = block.getHash() == null ? null : bytes(block.getHash());
+        byte[] merkleRoot = block.getMerkleRoot() == null ? null : bytes(block.getMerkleRoot());
+        List<Transaction> transactions = block.getTransactions();
+
+        boolean timestamped = block.getHeaderFormat() == BlockHeaderFormat.BINARY_V2;
+        int size = 1 + 4 + (timestamped ? 8 : 0) + 8
+                + 4 + previousHash.length
+                + 4 + (hash == null ? 0 : hash.length)
+                + 4 + (merkleRoot == null ? 0 : merkleRoot.length)
+                + 4 + transactions.size() * BlockHeader.TRANSACTION_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(size)
+                .put((byte) block.getHeaderFormat().ordinal())
+                .putInt(block.getDifficulty());
+        if (timestamped) {
+            buffer.putLong(block.getTimestamp());
+        }
+        buffer.putLong(block.getNonce());
+        putBytes(buffer, previousHash);
+        putBytes(buffer, hash);
+        putBytes(buffer, merkleRoot);
+        buffer.putInt(transactions.size());
+        for (Transaction transaction : transactions) {
+            buffer.put(BlockHeader.transactionBytes(transaction));
+        }
+        return buffer.array();
+    }
+
+    public static Block decode(ByteBuffer buffer) {
+        BlockHeaderFormat headerFormat = BlockHeaderFormat.values()[buffer.get()];
+        int difficulty = buffer.getInt();
+        boolean timestamped = headerFormat == BlockHeaderFormat.BINARY_V2;
+        long timestamp = timestamped ? buffer.getLong() : 0;
+        long nonce = buffer.getLong();
+        String previousHash = getString(buffer);
+        String hash = getString(buffer);
+        String merkleRoot = getString(buffer);
+        int transactionCount = buffer.getInt();
+        List<Transaction> transactions = new ArrayList<>(transactionCount);
+        for (int i = 0; i < transactionCount; i++) {
+            transactions.add(BlockHeader.readTransaction(buffer));
+        }
+        return timestamped
+                ? Block.restore(transactions, previousHash, merkleRoot, headerFormat, difficulty, timestamp, nonce, hash)
+                : Block.restore(transactions, previousHash, merkleRoot, headerFormat, difficulty, nonce, hash);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(ABSENT);
+        } else {
+            buffer.putInt(value.length).put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == ABSENT) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,24 @@
+package blockchain.store;
+
+import blockchain.model.Block;
+
+/**
+ * Storage of the mined blocks of one chain, addressed by height (0 is the first block).
+ * Stores only keep blocks in order, validation is up to {@link blockchain.model.BlockChain}.
+ * Implementations are not thread safe, except that {@link #get(long)} may be called concurrently while no block is appended.
+ */
+public interface BlockStore extends AutoCloseable {
+    void append(Block block);
+
+    Block get(long height);
+
+    long size();
+
+    /**
+     * @return hash of the last block, null if the store is empty
+     */
+    String getLastHash();
+
+    @Override
+    void close();
+}
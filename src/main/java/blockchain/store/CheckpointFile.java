@@ -0,0 +1,109 @@
+package blockchain.store;
+
+import blockchain.model.Block;
+import blockchain.utils.DifficultyTarget;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link MiningCheckpoint} in a small binary file: a magic number, the payload length, the CRC32 of the payload and the
+ * payload itself (height, resume nonce, tip hash, target and the candidate block as written by {@link BlockCodec}).
+ * A checkpoint is written to a temporary file, forced to disk and then moved over the previous one, so a crash leaves
+ * either the old or the new checkpoint but never a partial one.
+ */
+public class CheckpointFile {
+    private static final int MAGIC = 0x4d434b31; //"MCK1"
+    private static final int HEADER_SIZE = 12;
+
+    private final Path file;
+
+    public CheckpointFile(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Encodes the checkpoint for {@link #write(byte[])}. The candidate block is read here, so this runs where the block
+     * is mined (e.g. on the Manager) while the file may be written elsewhere.
+     */
+    public static byte[] encode(MiningCheckpoint checkpoint) {
+        byte[] tipHash = checkpoint.getTipHash().getBytes(StandardCharsets.UTF_8);
+        byte[] target = checkpoint.getTarget().toBigInteger().toByteArray();
+        byte[] block = BlockCodec.encode(checkpoint.getCandidateBlock());
+        int payloadSize = 8 + 8 + 4 + tipHash.length + 4 + target.length + block.length;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payloadSize)
+                .putInt(MAGIC)
+                .putInt(payloadSize)
+                .putInt(0)
+                .putLong(checkpoint.getHeight())
+                .putLong(checkpoint.getResumeNonce())
+                .putInt(tipHash.length).put(tipHash)
+                .putInt(target.length).put(target)
+                .put(block);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_SIZE, payloadSize);
+        return buffer.putInt(8, (int) crc.getValue()).array();
+    }
+
+    public void write(byte[] encoded) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(encoded);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the checkpoint in the file, empty if there is none or it is damaged
+     */
+    public Optional<MiningCheckpoint> read() throws IOException {
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            return Optional.empty();
+        }
+        int length = buffer.getInt();
+        int crc = buffer.getInt();
+        CRC32 check = new CRC32();
+        check.update(buffer.duplicate());
+        if (length != buffer.remaining() || (int) check.getValue() != crc) {
+            return Optional.empty();
+        }
+
+        long height = buffer.getLong();
+        long resumeNonce = buffer.getLong();
+        String tipHash = new String(getBytes(buffer), StandardCharsets.UTF_8);
+        DifficultyTarget target = DifficultyTarget.of(new BigInteger(getBytes(buffer)));
+        Block block = BlockCodec.decode(buffer);
+        return Optional.of(new MiningCheckpoint(height, tipHash, block, target, resumeNonce));
+    }
+
+    public void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
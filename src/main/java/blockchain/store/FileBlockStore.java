@@ -0,0 +1,151 @@
+package blockchain.store;
+
+import blockchain.model.Block;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only block store in a directory of segment files. A segment is closed for appends once it reaches
+ * {@link FileBlockStoreConfiguration#getSegmentSize()}, reads go through memory mappings of the segments.
+ * Reopening the directory restores the chain without validating the stored blocks again.
+ */
+public class FileBlockStore implements BlockStore {
+    private final FileBlockStoreConfiguration configuration;
+    private final List<Segment> segments;
+
+    private long size;
+    private String lastHash;
+    private int unforcedBlocks;
+
+    private FileBlockStore(FileBlockStoreConfiguration configuration, List<Segment> segments) {
+        this.configuration = configuration;
+        this.segments = segments;
+        for (Segment segment : segments) {
+            this.size += segment.getCount();
+        }
+        this.lastHash = size > 0 ? get(size - 1).getHash() : null;
+    }
+
+    public static FileBlockStore open(FileBlockStoreConfiguration configuration) throws IOException {
+        if (configuration.getSegmentSize() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segments larger than 2 GiB can not be mapped: " + configuration.getSegmentSize());
+        }
+        Path directory = configuration.getDirectory();
+        Files.createDirectories(directory);
+
+        List<Long> baseHeights;
+        try (Stream<Path> files = Files.list(directory)) {
+            baseHeights = files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(".seg"))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - 4)))
+                    .sorted()
+                    .toList();
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        try {
+            long expectedBaseHeight = 0;
+            for (long baseHeight : baseHeights) {
+                if (baseHeight != expectedBaseHeight) {
+                    throw new IOException("Segment " + Segment.dataFile(directory, baseHeight) + " does not follow block " + (expectedBaseHeight - 1));
+                }
+                Segment segment = Segment.open(directory, baseHeight);
+                segments.add(segment);
+                expectedBaseHeight += segment.getCount();
+            }
+        } catch (IOException | RuntimeException e) {
+            for (Segment segment : segments) {
+                segment.close();
+            }
+            throw e;
+        }
+        return new FileBlockStore(configuration, segments);
+    }
+
+    @Override
+    public void append(Block block) {
+        byte[] payload = BlockCodec.encode(block);
+        try {
+            Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (segment == null || (segment.getCount() > 0 && segment.getEnd() + Segment.RECORD_HEADER_SIZE + payload.length > configuration.getSegmentSize())) {
+                if (segment != null) {
+                    segment.force();
+                }
+                segment = Segment.open(configuration.getDirectory(), size);
+                segments.add(segment);
+            }
+            segment.append(payload);
+            this.size++;
+            this.lastHash = block.getHash();
+            this.unforcedBlocks++;
+
+            if (configuration.getFsyncPolicy() == FsyncPolicy.ALWAYS
+                    || (configuration.getFsyncPolicy() == FsyncPolicy.PERIODIC && unforcedBlocks >= configuration.getFsyncInterval())) {
+                segment.force();
+                this.unforcedBlocks = 0;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append block " + size, e);
+        }
+    }
+
+    @Override
+    public Block get(long height) {
+        if (height < 0 || height >= size) {
+            throw new IndexOutOfBoundsException("Block " + height + " of " + size);
+        }
+        Segment segment = segmentOf(height);
+        try {
+            return BlockCodec.decode(segment.read((int) (height - segment.getBaseHeight())));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read block " + height, e);
+        }
+    }
+
+    private Segment segmentOf(long height) {
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (segments.get(middle).getBaseHeight() <= height) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return segments.get(low);
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public String getLastHash() {
+        return lastHash;
+    }
+
+    @Override
+    public void close() {
+        IOException failure = null;
+        for (Segment segment : segments) {
+            try {
+                segment.force();
+                segment.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        segments.clear();
+        if (failure != null) {
+            throw new UncheckedIOException("Could not close block store " + configuration.getDirectory(), failure);
+        }
+    }
+}
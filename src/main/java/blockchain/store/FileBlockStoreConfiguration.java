@@ -0,0 +1,18 @@
+package blockchain.store;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.file.Path;
+
+@Builder
+@Getter
+public class FileBlockStoreConfiguration {
+    private Path directory;
+    @Builder.Default
+    private long segmentSize = 64L * 1024 * 1024;
+    @Builder.Default
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.ALWAYS;
+    @Builder.Default
+    private int fsyncInterval = 100;
+}
@@ -0,0 +1,10 @@
+package blockchain.store;
+
+public enum FsyncPolicy {
+    /** Force every appended block to disk before append returns. */
+    ALWAYS,
+    /** Force to disk every {@link FileBlockStoreConfiguration#getFsyncInterval()} blocks, a crash may lose the blocks since. */
+    PERIODIC,
+    /** Leave flushing to the operating system, segments are only forced when they are full or the store is closed. */
+    NEVER
+}
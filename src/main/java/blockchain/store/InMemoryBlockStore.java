@@ -0,0 +1,34 @@
+package blockchain.store;
+
+import blockchain.model.Block;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InMemoryBlockStore implements BlockStore {
+    private final List<Block> blocks = new ArrayList<>();
+
+    @Override
+    public void append(Block block) {
+        blocks.add(block);
+    }
+
+    @Override
+    public Block get(long height) {
+        return blocks.get(Math.toIntExact(height));
+    }
+
+    @Override
+    public long size() {
+        return blocks.size();
+    }
+
+    @Override
+    public String getLastHash() {
+        return blocks.isEmpty() ? null : blocks.get(blocks.size() - 1).getHash();
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,31 @@
+package blockchain.store;
+
+import blockchain.model.Block;
+import blockchain.utils.DifficultyTarget;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Progress on the block being mined, see {@link CheckpointFile}: the chain it extends (height and hash of its last block),
+ * the candidate block with the target it is mined for, and how far it has been searched. Every nonce range of the
+ * block starting below {@code resumeNonce} was searched without finding a hash, mining resumes from there.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class MiningCheckpoint {
+    private final long height;
+    private final String tipHash;
+    @ToString.Exclude
+    private final Block candidateBlock;
+    private final DifficultyTarget target;
+    private final long resumeNonce;
+
+    /**
+     * @return true if the candidate block extends a chain of the given height and last hash ("0" for an empty chain)
+     */
+    public boolean continues(long chainHeight, String lastHash) {
+        return height == chainHeight && tipHash.equals(lastHash);
+    }
+}
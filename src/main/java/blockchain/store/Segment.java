@@ -0,0 +1,199 @@
+package blockchain.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * One append-only data file of a {@link FileBlockStore} and its offset index. Every record in the data file is
+ * the payload length, the CRC32 of the payload and the payload itself. The index file holds the 8 byte offset of
+ * every record, so blocks can be looked up by height without scanning the data file.
+ */
+class Segment implements Closeable {
+    static final int RECORD_HEADER_SIZE = 8;
+
+    private static final int INDEX_ENTRY_SIZE = 8;
+
+    private final long baseHeight;
+    private final FileChannel data;
+    private final FileChannel index;
+
+    private long[] offsets = new long[64];
+    private int count;
+    private long end;
+    private volatile MappedByteBuffer mapped;
+
+    private Segment(long baseHeight, FileChannel data, FileChannel index) {
+        this.baseHeight = baseHeight;
+        this.data = data;
+        this.index = index;
+    }
+
+    static Path dataFile(Path directory, long baseHeight) {
+        return directory.resolve(String.format("%020d.seg", baseHeight));
+    }
+
+    static Path indexFile(Path directory, long baseHeight) {
+        return directory.resolve(String.format("%020d.idx", baseHeight));
+    }
+
+    /**
+     * Opens (or creates) the segment starting at {@code baseHeight}. Records that were not completely written,
+     * e.g. because of a crash during an append, are cut off; records missing from the index are added back to it.
+     */
+    static Segment open(Path directory, long baseHeight) throws IOException {
+        FileChannel data = FileChannel.open(dataFile(directory, baseHeight), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel index = FileChannel.open(indexFile(directory, baseHeight), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Segment segment = new Segment(baseHeight, data, index);
+        try {
+            segment.recover();
+        } catch (IOException | RuntimeException e) {
+            segment.close();
+            throw e;
+        }
+        return segment;
+    }
+
+    private void recover() throws IOException {
+        int indexed = (int) (index.size() / INDEX_ENTRY_SIZE);
+        ByteBuffer indexBuffer = ByteBuffer.allocate(indexed * INDEX_ENTRY_SIZE);
+        readFully(index, indexBuffer, 0);
+        indexBuffer.flip();
+        while (indexBuffer.hasRemaining()) {
+            addOffset(indexBuffer.getLong());
+        }
+
+        //Only the tail can be damaged, earlier records were written before the last indexed one
+        while (count > 0 && recordEnd(offsets[count - 1]) < 0) {
+            count--;
+        }
+        this.end = count == 0 ? 0 : recordEnd(offsets[count - 1]);
+        index.truncate((long) count * INDEX_ENTRY_SIZE);
+
+        long next;
+        while ((next = recordEnd(end)) >= 0) {
+            writeIndexEntry(end);
+            addOffset(end);
+            this.end = next;
+        }
+        data.truncate(end);
+    }
+
+    /**
+     * @return offset right after the record at {@code offset}, or -1 if there is no complete and intact record
+     */
+    private long recordEnd(long offset) throws IOException {
+        long fileSize = data.size();
+        if (offset + RECORD_HEADER_SIZE > fileSize) {
+            return -1;
+        }
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        readFully(data, header, offset);
+        int length = header.getInt(0);
+        if (length < 0 || offset + RECORD_HEADER_SIZE + length > fileSize) {
+            return -1;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(data, payload, offset + RECORD_HEADER_SIZE);
+        payload.flip();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue() == header.getInt(4) ? offset + RECORD_HEADER_SIZE + length : -1;
+    }
+
+    void append(byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE).putInt(payload.length).putInt((int) crc.getValue());
+        header.flip();
+        ByteBuffer body = ByteBuffer.wrap(payload);
+
+        long position = end;
+        while (header.hasRemaining()) {
+            position += data.write(header, position);
+        }
+        while (body.hasRemaining()) {
+            position += data.write(body, position);
+        }
+        writeIndexEntry(end);
+        addOffset(end);
+        this.end = position;
+    }
+
+    /**
+     * Payload of the record at the given position in this segment, read through a memory mapping of the data file.
+     */
+    ByteBuffer read(int position) throws IOException {
+        long offset = offsets[position];
+        MappedByteBuffer mapped = this.mapped;
+        if (mapped == null || mapped.capacity() < end) {
+            //Remapped only when reading records appended since the last mapping
+            mapped = data.map(FileChannel.MapMode.READ_ONLY, 0, end);
+            this.mapped = mapped;
+        }
+        int recordOffset = Math.toIntExact(offset);
+        int length = mapped.getInt(recordOffset);
+        return mapped.duplicate()
+                .position(recordOffset + RECORD_HEADER_SIZE)
+                .limit(recordOffset + RECORD_HEADER_SIZE + length)
+                .slice();
+    }
+
+    void force() throws IOException {
+        data.force(false);
+        index.force(false);
+    }
+
+    long getBaseHeight() {
+        return baseHeight;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    long getEnd() {
+        return end;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            data.close();
+        } finally {
+            index.close();
+        }
+    }
+
+    private void writeIndexEntry(long offset) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE).putLong(offset);
+        entry.flip();
+        long position = (long) count * INDEX_ENTRY_SIZE;
+        while (entry.hasRemaining()) {
+            position += index.write(entry, position);
+        }
+    }
+
+    private void addOffset(long offset) {
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        offsets[count++] = offset;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+            position += read;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package blockchain.stream;
+
+import akka.NotUsed;
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.Scheduler;
+import akka.actor.typed.javadsl.AskPattern;
+import akka.stream.OverflowStrategy;
+import akka.stream.javadsl.Flow;
+import akka.stream.javadsl.Source;
+import blockchain.actors.Manager;
+import blockchain.model.Block;
+import blockchain.model.Transaction;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Mines an endless stream of transactions with a Manager started by {@link Manager.StartStreamingCommand}, the blocks
+ * go to the block store of its work order. The stream fails if the Manager is stopped while blocks are requested.
+ * <p>
+ * Transactions wait in a buffer of {@code bufferSize} elements and are grouped into blocks of up to
+ * {@code transactionsPerBlock}, a block is cut early once its first transaction waited {@code maxBlockDelay}.
+ * At most {@code pendingBlocks} blocks are requested from the Manager at a time (the one being mined and the
+ * ones queued behind it, so the next block is handed out as soon as a hash is found). Once they and the buffer
+ * are full the stream stops pulling transactions, so a slow miner throttles the source instead of the heap growing.
+ */
+@Builder
+@Getter
+public class MiningStream {
+    private ActorRef<Manager.Command> manager;
+    private Scheduler scheduler;
+    @Builder.Default
+    private int transactionsPerBlock = 1;
+    @Builder.Default
+    private int bufferSize = 1000;
+    @Builder.Default
+    private int pendingBlocks = 2;
+    @Builder.Default
+    private Duration maxBlockDelay = Duration.ofSeconds(1);
+    /** How long one block may take, a block not mined in time fails the stream. */
+    @Builder.Default
+    private Duration blockTimeout = Duration.ofHours(1);
+
+    /**
+     * Transactions in, mined blocks out, in the order of their transactions.
+     */
+    public Flow<Transaction, Block, NotUsed> flow() {
+        return Flow.<Transaction>create()
+                .buffer(bufferSize, OverflowStrategy.backpressure())
+                .groupedWithin(transactionsPerBlock, maxBlockDelay)
+                .mapAsync(pendingBlocks, transactions -> AskPattern.<Manager.Command, Block>askWithStatus(manager,
+                        replyTo -> new Manager.MineTransactionsCommand(transactions, replyTo), blockTimeout, scheduler))
+                .named("mining");
+    }
+
+    public Source<Block, NotUsed> blocks(Source<Transaction, NotUsed> transactions) {
+        return transactions.via(flow());
+    }
+}
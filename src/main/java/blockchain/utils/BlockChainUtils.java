@@ -3,57 +3,152 @@ package blockchain.utils;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
+import blockchain.model.BlockHeaderFormat;
 import blockchain.model.HashResult;
+import blockchain.model.MiningEpoch;
+import blockchain.model.Transaction;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import blockchain.model.Block;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE) //To provide a non-instantiable class
 public class BlockChainUtils {
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(BlockChainUtils::newSha256Digest);
+	private static final ThreadLocal<MiningKernel> KERNEL = ThreadLocal.withInitial(DigestMiningKernel::new);
+	private static final ThreadLocal<MiningKernel> HEADER_KERNEL = ThreadLocal.withInitial(HeaderMiningKernel::new);
 
 	public static String calculateHash(String data) {
-		try {
-			MessageDigest digest = MessageDigest.getInstance("SHA-256");
-			byte[] rawHash = digest.digest(data.getBytes(StandardCharsets.UTF_8));
-			StringBuilder hexString = new StringBuilder();
-			for (int i = 0; i < rawHash.length; i++) {
-				String hex = Integer.toHexString(0xff & rawHash[i]);
-				if(hex.length() == 1) hexString.append('0');
-				hexString.append(hex);
-			}
-			return hexString.toString();
-		} catch (NoSuchAlgorithmException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-			return null;
-		} 
+		MessageDigest digest = DIGEST.get();
+		return toHex(digest.digest(data.getBytes(StandardCharsets.UTF_8)));
 	}
 
 	public static Optional<HashResult> mineBlock(Block block, int difficultyLevel, long startNonce, long endNonce) {
-		String hash = new String(new char[difficultyLevel]).replace("\0", "X");
-		String target = new String(new char[difficultyLevel]).replace("\0", "0");
+		return mineBlock(block, DifficultyTarget.ofLeadingZeros(difficultyLevel), startNonce, endNonce);
+	}
 
-		long nonce = startNonce;
-		while (!hash.substring(0,difficultyLevel).equals(target) && nonce <= endNonce) {
-			nonce++;
-			String dataToEncode = block.getPreviousHash() + block.getTransaction().getTimestamp() +
-					nonce + block.getTransaction();
-			hash = BlockChainUtils.calculateHash(dataToEncode);
-		}
+	public static Optional<HashResult> mineBlock(Block block, DifficultyTarget target, long startNonce, long endNonce) {
+		MiningKernel kernel = block.getHeaderFormat().isBinary() ? HEADER_KERNEL.get() : KERNEL.get();
+		kernel.prepare(block);
+		return mineBlock(kernel, target, startNonce, endNonce, null, 0);
+	}
+
+	/**
+	 * Same as {@link #mineBlock(Block, int, long, long)} but with a kernel that was already prepared for the block.
+	 * Like the original loop, nonces from startNonce + 1 up to endNonce + 1 are hashed.
+	 */
+	public static Optional<HashResult> mineBlock(MiningKernel kernel, int difficultyLevel, long startNonce, long endNonce) {
+		return mineBlock(kernel, difficultyLevel, startNonce, endNonce, null, 0);
+	}
+
+	/**
+	 * Same as {@link #mineBlock(MiningKernel, int, long, long)} but stops early once {@code epoch} moves past {@code expectedEpoch},
+	 * see {@link MiningKernel#isCancelled()}.
+	 */
+	public static Optional<HashResult> mineBlock(MiningKernel kernel, int difficultyLevel, long startNonce, long endNonce, MiningEpoch epoch, long expectedEpoch) {
+		return mineBlock(kernel, DifficultyTarget.ofLeadingZeros(difficultyLevel), startNonce, endNonce, epoch, expectedEpoch);
+	}
 
-		HashResult hashResult = null;
-		if (hash.substring(0,difficultyLevel).equals(target)) {
-			hashResult = new HashResult();
-			hashResult.foundAHash(hash, nonce);
+	/**
+	 * Same as {@link #mineBlock(MiningKernel, int, long, long, MiningEpoch, long)} for a hash of at most {@code target}.
+	 */
+	public static Optional<HashResult> mineBlock(MiningKernel kernel, DifficultyTarget target, long startNonce, long endNonce, MiningEpoch epoch, long expectedEpoch) {
+		if (!kernel.search(target, startNonce + 1, endNonce + 1, epoch, expectedEpoch)) {
+			return Optional.empty();
 		}
-		return Optional.ofNullable(hashResult);
+		return Optional.of(new HashResult(kernel.getFoundHash(), kernel.getFoundNonce()));
 	}
 	
 	public static boolean validateBlock(Block block) {
-		String dataToEncode = block.getPreviousHash() + block.getTransaction().getTimestamp() + block.getNonce() + block.getTransaction();
+		if (hasDuplicateTransactions(block.getTransactions())) {
+			return false;
+		}
+		if (block.getHeaderFormat().isBinary()) {
+			return validateBinaryBlock(block);
+		}
+		if (block.getMerkleRoot() != null && !block.getMerkleRoot().equals(MerkleTree.computeRoot(block.getTransactions()))) {
+			return false;
+		}
+		String dataToEncode = hashingPrefix(block) + block.getNonce() + hashingSuffix(block);
 		String checkHash = calculateHash(dataToEncode);
 		return (checkHash.equals(block.getHash()));
 	}
+
+	/**
+	 * A transaction may only be in a block once. Besides, the Merkle tree pairs an odd node out with itself, so
+	 * repeating the last transactions gives the same root (CVE-2012-2459) and would pass the block off as a different one.
+	 */
+	public static boolean hasDuplicateTransactions(List<Transaction> transactions) {
+		Set<UUID> ids = new HashSet<>();
+		for (Transaction transaction : transactions) {
+			if (!ids.add(transaction.getId())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean validateBinaryBlock(Block block) {
+		if (!block.getMerkleRoot().equals(MerkleTree.computeBinaryRoot(block.getTransactions()))) {
+			return false;
+		}
+		if (block.getHeaderFormat() == BlockHeaderFormat.BINARY_V1 && (block.getDifficulty() < 0 || block.getDifficulty() > 64)) {
+			return false;
+		}
+		byte[] rawHash = DIGEST.get().digest(BlockHeader.encode(block));
+		return block.getTarget().meets(rawHash) && toHex(rawHash).equals(block.getHash());
+	}
+
+	/**
+	 * @return true if the hex hash starts with at least {@code difficultyLevel} zeros
+	 */
+	public static boolean meetsDifficulty(String hash, int difficultyLevel) {
+		if (difficultyLevel > hash.length()) {
+			return false;
+		}
+		for (int i = 0; i < difficultyLevel; i++) {
+			if (hash.charAt(i) != '0') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Hashed data of a block is the prefix, the nonce and the suffix. The prefix is the previous hash and timestamp.
+	 */
+	public static String hashingPrefix(Block block) {
+		return block.getPreviousHash() + block.getTransaction().getTimestamp();
+	}
+
+	/**
+	 * Merkle root for blocks with several transactions, the transaction itself for single transaction blocks.
+	 */
+	public static String hashingSuffix(Block block) {
+		return block.getMerkleRoot() != null ? block.getMerkleRoot() : block.getTransaction().toString();
+	}
+
+	static MessageDigest newSha256Digest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+		}
+	}
+
+	static String toHex(byte[] rawHash) {
+		char[] hex = new char[rawHash.length * 2];
+		for (int i = 0; i < rawHash.length; i++) {
+			hex[2 * i] = HEX_DIGITS[(rawHash[i] >> 4) & 0x0f];
+			hex[2 * i + 1] = HEX_DIGITS[rawHash[i] & 0x0f];
+		}
+		return new String(hex);
+	}
 }
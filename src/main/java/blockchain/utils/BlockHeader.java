@@ -0,0 +1,95 @@
+package blockchain.utils;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import blockchain.model.Block;
+import blockchain.model.BlockHeaderFormat;
+import blockchain.model.Transaction;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fixed layout binary header of {@link BlockHeaderFormat#BINARY_V1} and {@link BlockHeaderFormat#BINARY_V2} blocks, all numbers big endian:
+ * <pre>
+ *  0  version         4 bytes
+ *  4  previous hash  32 bytes
+ * 36  timestamp       8 bytes (V1 the first transaction's, V2 the block's creation time in epoch milliseconds)
+ * 44  Merkle root    32 bytes
+ * 76  difficulty      4 bytes (V1 leading zeros, V2 compact target)
+ * 80  nonce           8 bytes
+ * </pre>
+ * The first 64 bytes do not depend on the nonce, and the nonce is rewritten in place while mining.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE) //To provide a non-instantiable class
+public class BlockHeader {
+	public static final int VERSION = 1;
+	public static final int VERSION_2 = 2;
+	public static final int SIZE = 88;
+	public static final int NONCE_OFFSET = 80;
+
+	private static final int HASH_SIZE = 32;
+	public static final int TRANSACTION_SIZE = 36;
+
+	/**
+	 * Header of the block with its current nonce.
+	 */
+	public static byte[] encode(Block block) {
+		if (!block.getHeaderFormat().isBinary()) {
+			throw new IllegalArgumentException("Block has no binary header: " + block.getHeaderFormat());
+		}
+		return ByteBuffer.allocate(SIZE)
+				.putInt(block.getHeaderFormat() == BlockHeaderFormat.BINARY_V2 ? VERSION_2 : VERSION)
+				.put(hashBytes(block.getPreviousHash()))
+				.putLong(block.getTimestamp())
+				.put(hashBytes(block.getMerkleRoot()))
+				.putInt(block.getDifficulty())
+				.putLong(block.getNonce())
+				.array();
+	}
+
+	public static void writeNonce(byte[] header, long nonce) {
+		for (int i = 0; i < 8; i++) {
+			header[NONCE_OFFSET + i] = (byte) (nonce >>> (56 - 8 * i));
+		}
+	}
+
+	/**
+	 * Binary encoding of a transaction: id, timestamp, account number and the IEEE 754 bits of the amount.
+	 */
+	public static byte[] transactionBytes(Transaction transaction) {
+		return ByteBuffer.allocate(TRANSACTION_SIZE)
+				.putLong(transaction.getId().getMostSignificantBits())
+				.putLong(transaction.getId().getLeastSignificantBits())
+				.putLong(transaction.getTimestamp())
+				.putInt(transaction.getAccountNumber())
+				.putDouble(transaction.getAmount())
+				.array();
+	}
+
+	/**
+	 * Reads a transaction written by {@link #transactionBytes(Transaction)}.
+	 */
+	public static Transaction readTransaction(ByteBuffer buffer) {
+		UUID id = new UUID(buffer.getLong(), buffer.getLong());
+		return new Transaction(id, buffer.getLong(), buffer.getInt(), buffer.getDouble());
+	}
+
+	/**
+	 * Hex hash as 32 bytes, shorter values are left padded with zeros (so the genesis previous hash "0" is all zeros).
+	 */
+	static byte[] hashBytes(String hexHash) {
+		if (hexHash.isEmpty() || hexHash.length() > 2 * HASH_SIZE) {
+			throw new IllegalArgumentException("Not a SHA-256 hash: " + hexHash);
+		}
+		byte[] bytes = new byte[HASH_SIZE];
+		for (int i = 0; i < hexHash.length(); i++) {
+			int digit = Character.digit(hexHash.charAt(hexHash.length() - 1 - i), 16);
+			if (digit < 0) {
+				throw new IllegalArgumentException("Not a SHA-256 hash: " + hexHash);
+			}
+			bytes[HASH_SIZE - 1 - i / 2] |= (byte) (digit << (4 * (i % 2)));
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,171 @@
+package blockchain.utils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigInteger;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Proof of work threshold: a hash meets the target if, read as an unsigned 256-bit big endian number, it is not greater than it.
+ * Unlike a count of leading zero nibbles, where every step is 16 times harder than the one before, a target can be adjusted
+ * by any factor. Blocks store it in 32 bits in the compact form known from Bitcoin, see {@link #toCompact()}.
+ * <p>
+ * Almost every hash already fails on its first bits, so the first 64 bits of the target are kept as a number
+ * and hashes are compared by those first, the remaining bytes only decide when they are equal.
+ */
+public final class DifficultyTarget implements Comparable<DifficultyTarget> {
+	private static final int SIZE = 32;
+	private static final BigInteger MAX_VALUE = BigInteger.ONE.shiftLeft(8 * SIZE).subtract(BigInteger.ONE);
+	private static final VarHandle LONG_BIG_ENDIAN = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+	private static final DifficultyTarget[] LEADING_ZEROS = new DifficultyTarget[2 * SIZE + 1];
+
+	static {
+		for (int nibbles = 0; nibbles < LEADING_ZEROS.length; nibbles++) {
+			LEADING_ZEROS[nibbles] = new DifficultyTarget(MAX_VALUE.shiftRight(4 * nibbles));
+		}
+	}
+
+	public static final DifficultyTarget MAX = LEADING_ZEROS[0];
+
+	private final byte[] threshold;
+	private final BigInteger value;
+	private final long leadingBits;
+
+	private DifficultyTarget(BigInteger value) {
+		this.value = value;
+		this.threshold = new byte[SIZE];
+		byte[] bytes = value.toByteArray();
+		int length = Math.min(bytes.length, SIZE);
+		System.arraycopy(bytes, bytes.length - length, threshold, SIZE - length, length);
+		this.leadingBits = (long) LONG_BIG_ENDIAN.get(threshold, 0);
+	}
+
+	/**
+	 * Target met by exactly the hashes starting with {@code nibbles} hex zeros, the meaning of the classic difficulty level.
+	 */
+	public static DifficultyTarget ofLeadingZeros(int nibbles) {
+		if (nibbles < 0 || nibbles >= LEADING_ZEROS.length) {
+			throw new IllegalArgumentException("Difficulty must be between 0 and " + (LEADING_ZEROS.length - 1) + ": " + nibbles);
+		}
+		return LEADING_ZEROS[nibbles];
+	}
+
+	/**
+	 * Target of the given value, capped to {@link #MAX}. Zero is raised to one, the lowest target a hash can still meet
+	 * (besides the all zero hash).
+	 */
+	public static DifficultyTarget of(BigInteger value) {
+		if (value.signum() <= 0) {
+			return new DifficultyTarget(BigInteger.ONE);
+		}
+		return value.compareTo(MAX_VALUE) >= 0 ? MAX : new DifficultyTarget(value);
+	}
+
+	/**
+	 * Decodes {@link #toCompact()}: the highest byte is the length of the value in bytes, the lower three bytes its most significant bytes.
+	 */
+	public static DifficultyTarget fromCompact(int compact) {
+		int exponent = compact >>> 24;
+		BigInteger mantissa = BigInteger.valueOf(compact & 0x007fffff);
+		return of(exponent <= 3 ? mantissa.shiftRight(8 * (3 - exponent)) : mantissa.shiftLeft(8 * (exponent - 3)));
+	}
+
+	/**
+	 * 32-bit encoding of the target, which keeps its 23 most significant bits. A target that does not survive
+	 * the round trip through {@link #fromCompact(int)} is rounded down, see {@link #normalized()}.
+	 */
+	public int toCompact() {
+		int exponent = (value.bitLength() + 7) / 8;
+		int mantissa = exponent <= 3
+				? value.shiftLeft(8 * (3 - exponent)).intValue()
+				: value.shiftRight(8 * (exponent - 3)).intValue();
+		if ((mantissa & 0x00800000) != 0) {
+			//The top bit of the mantissa is a sign bit in the original encoding, move the value one byte down
+			mantissa >>>= 8;
+			exponent++;
+		}
+		return exponent << 24 | mantissa;
+	}
+
+	/**
+	 * The target as stored in a block header, rounded down to what its compact form can hold.
+	 */
+	public DifficultyTarget normalized() {
+		return fromCompact(toCompact());
+	}
+
+	/**
+	 * Target multiplied by {@code numerator / denominator}, e.g. by the actual over the expected block time.
+	 */
+	public DifficultyTarget scaledBy(long numerator, long denominator) {
+		if (numerator <= 0 || denominator <= 0) {
+			throw new IllegalArgumentException("Scale must be positive: " + numerator + "/" + denominator);
+		}
+		return of(value.multiply(BigInteger.valueOf(numerator)).divide(BigInteger.valueOf(denominator)));
+	}
+
+	/**
+	 * @return true if the raw 32 byte hash is not greater than the target
+	 */
+	public boolean meets(byte[] rawHash) {
+		int leading = Long.compareUnsigned((long) LONG_BIG_ENDIAN.get(rawHash, 0), leadingBits);
+		if (leading != 0) {
+			return leading < 0;
+		}
+		for (int i = Long.BYTES; i < SIZE; i++) {
+			int hashByte = rawHash[i] & 0xff;
+			int targetByte = threshold[i] & 0xff;
+			if (hashByte != targetByte) {
+				return hashByte < targetByte;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks only the first word of a hash, for kernels that have it before the rest of the hash is finished.
+	 * @return false if a hash starting with {@code firstWord} can not meet the target, true if it needs the full {@link #meets(byte[])}
+	 */
+	public boolean mayMeet(int firstWord) {
+		return Integer.compareUnsigned(firstWord, firstWord()) <= 0;
+	}
+
+	/**
+	 * The first 32 bits of the target.
+	 */
+	int firstWord() {
+		return (int) (leadingBits >>> 32);
+	}
+
+	public BigInteger toBigInteger() {
+		return value;
+	}
+
+	/**
+	 * Expected number of hashes to find a block, 2^256 / (target + 1).
+	 */
+	public double expectedHashes() {
+		return Math.pow(2, 8 * SIZE) / value.add(BigInteger.ONE).doubleValue();
+	}
+
+	@Override
+	public int compareTo(DifficultyTarget other) {
+		return value.compareTo(other.value);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof DifficultyTarget && Arrays.equals(threshold, ((DifficultyTarget) other).threshold);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(threshold);
+	}
+
+	@Override
+	public String toString() {
+		return BlockChainUtils.toHex(threshold);
+	}
+}
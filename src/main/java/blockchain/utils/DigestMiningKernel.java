@@ -0,0 +1,90 @@
+package blockchain.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+
+import blockchain.model.Block;
+import blockchain.model.MiningEpoch;
+
+/**
+ * Nonce search over the same data as {@link BlockChainUtils#calculateHash(String)} without building
+ * a String per nonce. The constant parts of the block are serialized once in {@link #prepare(Block)},
+ * only the nonce digits are rewritten in place and the difficulty is checked on the raw digest bytes.
+ */
+public class DigestMiningKernel implements MiningKernel {
+	private final MessageDigest digest = BlockChainUtils.newSha256Digest();
+	private final byte[] rawHash = new byte[32];
+	private final NonceDigits nonceDigits = new NonceDigits();
+
+	private byte[] prefix;
+	private byte[] suffix;
+
+	private long foundNonce;
+	private boolean cancelled;
+	private long hashCount;
+
+	@Override
+	public void prepare(Block block) {
+		this.prefix = BlockChainUtils.hashingPrefix(block).getBytes(StandardCharsets.UTF_8);
+		this.suffix = BlockChainUtils.hashingSuffix(block).getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public boolean search(DifficultyTarget target, long firstNonce, long lastNonce, MiningEpoch epoch, long expectedEpoch) {
+		this.cancelled = false;
+		this.hashCount = 0;
+		if (firstNonce > lastNonce) {
+			return false;
+		}
+
+		nonceDigits.set(firstNonce);
+		while (true) {
+			if (epoch != null && epoch.get() != expectedEpoch) {
+				this.cancelled = true;
+				return false;
+			}
+			hashCurrentNonce();
+			hashCount++;
+			if (target.meets(rawHash)) {
+				this.foundNonce = nonceDigits.value();
+				return true;
+			}
+			if (nonceDigits.value() == lastNonce) {
+				return false;
+			}
+			nonceDigits.increment();
+		}
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	@Override
+	public long getHashCount() {
+		return hashCount;
+	}
+
+	@Override
+	public long getFoundNonce() {
+		return foundNonce;
+	}
+
+	@Override
+	public String getFoundHash() {
+		return BlockChainUtils.toHex(rawHash);
+	}
+
+	private void hashCurrentNonce() {
+		digest.update(prefix);
+		digest.update(nonceDigits.array(), nonceDigits.offset(), nonceDigits.length());
+		digest.update(suffix);
+		try {
+			digest.digest(rawHash, 0, rawHash.length);
+		} catch (DigestException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
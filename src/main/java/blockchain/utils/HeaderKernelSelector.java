@@ -0,0 +1,103 @@
+package blockchain.utils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import blockchain.model.Block;
+import blockchain.model.Transaction;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Picks the faster of {@link HeaderKernelType#DIGEST} and the widest lane kernel the CPU supports with a short
+ * micro-benchmark, see {@link HeaderKernelType#fastest()}: both search nonces that never meet the target, long enough for the JIT to compile
+ * them fully, then measured. Narrower lane kernels are not measured, they are slower on the same registers and
+ * running several vector shapes in one JVM pollutes the type profiles of the Vector API, which keeps the kernel that
+ * is finally used from being compiled to SIMD instructions. The system property {@code blockchain.headerKernel}
+ * selects a kernel directly and skips the measurement.
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE) //To provide a non-instantiable class
+class HeaderKernelSelector {
+	static final String PROPERTY = "blockchain.headerKernel";
+
+	private static final long WARMUP_NANOS = 1_500_000_000;
+	private static final long MEASUREMENT_NANOS = 200_000_000;
+	private static final long NONCES_PER_SEARCH = 4096;
+	private static final DifficultyTarget NEVER_MET = DifficultyTarget.ofLeadingZeros(64);
+
+	/**
+	 * @return null if there is no kernel of that name
+	 */
+	private static HeaderKernelType parse(String configured) {
+		try {
+			return HeaderKernelType.valueOf(configured.trim());
+		} catch (IllegalArgumentException e) {
+			log.warn("Unknown header kernel {} in -D{}, one of {} is expected, measuring the supported ones", configured, PROPERTY, Arrays.toString(HeaderKernelType.values()));
+			return null;
+		}
+	}
+
+	static HeaderKernelType select() {
+		String configured = System.getProperty(PROPERTY);
+		if (configured != null) {
+			HeaderKernelType type = parse(configured);
+			if (type != null && type.isSupported()) {
+				return type;
+			}
+			if (type != null) {
+				log.warn("Header kernel {} is not supported in this JVM, measuring the supported ones", type);
+			}
+		}
+
+		HeaderKernelType widest = null;
+		for (HeaderKernelType type : HeaderKernelType.values()) {
+			if (type != HeaderKernelType.DIGEST && type.isSupported()) {
+				widest = type;
+			}
+		}
+		if (widest == null) {
+			log.info("Vector API not available, using header kernel {}", HeaderKernelType.DIGEST);
+			return HeaderKernelType.DIGEST;
+		}
+
+		Transaction transaction = new Transaction(new UUID(0, 0), 0, 0, 0);
+		Block block = Block.withBinaryHeader(List.of(transaction), "0", 64);
+		HeaderKernelType fastest = HeaderKernelType.DIGEST;
+		double fastestRate = 0;
+		for (HeaderKernelType type : List.of(HeaderKernelType.DIGEST, widest)) {
+			MiningKernel kernel = type.newKernel();
+			kernel.prepare(block);
+			double rate = measureHashRate(kernel);
+			log.atDebug().addKeyValue("kernel", type).addKeyValue("hashRate", (long) rate).log("Measured header kernel");
+			if (rate > fastestRate) {
+				fastest = type;
+				fastestRate = rate;
+			}
+		}
+		log.atInfo().addKeyValue("kernel", fastest).addKeyValue("hashRate", (long) fastestRate).log("Selected header kernel");
+		return fastest;
+	}
+
+	private static double measureHashRate(MiningKernel kernel) {
+		long nonce = 0;
+		long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+		while (System.nanoTime() < warmupEnd) {
+			kernel.search(NEVER_MET, nonce, nonce + NONCES_PER_SEARCH - 1);
+			nonce += NONCES_PER_SEARCH;
+		}
+
+		long hashes = 0;
+		long start = System.nanoTime();
+		long elapsed;
+		do {
+			kernel.search(NEVER_MET, nonce, nonce + NONCES_PER_SEARCH - 1);
+			nonce += NONCES_PER_SEARCH;
+			hashes += kernel.getHashCount();
+			elapsed = System.nanoTime() - start;
+		} while (elapsed < MEASUREMENT_NANOS);
+		return hashes * 1e9 / elapsed;
+	}
+}
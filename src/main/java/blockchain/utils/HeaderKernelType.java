@@ -0,0 +1,57 @@
+package blockchain.utils;
+
+import java.util.function.Supplier;
+
+/**
+ * Nonce search kernels for binary header blocks. The multi-lane kernels need the Vector API incubator module
+ * ({@code java --add-modules jdk.incubator.vector}), without it only {@link #DIGEST} is supported.
+ */
+public enum HeaderKernelType {
+	/** JDK MessageDigest per nonce, benefits from the SHA intrinsics (e.g. SHA-NI) of the JVM. */
+	DIGEST(HeaderMiningKernel::new, 1),
+	/** Own SHA-256 over 4 nonces at once in 128-bit vectors. */
+	LANES_4(() -> VectorHeaderMiningKernel.withLanes(4), 4),
+	/** Own SHA-256 over 8 nonces at once in 256-bit vectors (e.g. AVX2). */
+	LANES_8(() -> VectorHeaderMiningKernel.withLanes(8), 8),
+	/** Own SHA-256 over 16 nonces at once in 512-bit vectors (e.g. AVX-512). */
+	LANES_16(() -> VectorHeaderMiningKernel.withLanes(16), 16);
+
+	private static final boolean VECTOR_API_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+	private static HeaderKernelType fastest;
+
+	private final Supplier<MiningKernel> factory;
+	private final int lanes;
+
+	HeaderKernelType(Supplier<MiningKernel> factory, int lanes) {
+		this.factory = factory;
+		this.lanes = lanes;
+	}
+
+	public MiningKernel newKernel() {
+		return factory.get();
+	}
+
+	public int getLanes() {
+		return lanes;
+	}
+
+	/**
+	 * @return true if the kernel can run in this JVM, with vector registers wide enough for its lanes
+	 */
+	public boolean isSupported() {
+		return lanes == 1 || (VECTOR_API_AVAILABLE && VectorHeaderMiningKernel.isSupported(lanes));
+	}
+
+	/**
+	 * Kernel with the highest hash rate on this machine (see {@link HeaderKernelSelector}). The first call measures the
+	 * kernels for about two seconds, so call it at startup rather than on an actor thread and hand the result to the
+	 * workers, see {@link blockchain.model.BlockChainMiningWorkOrder#getHeaderKernel()}.
+	 */
+	public static synchronized HeaderKernelType fastest() {
+		if (fastest == null) {
+			fastest = HeaderKernelSelector.select();
+		}
+		return fastest;
+	}
+}
@@ -0,0 +1,80 @@
+package blockchain.utils;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+
+import blockchain.model.Block;
+import blockchain.model.MiningEpoch;
+
+/**
+ * Nonce search over the binary header of {@link blockchain.model.BlockHeaderFormat#isBinary() binary header} blocks.
+ * The header is encoded once, per nonce only its last 8 bytes are rewritten.
+ */
+public class HeaderMiningKernel implements MiningKernel {
+	private final MessageDigest digest = BlockChainUtils.newSha256Digest();
+	private final byte[] rawHash = new byte[32];
+
+	private byte[] header;
+
+	private long foundNonce;
+	private boolean cancelled;
+	private long hashCount;
+
+	@Override
+	public void prepare(Block block) {
+		this.header = BlockHeader.encode(block);
+	}
+
+	@Override
+	public boolean search(DifficultyTarget target, long firstNonce, long lastNonce, MiningEpoch epoch, long expectedEpoch) {
+		this.cancelled = false;
+		this.hashCount = 0;
+		if (firstNonce > lastNonce) {
+			return false;
+		}
+
+		long nonce = firstNonce;
+		while (true) {
+			if (epoch != null && epoch.get() != expectedEpoch) {
+				this.cancelled = true;
+				return false;
+			}
+			BlockHeader.writeNonce(header, nonce);
+			digest.update(header, 0, BlockHeader.SIZE);
+			try {
+				digest.digest(rawHash, 0, rawHash.length);
+			} catch (DigestException e) {
+				throw new IllegalStateException(e);
+			}
+			hashCount++;
+			if (target.meets(rawHash)) {
+				this.foundNonce = nonce;
+				return true;
+			}
+			if (nonce == lastNonce) {
+				return false;
+			}
+			nonce++;
+		}
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	@Override
+	public long getHashCount() {
+		return hashCount;
+	}
+
+	@Override
+	public long getFoundNonce() {
+		return foundNonce;
+	}
+
+	@Override
+	public String getFoundHash() {
+		return BlockChainUtils.toHex(rawHash);
+	}
+}
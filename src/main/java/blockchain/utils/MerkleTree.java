@@ -0,0 +1,58 @@
+package blockchain.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+import blockchain.model.Transaction;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE) //To provide a non-instantiable class
+public class MerkleTree {
+
+	/**
+	 * SHA-256 Merkle root of the transactions. Leaves are the hashes of the transactions, on every level an odd
+	 * node out is paired with itself. So repeating the last transactions keeps the root, blocks with a transaction
+	 * more than once are invalid, see {@link BlockChainUtils#validateBlock(blockchain.model.Block)}.
+	 */
+	public static String computeRoot(List<Transaction> transactions) {
+		MessageDigest digest = BlockChainUtils.newSha256Digest();
+		byte[][] leaves = new byte[transactions.size()][];
+		for (int i = 0; i < leaves.length; i++) {
+			leaves[i] = digest.digest(transactions.get(i).toString().getBytes(StandardCharsets.UTF_8));
+		}
+		return BlockChainUtils.toHex(root(leaves, digest));
+	}
+
+	/**
+	 * Same tree as {@link #computeRoot(List)}, but the leaves hash the binary encoding of the transactions
+	 * ({@link BlockHeader#transactionBytes(Transaction)}) instead of their toString().
+	 */
+	public static String computeBinaryRoot(List<Transaction> transactions) {
+		MessageDigest digest = BlockChainUtils.newSha256Digest();
+		byte[][] leaves = new byte[transactions.size()][];
+		for (int i = 0; i < leaves.length; i++) {
+			leaves[i] = digest.digest(BlockHeader.transactionBytes(transactions.get(i)));
+		}
+		return BlockChainUtils.toHex(root(leaves, digest));
+	}
+
+	private static byte[] root(byte[][] level, MessageDigest digest) {
+		if (level.length == 0) {
+			throw new IllegalArgumentException("Merkle root of an empty transaction list");
+		}
+
+		int size = level.length;
+		while (size > 1) {
+			int next = 0;
+			for (int i = 0; i < size; i += 2) {
+				digest.update(level[i]);
+				digest.update(i + 1 < size ? level[i + 1] : level[i]);
+				level[next++] = digest.digest();
+			}
+			size = next;
+		}
+		return level[0];
+	}
+}
@@ -0,0 +1,120 @@
+package blockchain.utils;
+
+import java.nio.charset.StandardCharsets;
+
+import blockchain.model.Block;
+import blockchain.model.MiningEpoch;
+
+/**
+ * Nonce search on top of {@link Sha256} that compresses the full 64-byte blocks of the constant prefix
+ * (previous hash and timestamp) once in {@link #prepare(Block)} and keeps that midstate. Per nonce only the
+ * tail (rest of the prefix, nonce digits, transaction or Merkle root and padding) is compressed, and the hash is
+ * only finished past its first word when that word can still meet the target.
+ */
+public class MidstateMiningKernel implements MiningKernel {
+	private final Sha256 sha256 = new Sha256();
+	private final NonceDigits nonceDigits = new NonceDigits();
+	private final int[] state = new int[8];
+	private final byte[] rawHash = new byte[32];
+
+	private int[] midstate;
+	private int compressedLength;
+	private int prefixRemainder;
+	private byte[] suffix;
+	private byte[] tail;
+	private int tailLength;
+
+	private long foundNonce;
+	private boolean cancelled;
+	private long hashCount;
+
+	@Override
+	public void prepare(Block block) {
+		byte[] prefix = BlockChainUtils.hashingPrefix(block).getBytes(StandardCharsets.UTF_8);
+		this.compressedLength = prefix.length - prefix.length % Sha256.BLOCK_SIZE;
+		this.midstate = Sha256.initialState();
+		for (int offset = 0; offset < compressedLength; offset += Sha256.BLOCK_SIZE) {
+			sha256.compress(midstate, prefix, offset);
+		}
+
+		this.prefixRemainder = prefix.length - compressedLength;
+		this.suffix = BlockChainUtils.hashingSuffix(block).getBytes(StandardCharsets.UTF_8);
+		this.tail = new byte[Sha256.paddedLength(prefixRemainder + NonceDigits.maxLength() + suffix.length)];
+		System.arraycopy(prefix, compressedLength, tail, 0, prefixRemainder);
+	}
+
+	@Override
+	public boolean search(DifficultyTarget target, long firstNonce, long lastNonce, MiningEpoch epoch, long expectedEpoch) {
+		this.cancelled = false;
+		this.hashCount = 0;
+		if (firstNonce > lastNonce) {
+			return false;
+		}
+
+		nonceDigits.set(firstNonce);
+		layoutTail();
+		while (true) {
+			if (epoch != null && epoch.get() != expectedEpoch) {
+				this.cancelled = true;
+				return false;
+			}
+			nonceDigits.copyTo(tail, prefixRemainder);
+			hashCount++;
+			if (target.mayMeet(hashTail()) && target.meets(finishHash())) {
+				this.foundNonce = nonceDigits.value();
+				return true;
+			}
+			if (nonceDigits.value() == lastNonce) {
+				return false;
+			}
+			if (nonceDigits.increment()) {
+				layoutTail();
+			}
+		}
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	@Override
+	public long getHashCount() {
+		return hashCount;
+	}
+
+	@Override
+	public long getFoundNonce() {
+		return foundNonce;
+	}
+
+	@Override
+	public String getFoundHash() {
+		return BlockChainUtils.toHex(rawHash);
+	}
+
+	/**
+	 * @return the first word of the hash, the rest is only computed by {@link #finishHash()}
+	 */
+	private int hashTail() {
+		System.arraycopy(midstate, 0, state, 0, state.length);
+		int lastBlock = tailLength - Sha256.BLOCK_SIZE;
+		for (int offset = 0; offset < lastBlock; offset += Sha256.BLOCK_SIZE) {
+			sha256.compress(state, tail, offset);
+		}
+		return sha256.compressFirstWord(state, tail, lastBlock);
+	}
+
+	private byte[] finishHash() {
+		sha256.finish(state);
+		Sha256.toBytes(state, rawHash);
+		return rawHash;
+	}
+
+	private void layoutTail() {
+		int messageEnd = prefixRemainder + nonceDigits.length();
+		System.arraycopy(suffix, 0, tail, messageEnd, suffix.length);
+		messageEnd += suffix.length;
+		this.tailLength = Sha256.pad(tail, messageEnd, compressedLength + messageEnd);
+	}
+}
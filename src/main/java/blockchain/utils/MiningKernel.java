@@ -0,0 +1,46 @@
+package blockchain.utils;
+
+import blockchain.model.Block;
+import blockchain.model.MiningEpoch;
+
+/**
+ * Searches a nonce range of a single block. Kernels keep per block state, so they are not thread safe
+ * and every worker (or thread) should own its own instance.
+ */
+public interface MiningKernel {
+	void prepare(Block block);
+
+	/**
+	 * Hashes every nonce from {@code firstNonce} to {@code lastNonce} (both inclusive) until one meets the difficulty.
+	 * @return true if a matching nonce was found, it is then available through {@link #getFoundNonce()} and {@link #getFoundHash()}
+	 */
+	default boolean search(int difficultyLevel, long firstNonce, long lastNonce) {
+		return search(DifficultyTarget.ofLeadingZeros(difficultyLevel), firstNonce, lastNonce, null, 0);
+	}
+
+	/**
+	 * Same as {@link #search(int, long, long)} for a hash of at most {@code target}.
+	 */
+	default boolean search(DifficultyTarget target, long firstNonce, long lastNonce) {
+		return search(target, firstNonce, lastNonce, null, 0);
+	}
+
+	/**
+	 * Same as {@link #search(DifficultyTarget, long, long)}, but gives up as soon as {@code epoch} no longer equals {@code expectedEpoch}.
+	 */
+	boolean search(DifficultyTarget target, long firstNonce, long lastNonce, MiningEpoch epoch, long expectedEpoch);
+
+	/**
+	 * @return true if the last search stopped because the epoch changed
+	 */
+	boolean isCancelled();
+
+	/**
+	 * @return number of nonces hashed by the last search
+	 */
+	long getHashCount();
+
+	long getFoundNonce();
+
+	String getFoundHash();
+}
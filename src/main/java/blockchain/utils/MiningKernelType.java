@@ -0,0 +1,20 @@
+package blockchain.utils;
+
+import java.util.function.Supplier;
+
+public enum MiningKernelType {
+	/** JDK MessageDigest, benefits from the SHA intrinsics (e.g. SHA-NI) of the JVM. */
+	DIGEST(DigestMiningKernel::new),
+	/** Own SHA-256 with a cached midstate of the constant block prefix. */
+	MIDSTATE(MidstateMiningKernel::new);
+
+	private final Supplier<MiningKernel> factory;
+
+	MiningKernelType(Supplier<MiningKernel> factory) {
+		this.factory = factory;
+	}
+
+	public MiningKernel newKernel() {
+		return factory.get();
+	}
+}
@@ -0,0 +1,72 @@
+package blockchain.utils;
+
+/**
+ * Decimal ASCII representation of a nonce (as produced by {@link Long#toString(long)}) that can be incremented in place.
+ */
+class NonceDigits {
+	private static final int MAX_DIGITS = 20;
+
+	private final byte[] digits = new byte[MAX_DIGITS];
+	private int start = MAX_DIGITS;
+	private long value;
+
+	void set(long nonce) {
+		int position = MAX_DIGITS;
+		long remaining = nonce;
+		do {
+			digits[--position] = (byte) ('0' + Math.abs(remaining % 10));
+			remaining /= 10;
+		} while (remaining != 0);
+		if (nonce < 0) {
+			digits[--position] = '-';
+		}
+		this.start = position;
+		this.value = nonce;
+	}
+
+	/**
+	 * @return true if the number of digits changed
+	 */
+	boolean increment() {
+		if (++value <= 0) {
+			int previousLength = length();
+			set(value);
+			return previousLength != length();
+		}
+
+		int position = MAX_DIGITS - 1;
+		while (position >= start && digits[position] == '9') {
+			digits[position--] = '0';
+		}
+		if (position < start) {
+			digits[--start] = '1';
+			return true;
+		}
+		digits[position]++;
+		return false;
+	}
+
+	long value() {
+		return value;
+	}
+
+	int length() {
+		return MAX_DIGITS - start;
+	}
+
+	byte[] array() {
+		return digits;
+	}
+
+	int offset() {
+		return start;
+	}
+
+	void copyTo(byte[] target, int targetOffset) {
+		System.arraycopy(digits, start, target, targetOffset, MAX_DIGITS - start);
+	}
+
+	static int maxLength() {
+		return MAX_DIGITS;
+	}
+}
@@ -0,0 +1,145 @@
+package blockchain.utils;
+
+/**
+ * Plain SHA-256 compression function that works on an explicit state, so the state after the constant
+ * part of a message (the midstate) can be kept and reused for many messages sharing that prefix.
+ */
+public class Sha256 {
+	public static final int BLOCK_SIZE = 64;
+
+	private static final int[] INITIAL_STATE = {
+			0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a, 0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19
+	};
+
+	static final int[] K = {
+			0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,
+			0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,
+			0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
+			0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147, 0x06ca6351, 0x14292967,
+			0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13, 0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85,
+			0xa2bfe8a1, 0xa81a664b, 0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,
+			0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a, 0x5b9cca4f, 0x682e6ff3,
+			0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2
+	};
+
+	private final int[] w = new int[64];
+	/** Working variables after the rounds of the last block, added to the state in the end. */
+	private final int[] working = new int[8];
+
+	public static int[] initialState() {
+		return INITIAL_STATE.clone();
+	}
+
+	/**
+	 * Number of bytes a message of the given length takes up once padded (the 0x80 marker and the 64-bit length included).
+	 */
+	public static int paddedLength(int messageLength) {
+		return (messageLength + 9 + BLOCK_SIZE - 1) / BLOCK_SIZE * BLOCK_SIZE;
+	}
+
+	/**
+	 * Writes the SHA-256 padding right after the last message byte at {@code offset}. The buffer has to be aligned
+	 * with the message blocks, i.e. {@code offset % 64 == totalMessageLength % 64}.
+	 * @return the offset after the padding
+	 */
+	public static int pad(byte[] buffer, int offset, long totalMessageLength) {
+		int remainder = (int) (totalMessageLength % BLOCK_SIZE);
+		int end = offset - remainder + paddedLength(remainder);
+		buffer[offset] = (byte) 0x80;
+		for (int i = offset + 1; i < end - 8; i++) {
+			buffer[i] = 0;
+		}
+		long bitLength = totalMessageLength * 8;
+		for (int i = 0; i < 8; i++) {
+			buffer[end - 1 - i] = (byte) (bitLength >>> (8 * i));
+		}
+		return end;
+	}
+
+	public void compress(int[] state, byte[] block, int offset) {
+		rounds(state, block, offset);
+		for (int i = 0; i < 8; i++) {
+			state[i] += working[i];
+		}
+	}
+
+	/**
+	 * Same as {@link #compress(int[], byte[], int)} for the last block of a message, but only finishes the first word
+	 * of the hash. The others are added by {@link #finish(int[])}, which can be skipped for hashes that already fail
+	 * on their first word (see {@link DifficultyTarget#mayMeet(int)}).
+	 * @return the first word of the hash
+	 */
+	public int compressFirstWord(int[] state, byte[] block, int offset) {
+		rounds(state, block, offset);
+		state[0] += working[0];
+		return state[0];
+	}
+
+	/**
+	 * Finishes the words after the first of the last {@link #compressFirstWord(int[], byte[], int)}.
+	 */
+	public void finish(int[] state) {
+		for (int i = 1; i < 8; i++) {
+			state[i] += working[i];
+		}
+	}
+
+	private void rounds(int[] state, byte[] block, int offset) {
+		int[] w = this.w;
+		for (int i = 0; i < 16; i++) {
+			int j = offset + 4 * i;
+			w[i] = (block[j] << 24) | ((block[j + 1] & 0xff) << 16) | ((block[j + 2] & 0xff) << 8) | (block[j + 3] & 0xff);
+		}
+		for (int i = 16; i < 64; i++) {
+			int w15 = w[i - 15];
+			int w2 = w[i - 2];
+			int s0 = Integer.rotateRight(w15, 7) ^ Integer.rotateRight(w15, 18) ^ (w15 >>> 3);
+			int s1 = Integer.rotateRight(w2, 17) ^ Integer.rotateRight(w2, 19) ^ (w2 >>> 10);
+			w[i] = w[i - 16] + s0 + w[i - 7] + s1;
+		}
+
+		int a = state[0];
+		int b = state[1];
+		int c = state[2];
+		int d = state[3];
+		int e = state[4];
+		int f = state[5];
+		int g = state[6];
+		int h = state[7];
+
+		for (int i = 0; i < 64; i++) {
+			int s1 = Integer.rotateRight(e, 6) ^ Integer.rotateRight(e, 11) ^ Integer.rotateRight(e, 25);
+			int ch = (e & f) ^ (~e & g);
+			int t1 = h + s1 + ch + K[i] + w[i];
+			int s0 = Integer.rotateRight(a, 2) ^ Integer.rotateRight(a, 13) ^ Integer.rotateRight(a, 22);
+			int maj = (a & b) ^ (a & c) ^ (b & c);
+			int t2 = s0 + maj;
+			h = g;
+			g = f;
+			f = e;
+			e = d + t1;
+			d = c;
+			c = b;
+			b = a;
+			a = t1 + t2;
+		}
+
+		working[0] = a;
+		working[1] = b;
+		working[2] = c;
+		working[3] = d;
+		working[4] = e;
+		working[5] = f;
+		working[6] = g;
+		working[7] = h;
+	}
+
+	public static void toBytes(int[] state, byte[] target) {
+		for (int i = 0; i < 8; i++) {
+			target[4 * i] = (byte) (state[i] >>> 24);
+			target[4 * i + 1] = (byte) (state[i] >>> 16);
+			target[4 * i + 2] = (byte) (state[i] >>> 8);
+			target[4 * i + 3] = (byte) state[i];
+		}
+	}
+}
@@ -0,0 +1,377 @@
+package blockchain.utils;
+
+import blockchain.model.Block;
+import blockchain.model.MiningEpoch;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Nonce search over binary headers that hashes 4, 8 or 16 consecutive nonces at once, one per lane of an
+ * {@link IntVector}. Needs the incubator module ({@code --add-modules jdk.incubator.vector}), see {@link HeaderKernelType}.
+ * <p>
+ * The first 64 bytes of the header do not depend on the nonce, so their midstate is computed once per block.
+ * In the second block the nonce is word 4 and 5, which leaves the first four rounds and the schedule words
+ * 16 to 18 the same for every nonce, they are computed once as well. Hashes are checked against the first
+ * word of the target in all lanes at once, only lanes that pass are compared in full.
+ * <p>
+ * All vector code is repeated in the subclass of every lane width: the JIT only turns Vector API calls into SIMD
+ * instructions where the vector shape is known, code shared between the widths falls back to plain (and boxed) Java
+ * as soon as a second width has run in the JVM, e.g. during the selection in {@link HeaderKernelSelector}.
+ */
+public abstract class VectorHeaderMiningKernel implements MiningKernel {
+	private static final int SCHEDULE_SIZE = 64;
+	private static final int SHARED_ROUNDS = 4;
+	private static final int SHARED_SCHEDULE = 19;
+	private static final int NONCE_HIGH_WORD = 4;
+	private static final int NONCE_LOW_WORD = 5;
+
+	final int lanes;
+	/** Message schedule of all lanes, word {@code i} of lane {@code l} at {@code i * lanes + l}. */
+	final int[] schedule;
+	/** Hashes of all lanes after {@link #hashLanes()}, laid out like {@link #schedule}. */
+	final int[] hashWords;
+	/** State after the rounds all lanes share. */
+	final int[] sharedState = new int[8];
+	int[] midstate;
+
+	private final Sha256 sha256 = new Sha256();
+	private final byte[] rawHash = new byte[32];
+
+	private long foundNonce;
+	private boolean cancelled;
+	private long hashCount;
+
+	VectorHeaderMiningKernel(int lanes) {
+		this.lanes = lanes;
+		this.schedule = new int[SCHEDULE_SIZE * lanes];
+		this.hashWords = new int[8 * lanes];
+	}
+
+	public static VectorHeaderMiningKernel withLanes(int lanes) {
+		return switch (lanes) {
+			case 4 -> new Lanes4();
+			case 8 -> new Lanes8();
+			case 16 -> new Lanes16();
+			default -> throw new IllegalArgumentException("Lanes must be 4, 8 or 16: " + lanes);
+		};
+	}
+
+	/**
+	 * @return true if the CPU has registers of at least {@code lanes} ints, narrower ones only emulate the wider vectors
+	 */
+	static boolean isSupported(int lanes) {
+		return lanes <= IntVector.SPECIES_PREFERRED.length();
+	}
+
+	@Override
+	public void prepare(Block block) {
+		byte[] header = BlockHeader.encode(block);
+		this.midstate = Sha256.initialState();
+		sha256.compress(midstate, header, 0);
+
+		byte[] tail = new byte[Sha256.BLOCK_SIZE];
+		System.arraycopy(header, Sha256.BLOCK_SIZE, tail, 0, BlockHeader.SIZE - Sha256.BLOCK_SIZE);
+		Sha256.pad(tail, BlockHeader.SIZE - Sha256.BLOCK_SIZE, BlockHeader.SIZE);
+		int[] w = new int[SHARED_SCHEDULE];
+		for (int i = 0; i < 16; i++) {
+			int j = 4 * i;
+			w[i] = (tail[j] << 24) | ((tail[j + 1] & 0xff) << 16) | ((tail[j + 2] & 0xff) << 8) | (tail[j + 3] & 0xff);
+		}
+		for (int i = 16; i < SHARED_SCHEDULE; i++) {
+			w[i] = w[i - 16] + smallSigma0(w[i - 15]) + w[i - 7] + smallSigma1(w[i - 2]);
+		}
+		for (int i = 0; i < SHARED_SCHEDULE; i++) {
+			for (int lane = 0; lane < lanes; lane++) {
+				schedule[i * lanes + lane] = w[i];
+			}
+		}
+
+		int a = midstate[0], b = midstate[1], c = midstate[2], d = midstate[3];
+		int e = midstate[4], f = midstate[5], g = midstate[6], h = midstate[7];
+		for (int i = 0; i < SHARED_ROUNDS; i++) {
+			int t1 = h + (Integer.rotateRight(e, 6) ^ Integer.rotateRight(e, 11) ^ Integer.rotateRight(e, 25)) + ((e & f) ^ (~e & g)) + Sha256.K[i] + w[i];
+			int t2 = (Integer.rotateRight(a, 2) ^ Integer.rotateRight(a, 13) ^ Integer.rotateRight(a, 22)) + ((a & b) ^ (a & c) ^ (b & c));
+			h = g;
+			g = f;
+			f = e;
+			e = d + t1;
+			d = c;
+			c = b;
+			b = a;
+			a = t1 + t2;
+		}
+		sharedState[0] = a;
+		sharedState[1] = b;
+		sharedState[2] = c;
+		sharedState[3] = d;
+		sharedState[4] = e;
+		sharedState[5] = f;
+		sharedState[6] = g;
+		sharedState[7] = h;
+	}
+
+	@Override
+	public boolean search(DifficultyTarget target, long firstNonce, long lastNonce, MiningEpoch epoch, long expectedEpoch) {
+		this.cancelled = false;
+		this.hashCount = 0;
+		if (firstNonce > lastNonce) {
+			return false;
+		}
+		//Unsigned comparison through signed ints with the sign bit flipped
+		int firstTargetWord = target.firstWord() ^ Integer.MIN_VALUE;
+
+		long nonce = firstNonce;
+		while (true) {
+			if (epoch != null && epoch.get() != expectedEpoch) {
+				this.cancelled = true;
+				return false;
+			}
+			int activeLanes = (int) Math.min(lanes, lastNonce - nonce + 1);
+			for (int lane = 0; lane < lanes; lane++) {
+				long laneNonce = nonce + lane;
+				schedule[NONCE_HIGH_WORD * lanes + lane] = (int) (laneNonce >>> 32);
+				schedule[NONCE_LOW_WORD * lanes + lane] = (int) laneNonce;
+			}
+
+			long candidates = hashLanes(firstTargetWord);
+			while (candidates != 0) {
+				int lane = Long.numberOfTrailingZeros(candidates);
+				if (lane >= activeLanes) {
+					break;
+				}
+				if (target.meets(laneHash(lane))) {
+					this.foundNonce = nonce + lane;
+					this.hashCount += lane + 1;
+					return true;
+				}
+				candidates &= candidates - 1;
+			}
+			hashCount += activeLanes;
+			if (activeLanes < lanes || nonce + lanes - 1 == lastNonce) {
+				return false;
+			}
+			nonce += lanes;
+		}
+	}
+
+	/**
+	 * Compresses the second block for every lane, stores the resulting hashes in {@link #hashWords}.
+	 * @param firstTargetWord first word of the target with the sign bit flipped
+	 * @return bit mask of the lanes whose first hash word is not greater than the target's
+	 */
+	abstract long hashLanes(int firstTargetWord);
+
+	private byte[] laneHash(int lane) {
+		for (int i = 0; i < 8; i++) {
+			int word = hashWords[i * lanes + lane];
+			rawHash[4 * i] = (byte) (word >>> 24);
+			rawHash[4 * i + 1] = (byte) (word >>> 16);
+			rawHash[4 * i + 2] = (byte) (word >>> 8);
+			rawHash[4 * i + 3] = (byte) word;
+		}
+		return rawHash;
+	}
+
+	private static int smallSigma0(int x) {
+		return Integer.rotateRight(x, 7) ^ Integer.rotateRight(x, 18) ^ (x >>> 3);
+	}
+
+	private static int smallSigma1(int x) {
+		return Integer.rotateRight(x, 17) ^ Integer.rotateRight(x, 19) ^ (x >>> 10);
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	@Override
+	public long getHashCount() {
+		return hashCount;
+	}
+
+	@Override
+	public long getFoundNonce() {
+		return foundNonce;
+	}
+
+	@Override
+	public String getFoundHash() {
+		return BlockChainUtils.toHex(rawHash);
+	}
+
+	static final class Lanes4 extends VectorHeaderMiningKernel {
+		private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_128;
+
+		Lanes4() {
+			super(4);
+		}
+
+		@Override
+		long hashLanes(int firstTargetWord) {
+			for (int i = SHARED_SCHEDULE; i < SCHEDULE_SIZE; i++) {
+				IntVector w15 = IntVector.fromArray(SPECIES, schedule, (i - 15) * 4);
+				IntVector w2 = IntVector.fromArray(SPECIES, schedule, (i - 2) * 4);
+				IntVector s0 = w15.lanewise(VectorOperators.ROR, 7).lanewise(VectorOperators.XOR, w15.lanewise(VectorOperators.ROR, 18)).lanewise(VectorOperators.XOR, w15.lanewise(VectorOperators.LSHR, 3));
+				IntVector s1 = w2.lanewise(VectorOperators.ROR, 17).lanewise(VectorOperators.XOR, w2.lanewise(VectorOperators.ROR, 19)).lanewise(VectorOperators.XOR, w2.lanewise(VectorOperators.LSHR, 10));
+				IntVector.fromArray(SPECIES, schedule, (i - 16) * 4)
+						.add(s0)
+						.add(IntVector.fromArray(SPECIES, schedule, (i - 7) * 4))
+						.add(s1)
+						.intoArray(schedule, i * 4);
+			}
+
+			IntVector a = IntVector.broadcast(SPECIES, sharedState[0]);
+			IntVector b = IntVector.broadcast(SPECIES, sharedState[1]);
+			IntVector c = IntVector.broadcast(SPECIES, sharedState[2]);
+			IntVector d = IntVector.broadcast(SPECIES, sharedState[3]);
+			IntVector e = IntVector.broadcast(SPECIES, sharedState[4]);
+			IntVector f = IntVector.broadcast(SPECIES, sharedState[5]);
+			IntVector g = IntVector.broadcast(SPECIES, sharedState[6]);
+			IntVector h = IntVector.broadcast(SPECIES, sharedState[7]);
+			for (int i = SHARED_ROUNDS; i < SCHEDULE_SIZE; i++) {
+				IntVector s1 = e.lanewise(VectorOperators.ROR, 6).lanewise(VectorOperators.XOR, e.lanewise(VectorOperators.ROR, 11)).lanewise(VectorOperators.XOR, e.lanewise(VectorOperators.ROR, 25));
+				IntVector ch = e.and(f).lanewise(VectorOperators.XOR, e.not().and(g));
+				IntVector t1 = h.add(s1).add(ch).add(Sha256.K[i]).add(IntVector.fromArray(SPECIES, schedule, i * 4));
+				IntVector s0 = a.lanewise(VectorOperators.ROR, 2).lanewise(VectorOperators.XOR, a.lanewise(VectorOperators.ROR, 13)).lanewise(VectorOperators.XOR, a.lanewise(VectorOperators.ROR, 22));
+				IntVector maj = a.and(b).lanewise(VectorOperators.XOR, a.and(c)).lanewise(VectorOperators.XOR, b.and(c));
+				h = g;
+				g = f;
+				f = e;
+				e = d.add(t1);
+				d = c;
+				c = b;
+				b = a;
+				a = t1.add(s0).add(maj);
+			}
+
+			IntVector firstWord = a.add(midstate[0]);
+			firstWord.intoArray(hashWords, 0);
+			b.add(midstate[1]).intoArray(hashWords, 4);
+			c.add(midstate[2]).intoArray(hashWords, 2 * 4);
+			d.add(midstate[3]).intoArray(hashWords, 3 * 4);
+			e.add(midstate[4]).intoArray(hashWords, 4 * 4);
+			f.add(midstate[5]).intoArray(hashWords, 5 * 4);
+			g.add(midstate[6]).intoArray(hashWords, 6 * 4);
+			h.add(midstate[7]).intoArray(hashWords, 7 * 4);
+			return firstWord.lanewise(VectorOperators.XOR, Integer.MIN_VALUE).compare(VectorOperators.LE, firstTargetWord).toLong();
+		}
+	}
+
+	static final class Lanes8 extends VectorHeaderMiningKernel {
+		private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_256;
+
+		Lanes8() {
+			super(8);
+		}
+
+		@Override
+		long hashLanes(int firstTargetWord) {
+			for (int i = SHARED_SCHEDULE; i < SCHEDULE_SIZE; i++) {
+				IntVector w15 = IntVector.fromArray(SPECIES, schedule, (i - 15) * 8);
+				IntVector w2 = IntVector.fromArray(SPECIES, schedule, (i - 2) * 8);
+				IntVector s0 = w15.lanewise(VectorOperators.ROR, 7).lanewise(VectorOperators.XOR, w15.lanewise(VectorOperators.ROR, 18)).lanewise(VectorOperators.XOR, w15.lanewise(VectorOperators.LSHR, 3));
+				IntVector s1 = w2.lanewise(VectorOperators.ROR, 17).lanewise(VectorOperators.XOR, w2.lanewise(VectorOperators.ROR, 19)).lanewise(VectorOperators.XOR, w2.lanewise(VectorOperators.LSHR, 10));
+				IntVector.fromArray(SPECIES, schedule, (i - 16) * 8)
+						.add(s0)
+						.add(IntVector.fromArray(SPECIES, schedule, (i - 7) * 8))
+						.add(s1)
+						.intoArray(schedule, i * 8);
+			}
+
+			IntVector a = IntVector.broadcast(SPECIES, sharedState[0]);
+			IntVector b = IntVector.broadcast(SPECIES, sharedState[1]);
+			IntVector c = IntVector.broadcast(SPECIES, sharedState[2]);
+			IntVector d = IntVector.broadcast(SPECIES, sharedState[3]);
+			IntVector e = IntVector.broadcast(SPECIES, sharedState[4]);
+			IntVector f = IntVector.broadcast(SPECIES, sharedState[5]);
+			IntVector g = IntVector.broadcast(SPECIES, sharedState[6]);
+			IntVector h = IntVector.broadcast(SPECIES, sharedState[7]);
+			for (int i = SHARED_ROUNDS; i < SCHEDULE_SIZE; i++) {
+				IntVector s1 = e.lanewise(VectorOperators.ROR, 6).lanewise(VectorOperators.XOR, e.lanewise(VectorOperators.ROR, 11)).lanewise(VectorOperators.XOR, e.lanewise(VectorOperators.ROR, 25));
+				IntVector ch = e.and(f).lanewise(VectorOperators.XOR, e.not().and(g));
+				IntVector t1 = h.add(s1).add(ch).add(Sha256.K[i]).add(IntVector.fromArray(SPECIES, schedule, i * 8));
+				IntVector s0 = a.lanewise(VectorOperators.ROR, 2).lanewise(VectorOperators.XOR, a.lanewise(VectorOperators.ROR, 13)).lanewise(VectorOperators.XOR, a.lanewise(VectorOperators.ROR, 22));
+				IntVector maj = a.and(b).lanewise(VectorOperators.XOR, a.and(c)).lanewise(VectorOperators.XOR, b.and(c));
+				h = g;
+				g = f;
+				f = e;
+				e = d.add(t1);
+				d = c;
+				c = b;
+				b = a;
+				a = t1.add(s0).add(maj);
+			}
+
+			IntVector firstWord = a.add(midstate[0]);
+			firstWord.intoArray(hashWords, 0);
+			b.add(midstate[1]).intoArray(hashWords, 8);
+			c.add(midstate[2]).intoArray(hashWords, 2 * 8);
+			d.add(midstate[3]).intoArray(hashWords, 3 * 8);
+			e.add(midstate[4]).intoArray(hashWords, 4 * 8);
+			f.add(midstate[5]).intoArray(hashWords, 5 * 8);
+			g.add(midstate[6]).intoArray(hashWords, 6 * 8);
+			h.add(midstate[7]).intoArray(hashWords, 7 * 8);
+			return firstWord.lanewise(VectorOperators.XOR, Integer.MIN_VALUE).compare(VectorOperators.LE, firstTargetWord).toLong();
+		}
+	}
+
+	static final class Lanes16 extends VectorHeaderMiningKernel {
+		private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_512;
+
+		Lanes16() {
+			super(16);
+		}
+
+		@Override
+		long hashLanes(int firstTargetWord) {
+			for (int i = SHARED_SCHEDULE; i < SCHEDULE_SIZE; i++) {
+				IntVector w15 = IntVector.fromArray(SPECIES, schedule, (i - 15) * 16);
+				IntVector w2 = IntVector.fromArray(SPECIES, schedule, (i - 2) * 16);
+				IntVector s0 = w15.lanewise(VectorOperators.ROR, 7).lanewise(VectorOperators.XOR, w15.lanewise(VectorOperators.ROR, 18)).lanewise(VectorOperators.XOR, w15.lanewise(VectorOperators.LSHR, 3));
+				IntVector s1 = w2.lanewise(VectorOperators.ROR, 17).lanewise(VectorOperators.XOR, w2.lanewise(VectorOperators.ROR, 19)).lanewise(VectorOperators.XOR, w2.lanewise(VectorOperators.LSHR, 10));
+				IntVector.fromArray(SPECIES, schedule, (i - 16) * 16)
+						.add(s0)
+						.add(IntVector.fromArray(SPECIES, schedule, (i - 7) * 16))
+						.add(s1)
+						.intoArray(schedule, i * 16);
+			}
+
+			IntVector a = IntVector.broadcast(SPECIES, sharedState[0]);
+			IntVector b = IntVector.broadcast(SPECIES, sharedState[1]);
+			IntVector c = IntVector.broadcast(SPECIES, sharedState[2]);
+			IntVector d = IntVector.broadcast(SPECIES, sharedState[3]);
+			IntVector e = IntVector.broadcast(SPECIES, sharedState[4]);
+			IntVector f = IntVector.broadcast(SPECIES, sharedState[5]);
+			IntVector g = IntVector.broadcast(SPECIES, sharedState[6]);
+			IntVector h = IntVector.broadcast(SPECIES, sharedState[7]);
+			for (int i = SHARED_ROUNDS; i < SCHEDULE_SIZE; i++) {
+				IntVector s1 = e.lanewise(VectorOperators.ROR, 6).lanewise(VectorOperators.XOR, e.lanewise(VectorOperators.ROR, 11)).lanewise(VectorOperators.XOR, e.lanewise(VectorOperators.ROR, 25));
+				IntVector ch = e.and(f).lanewise(VectorOperators.XOR, e.not().and(g));
+				IntVector t1 = h.add(s1).add(ch).add(Sha256.K[i]).add(IntVector.fromArray(SPECIES, schedule, i * 16));
+				IntVector s0 = a.lanewise(VectorOperators.ROR, 2).lanewise(VectorOperators.XOR, a.lanewise(VectorOperators.ROR, 13)).lanewise(VectorOperators.XOR, a.lanewise(VectorOperators.ROR, 22));
+				IntVector maj = a.and(b).lanewise(VectorOperators.XOR, a.and(c)).lanewise(VectorOperators.XOR, b.and(c));
+				h = g;
+				g = f;
+				f = e;
+				e = d.add(t1);
+				d = c;
+				c = b;
+				b = a;
+				a = t1.add(s0).add(maj);
+			}
+
+			IntVector firstWord = a.add(midstate[0]);
+			firstWord.intoArray(hashWords, 0);
+			b.add(midstate[1]).intoArray(hashWords, 16);
+			c.add(midstate[2]).intoArray(hashWords, 2 * 16);
+			d.add(midstate[3]).intoArray(hashWords, 3 * 16);
+			e.add(midstate[4]).intoArray(hashWords, 4 * 16);
+			f.add(midstate[5]).intoArray(hashWords, 5 * 16);
+			g.add(midstate[6]).intoArray(hashWords, 6 * 16);
+			h.add(midstate[7]).intoArray(hashWords, 7 * 16);
+			return firstWord.lanewise(VectorOperators.XOR, Integer.MIN_VALUE).compare(VectorOperators.LE, firstTargetWord).toLong();
+		}
+	}
+}
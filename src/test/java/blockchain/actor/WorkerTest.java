@@ -15,7 +15,6 @@ import org.junit.jupiter.api.Test;
 import org.slf4j.event.Level;
 
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -82,9 +81,8 @@ public class WorkerTest {
         Worker.Command message = new Worker.StartMiningCommand(testBlock, startNonce, startNonce + 1000, 5, testInbox.getRef());
         testActor.run(message);
 
-        HashResult expectedHashResult = new HashResult();
-        expectedHashResult.foundAHash("000000eb16b355b8324cea2f03ee03a242ba20393fec0358cf24248d3513e9b5", 1277424);
-        testInbox.expectMessage(new Manager.WorkerFinishedCommand(testActor.getRef(), testBlock, Optional.of(expectedHashResult)));
+        HashResult expectedHashResult = new HashResult("000000eb16b355b8324cea2f03ee03a242ba20393fec0358cf24248d3513e9b5", 1277424);
+        testInbox.expectMessage(new Manager.WorkerFinishedCommand(testActor.getRef(), testBlock, expectedHashResult));
     }
 
     //TODO Fix unit tests later on
@@ -98,9 +96,8 @@ public class WorkerTest {
         Worker.Command message = new Worker.StartMiningCommand(testBlock, 0, 1000L, 5, testInbox.getRef());
         testActor.run(message);
 
-        //HashResult expectedHashResult = new HashResult();
-        //expectedHashResult.foundAHash("000000eb16b355b8324cea2f03ee03a242ba20393fec0358cf24248d3513e9b5", 1277424);
+        //HashResult expectedHashResult = new HashResult("000000eb16b355b8324cea2f03ee03a242ba20393fec0358cf24248d3513e9b5", 1277424);
         //assertFalse(testInbox.hasMessages());
-        testInbox.expectMessage(new Manager.WorkerFinishedCommand(testActor.getRef(), testBlock, Optional.ofNullable(null)));
+        testInbox.expectMessage(new Manager.WorkerFinishedCommand(testActor.getRef(), testBlock, null));
     }
 }
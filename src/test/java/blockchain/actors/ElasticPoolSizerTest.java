@@ -0,0 +1,57 @@
+package blockchain.actors;
+
+import blockchain.model.ElasticPoolPolicy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ElasticPoolSizerTest {
+
+    @Test
+    @DisplayName("Pool grows up to the available cores and backs off when a new worker adds too little")
+    void testPoolGrowsUntilWorkersCompeteForCores() {
+        ElasticPoolSizer sizer = new ElasticPoolSizer(ElasticPoolPolicy.builder().maxWorkers(8).backoffIntervals(2).build());
+
+        assertEquals(2, sizer.nextSize(1, 1000, 4));
+        assertEquals(3, sizer.nextSize(2, 2000, 4));
+        //The third worker adds only 200 hashes/s on top of 1000 per worker
+        assertEquals(2, sizer.nextSize(3, 2200, 4));
+        assertEquals(2, sizer.nextSize(2, 2000, 4));
+        assertEquals(3, sizer.nextSize(2, 2000, 4));
+    }
+
+    @Test
+    @DisplayName("Pool shrinks when cores are taken away or the hash rate per worker collapses")
+    void testPoolShrinksUnderContention() {
+        ElasticPoolSizer sizer = new ElasticPoolSizer(ElasticPoolPolicy.builder().maxWorkers(8).build());
+
+        assertEquals(4, sizer.nextSize(6, 6000, 4));
+        assertEquals(4, sizer.nextSize(4, 4000, 4));
+        assertEquals(3, sizer.nextSize(4, 1600, 4));
+        assertEquals(3, sizer.nextSize(3, 3000, 4));
+    }
+
+    @Test
+    @DisplayName("Pool without local workers starts the minimum number and still shrinks under contention afterwards")
+    void testPoolWithoutWorkers() {
+        ElasticPoolSizer sizer = new ElasticPoolSizer(ElasticPoolPolicy.builder().maxWorkers(8).build());
+
+        assertEquals(1, sizer.nextSize(0, 0, 4));
+        assertEquals(4, sizer.nextSize(4, 4000, 4));
+        assertEquals(3, sizer.nextSize(4, 1600, 4));
+    }
+
+    @Test
+    @DisplayName("Best hash rate per worker decays, so a rate seen long ago no longer shrinks the pool")
+    void testBestHashRateDecays() {
+        ElasticPoolSizer lasting = new ElasticPoolSizer(ElasticPoolPolicy.builder().maxWorkers(2).bestHashRateDecay(0).build());
+        ElasticPoolSizer decaying = new ElasticPoolSizer(ElasticPoolPolicy.builder().maxWorkers(2).bestHashRateDecay(0.5).build());
+
+        assertEquals(2, lasting.nextSize(2, 2000, 2));
+        assertEquals(2, decaying.nextSize(2, 2000, 2));
+        //400 per worker is less than half of the 1000 seen before, but not of the 500 left after one interval of decay
+        assertEquals(1, lasting.nextSize(2, 800, 2));
+        assertEquals(2, decaying.nextSize(2, 800, 2));
+    }
+}
@@ -0,0 +1,329 @@
+package blockchain.actors;
+
+import akka.actor.testkit.typed.javadsl.ActorTestKit;
+import akka.actor.testkit.typed.javadsl.TestProbe;
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.javadsl.Adapter;
+import akka.actor.typed.receptionist.Receptionist;
+import akka.pattern.StatusReply;
+import blockchain.metrics.MiningMetrics;
+import blockchain.metrics.WorkerSnapshot;
+import blockchain.model.Block;
+import blockchain.model.BlockChain;
+import blockchain.model.BlockChainMiningWorkOrder;
+import blockchain.model.ElasticPoolPolicy;
+import blockchain.model.HashResult;
+import blockchain.model.Transaction;
+import blockchain.model.TransactionSource;
+import blockchain.store.CheckpointFile;
+import blockchain.store.InMemoryBlockStore;
+import blockchain.store.MiningCheckpoint;
+import blockchain.utils.BlockChainUtils;
+import blockchain.utils.DifficultyTarget;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ManagerTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final Transaction TRANSACTION = new Transaction(UUID.fromString("33cdefb0-6f73-408b-8a5d-4e72ad13ffdc"), 1588883122, 35252435, 125.25);
+
+    //A test kit per test, workers registered with the receptionist would join the Managers of later tests
+    private ActorTestKit testKit;
+
+    @BeforeEach
+    void setUp() {
+        testKit = ActorTestKit.create();
+    }
+
+    @AfterEach
+    void tearDown() {
+        testKit.shutdownTestKit();
+    }
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Work order without workers of the Manager's own, the test registers probes as the workers of other cluster nodes.
+     */
+    private static BlockChainMiningWorkOrder.BlockChainMiningWorkOrderBuilder probeWorkOrder() {
+        return BlockChainMiningWorkOrder.builder()
+                .numberOfBlocksToMine(1)
+                .numberOfSimultaneousWorkers(0)
+                .workloadPerWorker(1000)
+                .difficulty(6)
+                .progressReportFrequency(60)
+                .clustered(true);
+    }
+
+    /**
+     * Work order of a Manager mining with its own workers, no hash meets the difficulty in the time of a test.
+     */
+    private static BlockChainMiningWorkOrder.BlockChainMiningWorkOrderBuilder localWorkOrder(int workers) {
+        return BlockChainMiningWorkOrder.builder()
+                .numberOfBlocksToMine(1)
+                .numberOfSimultaneousWorkers(workers)
+                .workloadPerWorker(1_000_000)
+                .difficulty(10)
+                .progressReportFrequency(60);
+    }
+
+    private ActorRef<Manager.Command> startManager(BlockChainMiningWorkOrder workOrder) {
+        ActorRef<Manager.Command> manager = testKit.spawn(Manager.create());
+        manager.tell(new Manager.StartCommand(workOrder, testKit.createTestProbe(BlockChain.class).getRef()));
+        return manager;
+    }
+
+    private List<ActorRef<Worker.Command>> workersOf(ActorRef<Manager.Command> manager) {
+        TestProbe<List<ActorRef<Worker.Command>>> probe = testKit.createTestProbe();
+        manager.tell(new Manager.GetWorkersCommand(probe.getRef()));
+        return probe.receiveMessage(TIMEOUT);
+    }
+
+    private long hashesOf(MiningMetrics metrics, ActorRef<Worker.Command> worker) {
+        String path = worker.path().toStringWithoutAddress();
+        return metrics.snapshot().getWorkers().stream()
+                .filter(snapshot -> snapshot.getName().equals(path))
+                .mapToLong(WorkerSnapshot::getHashes)
+                .sum();
+    }
+
+    private static HashResult mine(Worker.StartMiningCommand start) {
+        return BlockChainUtils.mineBlock(start.getBlock(), start.getTarget(), 0, 100_000).orElseThrow();
+    }
+
+    /**
+     * Start command of the next block the probe gets, commands it may still get for the block before are skipped.
+     */
+    private static Worker.StartMiningCommand nextBlockOf(TestProbe<Worker.Command> worker, long epoch) {
+        Worker.StartMiningCommand start;
+        do {
+            start = worker.expectMessageClass(Worker.StartMiningCommand.class, TIMEOUT);
+        } while (start.getEpoch() == epoch);
+        return start;
+    }
+
+    /**
+     * Hashes of a chain mined from seeded transactions, committing the lowest winning nonce of every block.
+     */
+    private List<String> mineSeededChain(int workers) {
+        TestProbe<BlockChain> result = testKit.createTestProbe(BlockChain.class);
+        ActorRef<Manager.Command> manager = testKit.spawn(Manager.create());
+        manager.tell(new Manager.StartCommand(BlockChainMiningWorkOrder.builder()
+                .numberOfBlocksToMine(5)
+                .numberOfSimultaneousWorkers(workers)
+                .workloadPerWorker(2000)
+                .difficulty(3)
+                .progressReportFrequency(60)
+                .transactionSource(TransactionSource.seeded(42))
+                .lowestNonceWins(true)
+                .build(), result.getRef()));
+        BlockChain blockChain = result.expectMessageClass(BlockChain.class, TIMEOUT);
+        return IntStream.range(0, blockChain.getSize()).mapToObj(height -> blockChain.getBlock(height).getHash()).toList();
+    }
+
+    private TestProbe<Worker.Command> joinProbeWorker() {
+        TestProbe<Worker.Command> worker = testKit.createTestProbe(Worker.Command.class);
+        testKit.system().receptionist().tell(Receptionist.register(WorkerNode.WORKER_KEY, worker.getRef()));
+        return worker;
+    }
+
+    @Test
+    @DisplayName("The nonce range of a worker that leaves the cluster is handed to the next worker asking for work")
+    void testRangeOfLostWorkerIsReassigned() {
+        ActorRef<Manager.Command> manager = startManager(probeWorkOrder().build());
+
+        TestProbe<Worker.Command> lost = joinProbeWorker();
+        Worker.StartMiningCommand lostRange = lost.expectMessageClass(Worker.StartMiningCommand.class, TIMEOUT);
+        TestProbe<Worker.Command> remaining = joinProbeWorker();
+        Worker.StartMiningCommand firstRange = remaining.expectMessageClass(Worker.StartMiningCommand.class, TIMEOUT);
+        assertNotEquals(lostRange.getStartNonce(), firstRange.getStartNonce());
+
+        testKit.system().receptionist().tell(Receptionist.deregister(WorkerNode.WORKER_KEY, lost.getRef()));
+        //The remaining worker is still busy, the abandoned range waits until it asks for work again
+        remaining.expectNoMessage(Duration.ofMillis(200));
+        manager.tell(new Manager.WorkerFinishedCommand(remaining.getRef(), firstRange.getBlock(), null, firstRange.getEpoch(), null));
+
+        Worker.StartMiningCommand reassigned = remaining.expectMessageClass(Worker.StartMiningCommand.class, TIMEOUT);
+        assertAll(
+                () -> assertEquals(lostRange.getStartNonce(), reassigned.getStartNonce()),
+                () -> assertEquals(lostRange.getEndNonce(), reassigned.getEndNonce()),
+                () -> assertEquals(lostRange.getEpoch(), reassigned.getEpoch())
+        );
+    }
+
+    @Test
+    @DisplayName("A checkpoint of the chain tip resumes its block from the saved nonce")
+    void testResumeFromCheckpoint() throws Exception {
+        Block block = Block.withTransactions(List.of(TRANSACTION), "0");
+        Path checkpointFile = directory.resolve("mining.checkpoint");
+        new CheckpointFile(checkpointFile).write(CheckpointFile.encode(new MiningCheckpoint(0, "0", block, DifficultyTarget.ofLeadingZeros(6), 7000)));
+        startManager(probeWorkOrder().checkpointFile(checkpointFile).build());
+
+        Worker.StartMiningCommand start = joinProbeWorker().expectMessageClass(Worker.StartMiningCommand.class, TIMEOUT);
+        assertAll(
+                () -> assertEquals(7000, start.getStartNonce()),
+                () -> assertEquals(List.of(TRANSACTION), start.getBlock().getTransactions())
+        );
+    }
+
+    @Test
+    @DisplayName("A checkpoint taken for another target is not resumed")
+    void testCheckpointWithOtherTargetIsIgnored() throws Exception {
+        Block block = Block.withTransactions(List.of(TRANSACTION), "0");
+        Path checkpointFile = directory.resolve("mining.checkpoint");
+        new CheckpointFile(checkpointFile).write(CheckpointFile.encode(new MiningCheckpoint(0, "0", block, DifficultyTarget.ofLeadingZeros(5), 7000)));
+        startManager(probeWorkOrder().checkpointFile(checkpointFile).build());
+
+        Worker.StartMiningCommand start = joinProbeWorker().expectMessageClass(Worker.StartMiningCommand.class, TIMEOUT);
+        assertAll(
+                () -> assertEquals(0, start.getStartNonce()),
+                () -> assertNotEquals(List.of(TRANSACTION), start.getBlock().getTransactions())
+        );
+    }
+
+    @Test
+    @DisplayName("Pool resized while its workers are busy keeps mining with the new number of workers")
+    void testResizeWhileBusy() {
+        MiningMetrics metrics = new MiningMetrics();
+        ActorRef<Manager.Command> manager = startManager(localWorkOrder(2).metrics(metrics).build());
+        TestProbe<Object> probe = testKit.createTestProbe();
+        probe.awaitAssert(TIMEOUT, () -> {
+            assertTrue(metrics.getHashes() > 0);
+            return null;
+        });
+
+        manager.tell(new Manager.ResizePoolCommand(4));
+        List<ActorRef<Worker.Command>> grown = workersOf(manager);
+        assertEquals(4, grown.size());
+        probe.awaitAssert(TIMEOUT, () -> {
+            assertTrue(grown.stream().allMatch(worker -> hashesOf(metrics, worker) > 0));
+            return null;
+        });
+
+        manager.tell(new Manager.ResizePoolCommand(1));
+        List<ActorRef<Worker.Command>> shrunk = workersOf(manager);
+        assertEquals(1, shrunk.size());
+        grown.stream().filter(worker -> !shrunk.contains(worker)).forEach(worker -> probe.expectTerminated(worker, TIMEOUT));
+        long hashes = hashesOf(metrics, shrunk.get(0));
+        probe.awaitAssert(TIMEOUT, () -> {
+            assertTrue(hashesOf(metrics, shrunk.get(0)) > hashes);
+            return null;
+        });
+    }
+
+    @Test
+    @DisplayName("Elastic pool grows while more cores than workers are available")
+    void testAutoResizeGrowsPool() {
+        ElasticPoolPolicy elasticPool = ElasticPoolPolicy.builder()
+                .minWorkers(1)
+                .maxWorkers(2)
+                .resizeInterval(Duration.ofMillis(200))
+                .build();
+        int expectedWorkers = Math.min(2, Runtime.getRuntime().availableProcessors());
+        ActorRef<Manager.Command> manager = startManager(localWorkOrder(1).elasticPool(elasticPool).build());
+
+        testKit.createTestProbe().awaitAssert(TIMEOUT, () -> {
+            assertEquals(expectedWorkers, workersOf(manager).size());
+            return null;
+        });
+    }
+
+    @Test
+    @DisplayName("A busy worker that terminates unexpectedly is replaced")
+    void testTerminatedWorkerIsReplaced() {
+        MiningMetrics metrics = new MiningMetrics();
+        ActorRef<Manager.Command> manager = startManager(localWorkOrder(2).metrics(metrics).build());
+        TestProbe<Object> probe = testKit.createTestProbe();
+        List<ActorRef<Worker.Command>> workers = workersOf(manager);
+        ActorRef<Worker.Command> failed = workers.get(0);
+        probe.awaitAssert(TIMEOUT, () -> {
+            assertTrue(hashesOf(metrics, failed) > 0);
+            return null;
+        });
+
+        Adapter.toClassic(testKit.system()).stop(Adapter.toClassic(failed));
+        probe.expectTerminated(failed, TIMEOUT);
+
+        probe.awaitAssert(TIMEOUT, () -> {
+            List<ActorRef<Worker.Command>> replaced = workersOf(manager);
+            assertEquals(2, replaced.size());
+            assertFalse(replaced.contains(failed));
+            return null;
+        });
+        ActorRef<Worker.Command> replacement = workersOf(manager).stream().filter(worker -> !workers.contains(worker)).findFirst().orElseThrow();
+        probe.awaitAssert(TIMEOUT, () -> {
+            assertTrue(hashesOf(metrics, replacement) > 0);
+            return null;
+        });
+    }
+
+    @Test
+    @DisplayName("A hash found for a block that is already mined is neither handed out again nor committed to the next block")
+    void testStaleResultIsIgnored() {
+        TestProbe<BlockChain> result = testKit.createTestProbe(BlockChain.class);
+        ActorRef<Manager.Command> manager = testKit.spawn(Manager.create());
+        manager.tell(new Manager.StartCommand(probeWorkOrder().numberOfBlocksToMine(2).difficulty(2).build(), result.getRef()));
+        TestProbe<Worker.Command> first = joinProbeWorker();
+        Worker.StartMiningCommand firstBlock = first.expectMessageClass(Worker.StartMiningCommand.class, TIMEOUT);
+        TestProbe<Worker.Command> second = joinProbeWorker();
+        Worker.StartMiningCommand secondRange = second.expectMessageClass(Worker.StartMiningCommand.class, TIMEOUT);
+        HashResult firstHash = mine(firstBlock);
+
+        //The range finished without a hash asks for more work right before the block is mined
+        manager.tell(new Manager.WorkerFinishedCommand(second.getRef(), secondRange.getBlock(), null, secondRange.getEpoch(), null));
+        manager.tell(new Manager.WorkerFinishedCommand(first.getRef(), firstBlock.getBlock(), firstHash, firstBlock.getEpoch(), null));
+        Worker.StartMiningCommand nextBlock = nextBlockOf(first, firstBlock.getEpoch());
+        Worker.StartMiningCommand nextRange = nextBlockOf(second, firstBlock.getEpoch());
+        assertAll(
+                () -> assertEquals(firstHash.getHash(), nextBlock.getBlock().getPreviousHash()),
+                () -> assertEquals(firstHash.getHash(), nextRange.getBlock().getPreviousHash())
+        );
+
+        manager.tell(new Manager.WorkerFinishedCommand(second.getRef(), firstBlock.getBlock(), firstHash, nextRange.getEpoch(), null));
+        HashResult secondHash = mine(nextBlock);
+        manager.tell(new Manager.WorkerFinishedCommand(first.getRef(), nextBlock.getBlock(), secondHash, nextBlock.getEpoch(), null));
+
+        BlockChain blockChain = result.expectMessageClass(BlockChain.class, TIMEOUT);
+        assertAll(
+                () -> assertEquals(2, blockChain.getSize()),
+                () -> assertEquals(secondHash.getHash(), blockChain.getLastHash())
+        );
+    }
+
+    @Test
+    @DisplayName("Seeded runs committing the lowest winning nonce mine the same chain with any number of workers")
+    void testLowestNonceWinsIsReproducible() {
+        List<String> oneWorker = mineSeededChain(1);
+        List<String> fourWorkers = mineSeededChain(4);
+
+        assertEquals(5, oneWorker.size());
+        assertEquals(oneWorker, fourWorkers);
+    }
+
+    @Test
+    @DisplayName("A streamed block holding a transaction twice is rejected before it is mined, the Manager keeps running")
+    void testStreamedDuplicateTransactionsAreRejected() {
+        ActorRef<Manager.Command> manager = testKit.spawn(Manager.create());
+        manager.tell(new Manager.StartStreamingCommand(probeWorkOrder().blockStore(new InMemoryBlockStore()).build()));
+        TestProbe<StatusReply<Block>> reply = testKit.createTestProbe();
+
+        manager.tell(new Manager.MineTransactionsCommand(List.of(TRANSACTION, TRANSACTION), reply.getRef()));
+        assertTrue(reply.receiveMessage(TIMEOUT).isError());
+
+        manager.tell(new Manager.MineTransactionsCommand(List.of(TRANSACTION), reply.getRef()));
+        Worker.StartMiningCommand start = joinProbeWorker().expectMessageClass(Worker.StartMiningCommand.class, TIMEOUT);
+        assertEquals(List.of(TRANSACTION), start.getBlock().getTransactions());
+    }
+}
@@ -0,0 +1,59 @@
+package blockchain.actors;
+
+import blockchain.metrics.MiningMetrics;
+import blockchain.metrics.WorkerMetrics;
+import blockchain.model.Block;
+import blockchain.model.HashResult;
+import blockchain.model.MiningEpoch;
+import blockchain.model.Transaction;
+import blockchain.utils.DifficultyTarget;
+import blockchain.utils.MiningKernel;
+import blockchain.utils.MiningKernelType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MiningLoopTest {
+    private MiningKernel kernel;
+    private WorkerMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        Transaction tx = new Transaction(UUID.fromString("33cdefb0-6f73-408b-8a5d-4e72ad13ffdc"), 1588883122, 35252435, 125.25);
+        kernel = MiningKernelType.DIGEST.newKernel();
+        kernel.prepare(new Block(tx, "0000sfdg24z6t32zdfb<dxbf"));
+        metrics = new MiningMetrics().registerWorker("worker");
+    }
+
+    @Test
+    @DisplayName("Loop finds the same nonce as a single search, slice by slice")
+    void testLoopFindsExpectedNonce() {
+        MiningLoop loop = new MiningLoop(kernel, DifficultyTarget.ofLeadingZeros(5), 1000000, 1300000, null, new MiningEpoch(), 0, metrics);
+
+        Optional<HashResult> result = loop.get();
+
+        assertTrue(result.isPresent());
+        assertAll(
+                () -> assertEquals(1277424, result.get().getNonce()),
+                () -> assertEquals(1277424 - 1000000, loop.getHashes()),
+                () -> assertEquals(loop.getHashes(), metrics.getHashes()),
+                () -> assertFalse(loop.isCancelled())
+        );
+    }
+
+    @Test
+    @DisplayName("Loop stops without a result once the epoch moves on")
+    void testLoopStopsOnNewEpoch() {
+        MiningEpoch epoch = new MiningEpoch();
+        epoch.advance();
+
+        Optional<HashResult> result = new MiningLoop(kernel, DifficultyTarget.ofLeadingZeros(5), 1000000, 1300000, null, epoch, 0, metrics).get();
+
+        assertFalse(result.isPresent());
+    }
+}
@@ -0,0 +1,96 @@
+package blockchain.cluster;
+
+import akka.actor.ExtendedActorSystem;
+import akka.actor.testkit.typed.javadsl.ActorTestKit;
+import akka.actor.testkit.typed.javadsl.TestProbe;
+import akka.actor.typed.javadsl.Adapter;
+import blockchain.actors.Manager;
+import blockchain.actors.Worker;
+import blockchain.model.Block;
+import blockchain.model.HashResult;
+import blockchain.model.Transaction;
+import blockchain.store.BlockCodec;
+import blockchain.utils.DifficultyTarget;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MiningMessageSerializerTest {
+    private static ActorTestKit testKit;
+    private static MiningMessageSerializer serializer;
+    private static Block block;
+
+    @BeforeAll
+    static void setUp() {
+        testKit = ActorTestKit.create();
+        serializer = new MiningMessageSerializer((ExtendedActorSystem) Adapter.toClassic(testKit.system()));
+        Transaction tx = new Transaction(UUID.fromString("33cdefb0-6f73-408b-8a5d-4e72ad13ffdc"), 1588883122, 35252435, 125.25);
+        block = Block.withBinaryHeader(List.of(tx), "0", DifficultyTarget.ofLeadingZeros(5));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        testKit.shutdownTestKit();
+    }
+
+    @Test
+    @DisplayName("Start command survives the round trip with its block, nonce range and target")
+    void testStartMiningRoundTrip() throws Exception {
+        TestProbe<Manager.Command> manager = testKit.createTestProbe(Manager.Command.class);
+        Worker.StartMiningCommand command = new Worker.StartMiningCommand(block, 5_000_000, 9_999_999,
+                DifficultyTarget.ofLeadingZeros(5).scaledBy(3, 2), manager.getRef(), null, 42);
+
+        Worker.StartMiningCommand copy = (Worker.StartMiningCommand) serializer.fromBinary(serializer.toBinary(command), serializer.manifest(command));
+
+        assertAll(
+                () -> assertArrayEquals(BlockCodec.encode(block), BlockCodec.encode(copy.getBlock())),
+                () -> assertEquals(5_000_000, copy.getStartNonce()),
+                () -> assertEquals(9_999_999, copy.getEndNonce()),
+                () -> assertEquals(command.getTarget(), copy.getTarget()),
+                () -> assertEquals(manager.getRef(), copy.getController()),
+                () -> assertEquals(42, copy.getEpoch())
+        );
+    }
+
+    @Test
+    @DisplayName("Finished command survives the round trip with and without a hash")
+    void testWorkerFinishedRoundTrip() throws Exception {
+        TestProbe<Worker.Command> worker = testKit.createTestProbe(Worker.Command.class);
+        HashResult result = new HashResult("00000abc", 1234);
+        Manager.WorkerFinishedCommand found = new Manager.WorkerFinishedCommand(worker.getRef(), block, result);
+        Manager.WorkerFinishedCommand notFound = new Manager.WorkerFinishedCommand(worker.getRef(), block, null);
+
+        Manager.WorkerFinishedCommand foundCopy = (Manager.WorkerFinishedCommand) serializer.fromBinary(serializer.toBinary(found), serializer.manifest(found));
+        Manager.WorkerFinishedCommand notFoundCopy = (Manager.WorkerFinishedCommand) serializer.fromBinary(serializer.toBinary(notFound), serializer.manifest(notFound));
+
+        assertAll(
+                () -> assertEquals(worker.getRef(), foundCopy.getWorker()),
+                () -> assertArrayEquals(BlockCodec.encode(block), BlockCodec.encode(foundCopy.getBlock())),
+                () -> assertEquals(result, foundCopy.getResult()),
+                () -> assertFalse(notFoundCopy.isBlockMined())
+        );
+    }
+
+    @Test
+    @DisplayName("Progress command survives the round trip with and without a percentage")
+    void testWorkerProgressRoundTrip() throws Exception {
+        TestProbe<Worker.Command> worker = testKit.createTestProbe(Worker.Command.class);
+        Manager.WorkerProgressCommand progress = new Manager.WorkerProgressCommand(worker.getRef(), 42.5, null);
+        Manager.WorkerProgressCommand noProgress = new Manager.WorkerProgressCommand(worker.getRef(), Double.NaN, null);
+
+        Manager.WorkerProgressCommand progressCopy = (Manager.WorkerProgressCommand) serializer.fromBinary(serializer.toBinary(progress), serializer.manifest(progress));
+        Manager.WorkerProgressCommand noProgressCopy = (Manager.WorkerProgressCommand) serializer.fromBinary(serializer.toBinary(noProgress), serializer.manifest(noProgress));
+
+        assertAll(
+                () -> assertEquals(worker.getRef(), progressCopy.getWorker()),
+                () -> assertEquals(42.5, progressCopy.getProgressPercentage()),
+                () -> assertFalse(noProgressCopy.hasProgressPercentage())
+        );
+    }
+}
@@ -0,0 +1,36 @@
+package blockchain.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Every value falls into a bucket whose highest value is at most ~3% above it")
+    void testBucketPrecision() {
+        for (long value : new long[] {0, 1, 63, 64, 65, 127, 128, 1_000, 999_999, 123_456_789, Long.MAX_VALUE / 3, Long.MAX_VALUE}) {
+            long highest = LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(value));
+            assertTrue(highest >= value, value + " > " + highest);
+            assertTrue(highest - value <= value / 32, value + " -> " + highest);
+        }
+    }
+
+    @Test
+    @DisplayName("Snapshot reports count, mean, max and percentiles of the recorded values")
+    void testSnapshot() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1000);
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        assertEquals(10_000, snapshot.getCount());
+        assertEquals(5_000_500, snapshot.getMean());
+        assertEquals(10_000_000, snapshot.getMax());
+        assertEquals(5_000_000, snapshot.getP50(), 5_000_000 / 32.0);
+        assertEquals(9_900_000, snapshot.getP99(), 9_900_000 / 32.0);
+        assertEquals(5_000, snapshot.inUnitsOf(1000).getP50(), 5_000 / 32.0);
+    }
+}
@@ -0,0 +1,90 @@
+package blockchain.metrics;
+
+import akka.actor.ActorRef;
+import akka.actor.testkit.typed.javadsl.ActorTestKit;
+import akka.actor.typed.javadsl.Adapter;
+import akka.dispatch.Envelope;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MiningMetricsTest {
+    private static ActorTestKit testKit;
+
+    @BeforeAll
+    static void setUp() {
+        testKit = ActorTestKit.create();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        testKit.shutdownTestKit();
+    }
+
+    /**
+     * Message without a sender, it is sent from the dead letters of the test kit's system.
+     */
+    private static Envelope envelope(Object message) {
+        return Envelope.apply(message, ActorRef.noSender(), Adapter.toClassic(testKit.system()));
+    }
+
+    private static MeteredMailbox.MeteredMessageQueue mailbox(String path, MailboxDepths mailboxes) {
+        MeteredMailbox.MeteredMessageQueue queue = new MeteredMailbox.MeteredMessageQueue(path, mailboxes);
+        mailboxes.register(path, queue);
+        return queue;
+    }
+
+    @Test
+    @DisplayName("Worker counters add up in the mining snapshot")
+    void testMiningSnapshot() {
+        MiningMetrics metrics = new MiningMetrics();
+        WorkerMetrics first = metrics.registerWorker("/user/worker_0");
+        WorkerMetrics second = metrics.registerWorker("/user/worker_1");
+        first.recordBatch(1000, 1_000_000);
+        second.recordBatch(500, 1_000_000);
+        second.recordWastedHashes(20);
+        metrics.recordBlock(2_000_000);
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getBlocks());
+        assertEquals(1500, snapshot.getHashes());
+        assertEquals(20, snapshot.getWastedHashes());
+        assertEquals(1_000_000, snapshot.getWorkers().get(0).getHashesPerSecond());
+        assertEquals(-1, snapshot.getWorkers().get(0).getMailboxDepth());
+    }
+
+    @Test
+    @DisplayName("Mailbox depths of actors with the same path in different actor systems are kept apart")
+    void testMailboxDepthsPerActorSystem() {
+        MailboxDepths firstSystem = new MailboxDepths();
+        MailboxDepths secondSystem = new MailboxDepths();
+        MeteredMailbox.MeteredMessageQueue first = mailbox("/user/worker_0", firstSystem);
+        mailbox("/user/worker_0", secondSystem);
+        first.enqueue(null, envelope("mine"));
+        first.enqueue(null, envelope("mine"));
+
+        MiningMetrics metrics = new MiningMetrics();
+        metrics.registerWorker("/user/worker_0", firstSystem);
+        metrics.setManager("/user/worker_0", secondSystem);
+
+        assertEquals(2, metrics.snapshot().getWorkers().get(0).getMailboxDepth());
+        assertEquals(0, metrics.getManagerMailboxDepth());
+    }
+
+    @Test
+    @DisplayName("Mailbox of a stopped actor is removed, its messages go to the dead letters")
+    void testMailboxIsRemovedWhenActorStops() {
+        MailboxDepths mailboxes = new MailboxDepths();
+        MeteredMailbox.MeteredMessageQueue queue = mailbox("/user/worker_0", mailboxes);
+        MeteredMailbox.MeteredMessageQueue deadLetters = new MeteredMailbox.MeteredMessageQueue(null, null);
+        queue.enqueue(null, envelope("mine"));
+
+        queue.cleanUp(null, deadLetters);
+
+        assertEquals(-1, mailboxes.depthOf("/user/worker_0"));
+        assertEquals(1, deadLetters.numberOfMessages());
+    }
+}
@@ -0,0 +1,122 @@
+package blockchain.model;
+
+import blockchain.store.InMemoryBlockStore;
+import blockchain.utils.DifficultyTarget;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlockChainMiningTest {
+    private static final Transaction TRANSACTION = new Transaction(UUID.fromString("33cdefb0-6f73-408b-8a5d-4e72ad13ffdc"), 1588883122, 35252435, 125.25);
+
+    private static BlockChainMining mining() {
+        BlockChainMining mining = BlockChainMining.builder()
+                .blockchain(new BlockChain())
+                .workloadPerWorker(1000)
+                .epoch(new MiningEpoch())
+                .build();
+        mining.setCurrentBlock(Block.withBinaryHeader(List.of(TRANSACTION), mining.getHashOfPreviousBlock(), 6));
+        return mining;
+    }
+
+    @Test
+    @DisplayName("Searched nonce moves past the ranges searched without a gap, ranges finished ahead of a gap wait for it")
+    void testCompletedRangesWithoutGap() {
+        BlockChainMining mining = mining();
+        mining.startNonceRange(5000);
+        NonceRange first = mining.claimNonceRange();
+        NonceRange second = mining.claimNonceRange();
+        NonceRange third = mining.claimNonceRange();
+
+        mining.completeNonceRange(second);
+        assertEquals(5000, mining.getSearchedNonce());
+        mining.completeNonceRange(first);
+        assertEquals(third.getStartNonce(), mining.getSearchedNonce());
+    }
+
+    @Test
+    @DisplayName("The range of a lost worker is handed out again before new ranges")
+    void testAbandonedRangeIsClaimedFirst() {
+        BlockChainMining mining = mining();
+        mining.startNonceRange(0);
+        NonceRange lost = mining.claimNonceRange();
+        NonceRange other = mining.claimNonceRange();
+
+        mining.abandonNonceRange(lost);
+        assertSame(lost, mining.claimNonceRange());
+        assertEquals(other.getEndNonce() + 1, mining.claimNonceRange().getStartNonce());
+    }
+
+    @Test
+    @DisplayName("The lowest hash wins once every range below it is searched, ranges above it are not handed out")
+    void testLowestNonceWins() {
+        BlockChainMining mining = BlockChainMining.builder()
+                .blockchain(new BlockChain())
+                .workloadPerWorker(1000)
+                .epoch(new MiningEpoch())
+                .lowestNonceWins(true)
+                .build();
+        mining.startNonceRange(0);
+        NonceRange first = mining.claimNonceRange();
+        NonceRange second = mining.claimNonceRange();
+        NonceRange third = mining.claimNonceRange();
+        HashResult secondHash = new HashResult("00b", 1500);
+
+        mining.recordResult(third.getStartNonce(), new HashResult("00c", 2100));
+        mining.recordResult(second.getStartNonce(), secondHash);
+        mining.abandonNonceRange(third);
+        assertNull(mining.claimNonceRange());
+        assertNull(mining.getWinningResult());
+        mining.completeNonceRange(first);
+        assertSame(secondHash, mining.getWinningResult());
+    }
+
+    @Test
+    @DisplayName("Candidate blocks hold every transaction once, a list holding one twice is rejected before mining")
+    void testCandidateTransactionsAreUnique() {
+        Mempool mempool = new Mempool();
+        mempool.submit(TRANSACTION);
+        mempool.submit(TRANSACTION);
+        BlockChainMining mining = BlockChainMining.builder()
+                .blockchain(new BlockChain())
+                .transactionsPerBlock(3)
+                .mempool(mempool)
+                .transactionSource(TransactionSource.seeded(42))
+                .build();
+
+        Block block = mining.nextCandidateBlock();
+        assertEquals(3, block.getTransactions().stream().map(Transaction::getId).distinct().count());
+        assertEquals(TRANSACTION, block.getTransactions().get(0));
+        assertThrows(IllegalArgumentException.class, () -> mining.candidateBlock(List.of(TRANSACTION, TRANSACTION)));
+    }
+
+    @Test
+    @DisplayName("Candidate blocks of a retargeted chain get the target of its block times and the time they were created at")
+    void testCandidateIsRetargetedFromBlockTimes() {
+        DifficultyTarget initial = DifficultyTarget.ofLeadingZeros(2).normalized();
+        RetargetPolicy policy = RetargetPolicy.builder()
+                .targetBlockTime(Duration.ofMillis(100))
+                .initialTarget(initial)
+                .interval(4)
+                .build();
+        InMemoryBlockStore store = new InMemoryBlockStore();
+        BlockChainMining mining = BlockChainMining.builder()
+                .blockchain(new BlockChain(store))
+                .retargetPolicy(policy)
+                .build();
+        for (long height = 0; height < 4; height++) {
+            store.append(Block.restore(List.of(TRANSACTION), mining.getHashOfPreviousBlock(), "0", BlockHeaderFormat.BINARY_V2, initial.toCompact(), height * 200, 0, "a" + height));
+        }
+
+        long before = System.currentTimeMillis();
+        Block candidate = mining.nextCandidateBlock();
+
+        assertEquals(initial.scaledBy(2, 1).normalized(), candidate.getTarget());
+        assertTrue(candidate.getTimestamp() >= before && candidate.getTimestamp() <= System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,84 @@
+package blockchain.model;
+
+import blockchain.utils.BlockChainUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlockChainTest {
+
+    private static List<Transaction> transactions(int count) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            transactions.add(new Transaction(UUID.randomUUID(), 1588883122 + i, 35252435 + i, 125.25 + i));
+        }
+        return transactions;
+    }
+
+    private static Block mine(Block block) {
+        Optional<HashResult> result = BlockChainUtils.mineBlock(block, 2, 0, 100000);
+        assertTrue(result.isPresent());
+        block.setHashAndNonce(result.get());
+        return block;
+    }
+
+    @Test
+    @DisplayName("Block with several transactions is accepted")
+    void testMultiTransactionBlockIsAccepted() throws BlockValidationException {
+        BlockChain blockChain = new BlockChain();
+        blockChain.addBlock(mine(Block.withTransactions(transactions(5), "0")));
+
+        assertEquals(1, blockChain.getSize());
+    }
+
+    @Test
+    @DisplayName("Block whose transactions do not match the Merkle root is rejected")
+    void testTamperedTransactionsAreRejected() {
+        Block block = mine(Block.withTransactions(transactions(5), "0"));
+        block.getTransactions().get(3).setAmount(1000000);
+
+        assertThrows(BlockValidationException.class, () -> new BlockChain().addBlock(block));
+    }
+
+    @Test
+    @DisplayName("Binary header block is accepted and chained to the next one")
+    void testBinaryHeaderBlocksAreAccepted() throws BlockValidationException {
+        BlockChain blockChain = new BlockChain();
+        blockChain.addBlock(mine(Block.withBinaryHeader(transactions(1), "0", 2)));
+        blockChain.addBlock(mine(Block.withBinaryHeader(transactions(3), blockChain.getLastHash(), 2)));
+
+        assertEquals(2, blockChain.getSize());
+    }
+
+    @Test
+    @DisplayName("Binary header block claiming a higher difficulty than mined for is rejected")
+    void testBinaryHeaderDifficultyIsValidated() {
+        Block block = mine(Block.withBinaryHeader(transactions(1), "0", 10));
+
+        assertThrows(BlockValidationException.class, () -> new BlockChain().addBlock(block));
+    }
+
+    @Test
+    @DisplayName("Blocks are found by hash and by the id of any of their transactions")
+    void testLookupByHashAndTransactionId() throws BlockValidationException {
+        BlockChain blockChain = new BlockChain();
+        Block first = mine(Block.withTransactions(transactions(3), "0"));
+        blockChain.addBlock(first);
+        Block second = mine(Block.withBinaryHeader(transactions(1), first.getHash(), 2));
+        blockChain.addBlock(second);
+
+        assertSame(second, blockChain.findBlockByHash(second.getHash()).orElseThrow());
+        for (Transaction transaction : first.getTransactions()) {
+            assertSame(first, blockChain.findBlockByTransactionId(transaction.getId()).orElseThrow());
+        }
+        assertSame(second, blockChain.findBlockByTransactionId(second.getTransactions().get(0).getId()).orElseThrow());
+        assertTrue(blockChain.findBlockByHash("0".repeat(64)).isEmpty());
+        assertTrue(blockChain.findBlockByTransactionId(UUID.randomUUID()).isEmpty());
+    }
+}
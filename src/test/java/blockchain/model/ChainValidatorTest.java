@@ -0,0 +1,114 @@
+package blockchain.model;
+
+import blockchain.store.InMemoryBlockStore;
+import blockchain.utils.BlockChainUtils;
+import blockchain.utils.DifficultyTarget;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChainValidatorTest {
+
+    private static Block mine(String previousHash, int height) {
+        Transaction transaction = new Transaction(UUID.randomUUID(), 1588883122 + height, 35252435, 125.25);
+        Block block = Block.withBinaryHeader(List.of(transaction), previousHash, 2);
+        block.setHashAndNonce(BlockChainUtils.mineBlock(block, 2, 0, 100000).orElseThrow());
+        return block;
+    }
+
+    private static void mineBlocks(InMemoryBlockStore store, int count) {
+        for (int i = 0; i < count; i++) {
+            store.append(mine(store.size() > 0 ? store.getLastHash() : "0", (int) store.size()));
+        }
+    }
+
+    private static Block mine(String previousHash, int height, DifficultyTarget target, long timestamp) {
+        Transaction transaction = new Transaction(UUID.randomUUID(), 1588883122 + height, 35252435, 125.25);
+        Block block = Block.withBinaryHeader(List.of(transaction), previousHash, target, timestamp);
+        block.setHashAndNonce(BlockChainUtils.mineBlock(block, block.getTarget(), 0, 100000).orElseThrow());
+        return block;
+    }
+
+    @Test
+    @DisplayName("Chain validated in several chunks reports broken links and too easy hashes by height")
+    void testFailuresAreReportedByHeight() {
+        InMemoryBlockStore store = new InMemoryBlockStore();
+        mineBlocks(store, 9);
+        store.append(mine("0", 9));
+        mineBlocks(store, 5);
+
+        ChainValidator validator = new ChainValidator(new BlockChain(store), 2, 4);
+        ChainValidationReport report = validator.validateAll();
+
+        assertEquals(15, report.getValidatedBlocks());
+        assertEquals(1, report.getFailures().size());
+        assertEquals(9, report.getFailures().get(0).getHeight());
+        assertEquals(ChainValidationReport.Reason.PREVIOUS_HASH_MISMATCH, report.getFailures().get(0).getReason());
+        assertEquals(15, new ChainValidator(new BlockChain(store), 10, 4).validateAll().getFailures().stream()
+                .filter(failure -> failure.getReason() == ChainValidationReport.Reason.INSUFFICIENT_WORK)
+                .count());
+    }
+
+    @Test
+    @DisplayName("Incremental validation only checks blocks appended since the checkpoint")
+    void testIncrementalValidation() {
+        InMemoryBlockStore store = new InMemoryBlockStore();
+        ChainValidator validator = new ChainValidator(new BlockChain(store), 2, 4);
+        mineBlocks(store, 10);
+
+        assertTrue(validator.validateSinceCheckpoint().isValid());
+        assertEquals(10, validator.getCheckpoint());
+
+        mineBlocks(store, 3);
+        ChainValidationReport report = validator.validateSinceCheckpoint();
+
+        assertTrue(report.isValid());
+        assertEquals(10, report.getFirstHeight());
+        assertEquals(3, report.getValidatedBlocks());
+        assertEquals(13, validator.getCheckpoint());
+    }
+
+    private static final RetargetPolicy RETARGET_POLICY = RetargetPolicy.builder()
+            .targetBlockTime(Duration.ofMillis(100))
+            .initialTarget(DifficultyTarget.ofLeadingZeros(2))
+            .interval(4)
+            .build();
+
+    private static List<Long> unexpectedTargets(DifficultyTarget[] targets, long blockMillis) {
+        InMemoryBlockStore store = new InMemoryBlockStore();
+        for (int height = 0; height < targets.length; height++) {
+            store.append(mine(store.size() > 0 ? store.getLastHash() : "0", height, targets[height], 1588883122000L + height * blockMillis));
+        }
+
+        ChainValidationReport report = new ChainValidator(new BlockChain(store), RETARGET_POLICY, 4).validateAll();
+
+        assertTrue(report.getFailures().stream().allMatch(failure -> failure.getReason() == ChainValidationReport.Reason.UNEXPECTED_TARGET));
+        return report.getFailures().stream().map(ChainValidationReport.Failure::getHeight).toList();
+    }
+
+    @Test
+    @DisplayName("Retargeted chain may only change its target at retarget heights, to the target its block times give")
+    void testRetargetedTargetsAreValidatedByHeight() {
+        DifficultyTarget initial = DifficultyTarget.ofLeadingZeros(2).normalized();
+        DifficultyTarget eased = initial.scaledBy(4, 1).normalized();
+        //Blocks four times slower than the target block time ease the target by the maximum adjustment
+        DifficultyTarget[] targets = {initial, initial, initial, initial, eased, eased, initial, initial, initial};
+
+        assertEquals(List.of(6L, 8L), unexpectedTargets(targets, 400));
+    }
+
+    @Test
+    @DisplayName("Retargeted chain may not ease its target while its blocks come on time")
+    void testEasedTargetWithBlocksOnTimeIsInvalid() {
+        DifficultyTarget initial = DifficultyTarget.ofLeadingZeros(2).normalized();
+        DifficultyTarget eased = initial.scaledBy(2, 1).normalized();
+
+        assertEquals(List.of(4L), unexpectedTargets(new DifficultyTarget[] {initial, initial, initial, initial, eased}, 100));
+        assertEquals(List.of(), unexpectedTargets(new DifficultyTarget[] {initial, initial, initial, initial, eased}, 200));
+    }
+}
@@ -0,0 +1,18 @@
+package blockchain.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MiningEpochTest {
+    @Test
+    @DisplayName("Taking over an older epoch leaves the epoch where it is")
+    void testMoveToNeverGoesBack() {
+        MiningEpoch epoch = new MiningEpoch();
+        assertTrue(epoch.moveTo(5));
+        assertTrue(epoch.moveTo(5));
+        assertFalse(epoch.moveTo(4));
+        assertEquals(5, epoch.get());
+    }
+}
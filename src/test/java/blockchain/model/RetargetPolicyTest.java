@@ -0,0 +1,75 @@
+package blockchain.model;
+
+import blockchain.store.InMemoryBlockStore;
+import blockchain.utils.DifficultyTarget;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RetargetPolicyTest {
+    private static final Transaction TRANSACTION = new Transaction(UUID.fromString("33cdefb0-6f73-408b-8a5d-4e72ad13ffdc"), 1588883122, 35252435, 125.25);
+    private static final DifficultyTarget INITIAL = DifficultyTarget.ofLeadingZeros(2).normalized();
+
+    private static final RetargetPolicy POLICY = RetargetPolicy.builder()
+            .targetBlockTime(Duration.ofMillis(100))
+            .initialTarget(DifficultyTarget.ofLeadingZeros(2))
+            .interval(4)
+            .window(2)
+            .build();
+
+    /**
+     * Chain of blocks created at the given times, their hashes are not checked here.
+     */
+    private static BlockChain chain(long... timestamps) {
+        InMemoryBlockStore store = new InMemoryBlockStore();
+        for (long timestamp : timestamps) {
+            String previousHash = store.size() > 0 ? store.getLastHash() : "0";
+            store.append(Block.restore(List.of(TRANSACTION), previousHash, "0", BlockHeaderFormat.BINARY_V2, INITIAL.toCompact(), timestamp, 0, Long.toHexString(timestamp)));
+        }
+        return new BlockChain(store);
+    }
+
+    @Test
+    @DisplayName("Next target follows the mean block time, by at most the maximum adjustment either way")
+    void testNextTargetIsClamped() {
+        assertEquals(INITIAL, POLICY.nextTarget(INITIAL, Duration.ofMillis(100).toNanos()));
+        assertEquals(INITIAL.scaledBy(2, 1).normalized(), POLICY.nextTarget(INITIAL, Duration.ofMillis(200).toNanos()));
+        assertEquals(INITIAL.scaledBy(4, 1).normalized(), POLICY.nextTarget(INITIAL, Long.MAX_VALUE));
+        assertEquals(INITIAL.scaledBy(1, 4).normalized(), POLICY.nextTarget(INITIAL, 0));
+    }
+
+    @Test
+    @DisplayName("Policy built without a target block time aims at one block per second")
+    void testDefaultTargetBlockTime() {
+        RetargetPolicy policy = RetargetPolicy.builder().build();
+
+        assertEquals(INITIAL, policy.nextTarget(INITIAL, Duration.ofSeconds(1).toNanos()));
+        assertEquals(INITIAL.scaledBy(2, 1).normalized(), policy.nextTarget(INITIAL, Duration.ofSeconds(2).toNanos()));
+    }
+
+    @Test
+    @DisplayName("Mean block time is taken from the header timestamps of the last window blocks")
+    void testMeanBlockNanosOfWindow() {
+        BlockChain chain = chain(0, 100, 300, 600);
+
+        assertEquals(-1, POLICY.meanBlockNanos(chain, 1));
+        assertEquals(Duration.ofMillis(100).toNanos(), POLICY.meanBlockNanos(chain, 2));
+        assertEquals(Duration.ofMillis(250).toNanos(), POLICY.meanBlockNanos(chain, 4));
+    }
+
+    @Test
+    @DisplayName("Target only changes at retarget heights")
+    void testTargetAtHeight() {
+        BlockChain chain = chain(0, 100, 300, 600, 1000);
+
+        assertEquals(INITIAL, POLICY.targetAt(new BlockChain(), 0));
+        assertEquals(INITIAL, POLICY.targetAt(chain, 3));
+        assertEquals(POLICY.nextTarget(INITIAL, Duration.ofMillis(250).toNanos()), POLICY.targetAt(chain, 4));
+        assertEquals(INITIAL, POLICY.targetAt(chain, 5));
+    }
+}
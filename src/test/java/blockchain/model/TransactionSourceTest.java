@@ -0,0 +1,77 @@
+package blockchain.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionSourceTest {
+    @TempDir
+    Path directory;
+
+    private static BlockChainMining mining(TransactionSource transactionSource) {
+        return BlockChainMining.builder()
+                .blockchain(new BlockChain())
+                .difficulty(2)
+                .pipelineDepth(2)
+                .transactionsPerBlock(3)
+                .transactionSource(transactionSource)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Minings with the same seed get the same candidate blocks")
+    void testSeededCandidatesAreReproducible() {
+        BlockChainMining first = mining(TransactionSource.seeded(42));
+        BlockChainMining second = mining(TransactionSource.seeded(42));
+        first.refillPendingTransactions();
+        second.refillPendingTransactions();
+
+        for (int i = 0; i < 3; i++) {
+            Block firstBlock = first.nextCandidateBlock();
+            Block secondBlock = second.nextCandidateBlock();
+            assertEquals(firstBlock.getTransactions(), secondBlock.getTransactions());
+            assertEquals(firstBlock.getMerkleRoot(), secondBlock.getMerkleRoot());
+        }
+        assertNotEquals(mining(TransactionSource.seeded(43)).nextCandidateBlock().getMerkleRoot(),
+                mining(TransactionSource.seeded(42)).nextCandidateBlock().getMerkleRoot());
+    }
+
+    private Path replayFile(int transactions) throws Exception {
+        TransactionSource seeded = TransactionSource.seeded(7);
+        Path file = directory.resolve("transactions.csv");
+        ReplayTransactionSource.write(file, Stream.generate(seeded::next).limit(transactions).toList());
+        return file;
+    }
+
+    @Test
+    @DisplayName("Replay returns the written transactions and ends with the file")
+    void testReplayRoundTrip() throws Exception {
+        TransactionSource seeded = TransactionSource.seeded(7);
+        List<Transaction> transactions = Stream.generate(seeded::next).limit(5).toList();
+
+        TransactionSource replay = TransactionSource.replay(replayFile(5));
+        for (Transaction transaction : transactions) {
+            assertEquals(transaction, replay.next());
+        }
+        assertFalse(replay.hasNext());
+        assertThrows(NoSuchElementException.class, replay::next);
+    }
+
+    @Test
+    @DisplayName("Candidates of a replay hold the transactions left at the end of the file, then there are none")
+    void testReplayEndsWithLastCandidate() throws Exception {
+        BlockChainMining mining = mining(TransactionSource.replay(replayFile(5)));
+        mining.refillPendingTransactions();
+
+        assertEquals(3, mining.nextCandidateBlock().getTransactions().size());
+        assertEquals(2, mining.nextCandidateBlock().getTransactions().size());
+        assertNull(mining.nextCandidateBlock());
+    }
+}
@@ -0,0 +1,57 @@
+package blockchain.store;
+
+import blockchain.model.Block;
+import blockchain.model.Transaction;
+import blockchain.utils.DifficultyTarget;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckpointFileTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Checkpoint survives the round trip through its file")
+    void testCheckpointRoundTrip() throws Exception {
+        Transaction transaction = new Transaction(UUID.fromString("33cdefb0-6f73-408b-8a5d-4e72ad13ffdc"), 1588883122, 35252435, 125.25);
+        Block block = Block.withBinaryHeader(List.of(transaction), "0", 6);
+
+        CheckpointFile file = new CheckpointFile(directory.resolve("mining.checkpoint"));
+        file.write(CheckpointFile.encode(new MiningCheckpoint(0, "0", block, DifficultyTarget.ofLeadingZeros(6), 7000)));
+        MiningCheckpoint checkpoint = file.read().orElseThrow();
+
+        assertTrue(checkpoint.continues(0, "0"));
+        assertFalse(checkpoint.continues(1, "0"));
+        assertEquals(7000, checkpoint.getResumeNonce());
+        assertEquals(DifficultyTarget.ofLeadingZeros(6), checkpoint.getTarget());
+        assertArrayEquals(BlockCodec.encode(block), BlockCodec.encode(checkpoint.getCandidateBlock()));
+    }
+
+    @Test
+    @DisplayName("Missing or damaged checkpoints are not read")
+    void testDamagedCheckpointIsIgnored() throws Exception {
+        Path path = directory.resolve("mining.checkpoint");
+        CheckpointFile file = new CheckpointFile(path);
+        assertTrue(file.read().isEmpty());
+
+        Block block = Block.withTransactions(List.of(new Transaction(new UUID(0, 1), 1588883122, 35252435, 125.25)), "0");
+        file.write(CheckpointFile.encode(new MiningCheckpoint(0, "0", block, DifficultyTarget.ofLeadingZeros(5), 42)));
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(path, bytes);
+        assertTrue(file.read().isEmpty());
+
+        Files.write(path, new byte[]{1, 2, 3});
+        assertTrue(file.read().isEmpty());
+        file.delete();
+        assertFalse(Files.exists(path));
+    }
+}
@@ -0,0 +1,93 @@
+package blockchain.store;
+
+import blockchain.model.Block;
+import blockchain.model.BlockChain;
+import blockchain.model.BlockValidationException;
+import blockchain.model.HashResult;
+import blockchain.model.Transaction;
+import blockchain.utils.BlockChainUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileBlockStoreTest {
+    @TempDir
+    Path directory;
+
+    private FileBlockStore open(long segmentSize) throws IOException {
+        return FileBlockStore.open(FileBlockStoreConfiguration.builder()
+                .directory(directory)
+                .segmentSize(segmentSize)
+                .fsyncPolicy(FsyncPolicy.NEVER)
+                .build());
+    }
+
+    private static void mineBlocks(BlockChain blockChain, int count) throws BlockValidationException {
+        for (int i = 0; i < count; i++) {
+            String previousHash = blockChain.getSize() > 0 ? blockChain.getLastHash() : "0";
+            int height = blockChain.getSize();
+            List<Transaction> transactions = new ArrayList<>();
+            for (int j = 0; j <= height % 3; j++) {
+                transactions.add(new Transaction(new UUID(height, j), 1588883122 + height, 35252435 + j, 125.25 + j));
+            }
+            Block block = height % 2 == 0 ? Block.withBinaryHeader(transactions, previousHash, 2) : Block.withTransactions(transactions, previousHash);
+            HashResult result = BlockChainUtils.mineBlock(block, 2, 0, 100000).orElseThrow();
+            block.setHashAndNonce(result);
+            blockChain.addBlock(block);
+        }
+    }
+
+    @Test
+    @DisplayName("Reopened store holds the same blocks and the chain continues from the last hash")
+    void testReopenResumesChain() throws Exception {
+        List<String> hashes = new ArrayList<>();
+        try (BlockChain blockChain = new BlockChain(open(512))) {
+            mineBlocks(blockChain, 10);
+            for (int i = 0; i < 10; i++) {
+                hashes.add(blockChain.getBlock(i).getHash());
+            }
+        }
+
+        try (BlockChain blockChain = new BlockChain(open(512))) {
+            assertEquals(10, blockChain.getSize());
+            assertEquals(hashes.get(9), blockChain.getLastHash());
+            for (int i = 0; i < 10; i++) {
+                Block block = blockChain.getBlock(i);
+                assertEquals(hashes.get(i), block.getHash());
+                assertTrue(BlockChainUtils.validateBlock(block));
+            }
+
+            mineBlocks(blockChain, 1);
+            assertEquals(11, blockChain.getSize());
+        }
+    }
+
+    @Test
+    @DisplayName("Partially written block at the end of a segment is dropped on open")
+    void testTornAppendIsDropped() throws Exception {
+        String lastCompleteHash;
+        try (BlockChain blockChain = new BlockChain(open(1 << 20))) {
+            mineBlocks(blockChain, 3);
+            lastCompleteHash = blockChain.getLastHash();
+        }
+        try (FileChannel data = FileChannel.open(Segment.dataFile(directory, 0), StandardOpenOption.WRITE)) {
+            data.write(ByteBuffer.wrap(new byte[] {0, 0, 1, 0, 42}), data.size());
+        }
+
+        try (FileBlockStore store = open(1 << 20)) {
+            assertEquals(3, store.size());
+            assertEquals(lastCompleteHash, store.getLastHash());
+        }
+    }
+}
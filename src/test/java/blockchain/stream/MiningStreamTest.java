@@ -0,0 +1,143 @@
+package blockchain.stream;
+
+import akka.actor.testkit.typed.javadsl.ActorTestKit;
+import akka.actor.testkit.typed.javadsl.TestProbe;
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.javadsl.AskPattern;
+import akka.pattern.StatusReply;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import blockchain.actors.Manager;
+import blockchain.model.Block;
+import blockchain.model.BlockChain;
+import blockchain.model.BlockChainMiningWorkOrder;
+import blockchain.model.Transaction;
+import blockchain.model.TransactionSource;
+import blockchain.store.FileBlockStore;
+import blockchain.store.FileBlockStoreConfiguration;
+import blockchain.store.FsyncPolicy;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MiningStreamTest {
+    private static ActorTestKit testKit;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void setUp() {
+        testKit = ActorTestKit.create();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        testKit.shutdownTestKit();
+    }
+
+    private BlockChainMiningWorkOrder workOrder(int difficulty) throws IOException {
+        return BlockChainMiningWorkOrder.builder()
+                .numberOfSimultaneousWorkers(2)
+                .workloadPerWorker(1000)
+                .difficulty(difficulty)
+                .progressReportFrequency(1)
+                .blockStore(FileBlockStore.open(FileBlockStoreConfiguration.builder()
+                        .directory(directory)
+                        .fsyncPolicy(FsyncPolicy.NEVER)
+                        .build()))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Every transaction of the stream ends up in a mined block, in order and chained")
+    void testTransactionsAreMinedInOrder() throws Exception {
+        ActorRef<Manager.Command> manager = testKit.spawn(Manager.create());
+        manager.tell(new Manager.StartStreamingCommand(workOrder(1)));
+        TransactionSource transactionSource = TransactionSource.seeded(42);
+        List<Transaction> transactions = Stream.generate(transactionSource::next).limit(10).collect(Collectors.toList());
+
+        MiningStream miningStream = MiningStream.builder()
+                .manager(manager)
+                .scheduler(testKit.scheduler())
+                .transactionsPerBlock(3)
+                .build();
+        List<Block> blocks = miningStream.blocks(Source.from(transactions))
+                .runWith(Sink.seq(), testKit.system())
+                .toCompletableFuture().get(30, TimeUnit.SECONDS);
+
+        assertEquals(transactions, blocks.stream().flatMap(block -> block.getTransactions().stream()).collect(Collectors.toList()));
+        assertEquals("0", blocks.get(0).getPreviousHash());
+        for (int i = 1; i < blocks.size(); i++) {
+            assertEquals(blocks.get(i - 1).getHash(), blocks.get(i).getPreviousHash());
+        }
+    }
+
+    @Test
+    @DisplayName("A slow miner keeps the blocks requested and the transactions pulled bounded")
+    void testSlowMinerBackPressuresTheSource() {
+        TestProbe<Manager.Command> manager = testKit.createTestProbe(Manager.Command.class);
+        TransactionSource transactionSource = TransactionSource.seeded(42);
+        AtomicInteger pulled = new AtomicInteger();
+        Source<Transaction, ?> transactions = Source.fromIterator(() -> Stream.generate(transactionSource::next).iterator())
+                .map(transaction -> {
+                    pulled.incrementAndGet();
+                    return transaction;
+                });
+
+        MiningStream miningStream = MiningStream.builder()
+                .manager(manager.getRef())
+                .scheduler(testKit.scheduler())
+                .transactionsPerBlock(10)
+                .bufferSize(100)
+                .pendingBlocks(2)
+                .build();
+        transactions.via(miningStream.flow()).runWith(Sink.ignore(), testKit.system());
+
+        Manager.MineTransactionsCommand first = manager.expectMessageClass(Manager.MineTransactionsCommand.class, Duration.ofSeconds(5));
+        manager.expectMessageClass(Manager.MineTransactionsCommand.class, Duration.ofSeconds(5));
+        manager.expectNoMessage(Duration.ofMillis(500));
+        //The buffer, the blocks requested and the block being grouped, not the endless source
+        assertTrue(pulled.get() <= 100 + 4 * 10, "pulled " + pulled.get());
+
+        first.getReplyTo().tell(StatusReply.success(new Block(first.getTransactions().get(0), "0")));
+        manager.expectMessageClass(Manager.MineTransactionsCommand.class, Duration.ofSeconds(5));
+        manager.expectNoMessage(Duration.ofMillis(500));
+    }
+
+    @Test
+    @DisplayName("Blocks still requested when streaming stops fail instead of timing out")
+    void testStopAnswersOpenRequests() throws Exception {
+        //No hash meets difficulty 10 in the time of the test
+        ActorRef<Manager.Command> manager = testKit.spawn(Manager.create());
+        manager.tell(new Manager.StartStreamingCommand(workOrder(10)));
+        TransactionSource transactionSource = TransactionSource.seeded(42);
+        Duration timeout = Duration.ofMinutes(1);
+        CompletableFuture<Block> mining = AskPattern.<Manager.Command, Block>askWithStatus(manager,
+                replyTo -> new Manager.MineTransactionsCommand(List.of(transactionSource.next()), replyTo), timeout, testKit.scheduler()).toCompletableFuture();
+        CompletableFuture<Block> queued = AskPattern.<Manager.Command, Block>askWithStatus(manager,
+                replyTo -> new Manager.MineTransactionsCommand(List.of(transactionSource.next()), replyTo), timeout, testKit.scheduler()).toCompletableFuture();
+
+        BlockChain blockChain = AskPattern.<Manager.Command, BlockChain>ask(manager, Manager.StopStreamingCommand::new, timeout, testKit.scheduler())
+                .toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+        assertEquals(0, blockChain.getSize());
+        assertThrows(ExecutionException.class, () -> mining.get(5, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,90 @@
+package blockchain.utils;
+
+import blockchain.model.Block;
+import blockchain.model.HashResult;
+import blockchain.model.Transaction;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlockChainUtilsTest {
+    private static Block testBlock;
+
+    @BeforeAll
+    static void setUp() {
+        Transaction tx = new Transaction(UUID.fromString("33cdefb0-6f73-408b-8a5d-4e72ad13ffdc"), 1588883122, 35252435, 125.25);
+        testBlock = new Block(tx, "0000sfdg24z6t32zdfb<dxbf");
+    }
+
+    @Test
+    @DisplayName("Mining finds the expected nonce and hash")
+    void testMiningFindsExpectedNonce() {
+        Optional<HashResult> result = BlockChainUtils.mineBlock(testBlock, 5, 1277000, 1278000);
+
+        assertTrue(result.isPresent());
+        assertAll(
+                () -> assertEquals(1277424, result.get().getNonce()),
+                () -> assertEquals("000000eb16b355b8324cea2f03ee03a242ba20393fec0358cf24248d3513e9b5", result.get().getHash())
+        );
+    }
+
+    @Test
+    @DisplayName("Mining returns empty result if nonce is not in range")
+    void testMiningFailsIfNonceNotInRange() {
+        assertFalse(BlockChainUtils.mineBlock(testBlock, 5, 0, 1000).isPresent());
+    }
+
+    @Test
+    @DisplayName("Mined hash matches the String based hash calculation")
+    void testMinedHashMatchesCalculatedHash() {
+        Optional<HashResult> result = BlockChainUtils.mineBlock(testBlock, 3, 0, 10000);
+
+        assertTrue(result.isPresent());
+        String dataToEncode = testBlock.getPreviousHash() + testBlock.getTransaction().getTimestamp() + result.get().getNonce() + testBlock.getTransaction();
+        assertEquals(BlockChainUtils.calculateHash(dataToEncode), result.get().getHash());
+    }
+
+    @Test
+    @DisplayName("Midstate kernel finds the same nonce and hash as the digest kernel")
+    void testMidstateKernelMatchesDigestKernel() {
+        MiningKernel digestKernel = MiningKernelType.DIGEST.newKernel();
+        MiningKernel midstateKernel = MiningKernelType.MIDSTATE.newKernel();
+
+        for (String previousHash : new String[] {"0", testBlock.getPreviousHash(), BlockChainUtils.calculateHash("0") + BlockChainUtils.calculateHash("1")}) {
+            Block block = new Block(testBlock.getTransaction(), previousHash);
+            digestKernel.prepare(block);
+            midstateKernel.prepare(block);
+            for (long startNonce : new long[] {-20, 0, 95, 99990}) {
+                boolean found = digestKernel.search(2, startNonce, startNonce + 500);
+
+                assertEquals(found, midstateKernel.search(2, startNonce, startNonce + 500));
+                if (found) {
+                    assertEquals(digestKernel.getFoundNonce(), midstateKernel.getFoundNonce());
+                    assertEquals(digestKernel.getFoundHash(), midstateKernel.getFoundHash());
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Block repeating its last transaction has the same Merkle root, but is invalid")
+    void testDuplicateTransactionsAreInvalid() {
+        Transaction a = testBlock.getTransaction();
+        Transaction b = new Transaction(UUID.fromString("5d2a1f7e-8c0b-4a39-9b6e-2f41c7d8e903"), 1588883123, 35252436, 17.5);
+        Transaction c = new Transaction(UUID.fromString("a4f0c3b2-1e7d-4c58-8a96-73b5e0d2f146"), 1588883124, 35252437, 3.75);
+        Block block = Block.withBinaryHeader(List.of(a, b, c), "0", 2);
+        Block repeated = Block.withBinaryHeader(List.of(a, b, c, c), "0", 2);
+        block.setHashAndNonce(BlockChainUtils.mineBlock(block, 2, 0, 100000).orElseThrow());
+        repeated.setHashAndNonce(BlockChainUtils.mineBlock(repeated, 2, 0, 100000).orElseThrow());
+
+        assertEquals(block.getMerkleRoot(), repeated.getMerkleRoot());
+        assertTrue(BlockChainUtils.validateBlock(block));
+        assertFalse(BlockChainUtils.validateBlock(repeated));
+    }
+}
@@ -0,0 +1,57 @@
+package blockchain.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DifficultyTargetTest {
+
+    @Test
+    @DisplayName("Target of a difficulty level is met by exactly the hashes with as many leading zeros")
+    void testLeadingZerosTargetMatchesDifficultyLevel() {
+        for (int i = 0; i < 2000; i++) {
+            byte[] rawHash = BlockChainUtils.newSha256Digest().digest(BigInteger.valueOf(i).toByteArray());
+            rawHash[0] = (byte) (i % 3 == 0 ? 0 : rawHash[0] & 0x0f);
+            String hash = BlockChainUtils.toHex(rawHash);
+            for (int difficulty = 0; difficulty <= 4; difficulty++) {
+                assertEquals(BlockChainUtils.meetsDifficulty(hash, difficulty), DifficultyTarget.ofLeadingZeros(difficulty).meets(rawHash), hash);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Compact form rounds down to its 23 most significant bits and survives the round trip")
+    void testCompactRoundTrip() {
+        DifficultyTarget target = DifficultyTarget.ofLeadingZeros(6).scaledBy(3, 2);
+        DifficultyTarget normalized = target.normalized();
+
+        assertTrue(normalized.compareTo(target) <= 0);
+        assertTrue(normalized.toBigInteger().compareTo(target.toBigInteger().shiftRight(1).add(target.toBigInteger().shiftRight(2))) > 0);
+        assertEquals(normalized, DifficultyTarget.fromCompact(normalized.toCompact()));
+        assertEquals(0x1d00ffff, DifficultyTarget.fromCompact(0x1d00ffff).toCompact());
+        assertEquals(DifficultyTarget.MAX.normalized(), DifficultyTarget.MAX.scaledBy(4, 1).normalized());
+    }
+
+    @Test
+    @DisplayName("Hashes that tie with the target on the first words are decided by the remaining bytes")
+    void testMeetsBeyondLeadingWords() {
+        DifficultyTarget target = DifficultyTarget.ofLeadingZeros(6).scaledBy(3, 2);
+        byte[] value = target.toBigInteger().toByteArray();
+        byte[] threshold = new byte[32];
+        System.arraycopy(value, 0, threshold, threshold.length - value.length, value.length);
+        for (int i = 0; i < 2000; i++) {
+            byte[] rawHash = BlockChainUtils.newSha256Digest().digest(BigInteger.valueOf(i).toByteArray());
+            //Copy the first 4, 8 or all bytes of the target, which leaves the rest of the hash to decide
+            int tie = new int[]{4, 8, 32}[i % 3];
+            System.arraycopy(threshold, 0, rawHash, 0, tie);
+            boolean expected = new BigInteger(1, rawHash).compareTo(target.toBigInteger()) <= 0;
+            assertEquals(expected, target.meets(rawHash), BlockChainUtils.toHex(rawHash));
+            int firstWord = new BigInteger(1, rawHash).shiftRight(224).intValue();
+            assertTrue(target.mayMeet(firstWord), BlockChainUtils.toHex(rawHash));
+        }
+        assertFalse(target.mayMeet(target.toBigInteger().shiftRight(224).intValue() + 1));
+    }
+}
@@ -0,0 +1,74 @@
+package blockchain.utils;
+
+import blockchain.model.Block;
+import blockchain.model.Transaction;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class VectorHeaderMiningKernelTest {
+    private static Block testBlock;
+
+    @BeforeAll
+    static void setUp() {
+        Transaction tx = new Transaction(UUID.fromString("33cdefb0-6f73-408b-8a5d-4e72ad13ffdc"), 1588883122, 35252435, 125.25);
+        testBlock = Block.withBinaryHeader(List.of(tx), "000000eb16b355b8324cea2f03ee03a242ba20393fec0358cf24248d3513e9b5", 3);
+    }
+
+    @Test
+    @DisplayName("Every lane width finds the same nonces and hashes as the MessageDigest kernel")
+    void testLanesMatchDigestKernel() {
+        assumeTrue(HeaderKernelType.LANES_4.isSupported(), "Vector API not available");
+        for (HeaderKernelType type : supportedLaneKernels()) {
+            //The second range crosses into the high word of the nonce
+            assertSameResults(type, testBlock.getTarget(), 0, 20_000);
+            assertSameResults(type, testBlock.getTarget(), 0xffff0000L, 0x100010000L);
+        }
+    }
+
+    @Test
+    @DisplayName("At an easy target about every 16th nonce is found, in every lane of the vectors")
+    void testEveryLaneMatchesDigestKernel() {
+        assumeTrue(HeaderKernelType.LANES_4.isSupported(), "Vector API not available");
+        for (HeaderKernelType type : supportedLaneKernels()) {
+            assertSameResults(type, DifficultyTarget.ofLeadingZeros(1), 7, 5_000);
+        }
+    }
+
+    private static List<HeaderKernelType> supportedLaneKernels() {
+        return Stream.of(HeaderKernelType.LANES_4, HeaderKernelType.LANES_8, HeaderKernelType.LANES_16)
+                .filter(HeaderKernelType::isSupported)
+                .toList();
+    }
+
+    private static void assertSameResults(HeaderKernelType type, DifficultyTarget target, long firstNonce, long lastNonce) {
+        MiningKernel digest = HeaderKernelType.DIGEST.newKernel();
+        MiningKernel lanes = type.newKernel();
+        digest.prepare(testBlock);
+        lanes.prepare(testBlock);
+
+        long nonce = firstNonce;
+        int found = 0;
+        while (nonce <= lastNonce) {
+            boolean digestFound = digest.search(target, nonce, lastNonce);
+            boolean lanesFound = lanes.search(target, nonce, lastNonce);
+            assertEquals(digestFound, lanesFound, type + " from nonce " + nonce);
+            assertEquals(digest.getHashCount(), lanes.getHashCount(), type + " from nonce " + nonce);
+            if (!digestFound) {
+                break;
+            }
+            assertEquals(digest.getFoundNonce(), lanes.getFoundNonce());
+            assertEquals(digest.getFoundHash(), lanes.getFoundHash());
+            nonce = digest.getFoundNonce() + 1;
+            found++;
+        }
+        assertTrue(found > 0, "No nonce found between " + firstNonce + " and " + lastNonce);
+    }
+}